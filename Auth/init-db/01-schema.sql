@@ -11,16 +11,45 @@ CREATE TABLE IF NOT EXISTS users (
 -- Create index on normalized_username for case-insensitive uniqueness checks
 CREATE UNIQUE INDEX IF NOT EXISTS idx_users_normalized_username ON users(normalized_username);
 
--- Create sessions table
+-- Create sessions table, range-partitioned by expires_at into daily partitions (sessions_pYYYYMMDD).
+-- SessionPartitionMaintainer creates partitions ahead of time and drops expired ones whole.
+-- An existing unpartitioned table is converted by migrations/001-partition-sessions.sql.
 CREATE TABLE IF NOT EXISTS sessions (
-    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
-    token_hash VARCHAR(64) NOT NULL UNIQUE,
+    id BIGINT GENERATED ALWAYS AS IDENTITY,
+    token_hash VARCHAR(64) NOT NULL,
     user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
     created_at TIMESTAMP NOT NULL,
-    expires_at TIMESTAMP NOT NULL
-);
+    expires_at TIMESTAMP NOT NULL,
+    -- Unique keys of a partitioned table must contain the partition key
+    PRIMARY KEY (id, expires_at),
+    -- Also covers the validation lookup, so it is answered from the index alone
+    CONSTRAINT sessions_token_hash_key UNIQUE (token_hash, expires_at) INCLUDE (user_id, created_at)
+) PARTITION BY RANGE (expires_at);
 
 -- Create indexes for sessions
-CREATE UNIQUE INDEX IF NOT EXISTS idx_sessions_token_hash ON sessions(token_hash);
 CREATE INDEX IF NOT EXISTS idx_sessions_user_id ON sessions(user_id);
 CREATE INDEX IF NOT EXISTS idx_sessions_expires_at ON sessions(expires_at);
+
+-- Catches rows outside the created ranges; stays empty while the maintainer runs
+CREATE TABLE IF NOT EXISTS sessions_default PARTITION OF sessions DEFAULT;
+
+-- Daily partitions from yesterday to a week ahead
+DO $$
+DECLARE
+    day DATE;
+BEGIN
+    FOR day IN SELECT generate_series(current_date - 1, current_date + 7, interval '1 day')::date LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF sessions FOR VALUES FROM (%L) TO (%L)',
+                'sessions_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+    END LOOP;
+END $$;
+
+-- Revoked sessions, kept until the token would have expired.
+-- Polled by the API gateway, which verifies signed tokens without calling Auth.
+CREATE TABLE IF NOT EXISTS revoked_sessions (
+    token_hash VARCHAR(64) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_sessions_revoked_at ON revoked_sessions(revoked_at);
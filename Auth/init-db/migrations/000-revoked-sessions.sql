@@ -0,0 +1,13 @@
+-- Creates revoked_sessions (see 01-schema.sql) in a database created before it existed. Auth validates its
+-- schema at startup (ddl-auto: validate), so it does not start against such a database until this has run.
+-- Safe to run more than once, with Auth running. This directory is not run by the postgres entrypoint.
+--
+--   psql -v ON_ERROR_STOP=1 -d auth_db -f init-db/migrations/000-revoked-sessions.sql
+
+CREATE TABLE IF NOT EXISTS revoked_sessions (
+    token_hash VARCHAR(64) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_sessions_revoked_at ON revoked_sessions(revoked_at);
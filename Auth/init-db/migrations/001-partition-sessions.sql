@@ -0,0 +1,74 @@
+-- Converts an existing, unpartitioned sessions table to the daily range partitions of 01-schema.sql, and
+-- creates revoked_sessions if the database predates it.
+-- Only needed for databases created before sessions was partitioned; new databases get the partitioned
+-- table from 01-schema.sql directly. This directory is not run by the postgres entrypoint.
+--
+-- Run once, with Auth stopped or draining (logins during the copy would be lost):
+--   psql -v ON_ERROR_STOP=1 -d auth_db -f init-db/migrations/001-partition-sessions.sql
+-- Expired sessions are not copied. Validation only reads live sessions, and those end up in their partitions.
+
+BEGIN;
+
+LOCK TABLE sessions IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE sessions RENAME TO sessions_unpartitioned;
+ALTER INDEX IF EXISTS idx_sessions_token_hash RENAME TO idx_sessions_unpartitioned_token_hash;
+ALTER INDEX IF EXISTS idx_sessions_user_id RENAME TO idx_sessions_unpartitioned_user_id;
+ALTER INDEX IF EXISTS idx_sessions_expires_at RENAME TO idx_sessions_unpartitioned_expires_at;
+ALTER TABLE sessions_unpartitioned RENAME CONSTRAINT sessions_pkey TO sessions_unpartitioned_pkey;
+ALTER TABLE sessions_unpartitioned RENAME CONSTRAINT sessions_token_hash_key TO sessions_unpartitioned_token_hash_key;
+ALTER SEQUENCE IF EXISTS sessions_id_seq RENAME TO sessions_unpartitioned_id_seq;
+
+CREATE TABLE sessions (
+    id BIGINT GENERATED ALWAYS AS IDENTITY,
+    token_hash VARCHAR(64) NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, expires_at),
+    CONSTRAINT sessions_token_hash_key UNIQUE (token_hash, expires_at) INCLUDE (user_id, created_at)
+) PARTITION BY RANGE (expires_at);
+
+CREATE INDEX idx_sessions_user_id ON sessions(user_id);
+CREATE INDEX idx_sessions_expires_at ON sessions(expires_at);
+
+CREATE TABLE sessions_default PARTITION OF sessions DEFAULT;
+
+-- One partition per day from yesterday up to a week ahead or the latest live expiry, whichever is later
+DO $$
+DECLARE
+    day DATE;
+    last_day DATE;
+BEGIN
+    SELECT greatest(current_date + 7, coalesce(max(expires_at)::date, current_date))
+    INTO last_day
+    FROM sessions_unpartitioned;
+
+    FOR day IN SELECT generate_series(current_date - 1, last_day, interval '1 day')::date LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF sessions FOR VALUES FROM (%L) TO (%L)',
+                'sessions_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+    END LOOP;
+END $$;
+
+INSERT INTO sessions (id, token_hash, user_id, created_at, expires_at)
+OVERRIDING SYSTEM VALUE
+SELECT id, token_hash, user_id, created_at, expires_at
+FROM sessions_unpartitioned
+WHERE expires_at >= localtimestamp - interval '1 day';
+
+-- New ids continue after the copied ones
+SELECT setval(pg_get_serial_sequence('sessions', 'id'),
+        (SELECT coalesce(max(id), 0) + 1 FROM sessions_unpartitioned), false);
+
+DROP TABLE sessions_unpartitioned;
+
+-- Databases from before signed tokens may not have this table yet; same definition as 01-schema.sql
+CREATE TABLE IF NOT EXISTS revoked_sessions (
+    token_hash VARCHAR(64) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_sessions_revoked_at ON revoked_sessions(revoked_at);
+
+COMMIT;
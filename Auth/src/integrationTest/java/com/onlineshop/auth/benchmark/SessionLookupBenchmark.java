@@ -0,0 +1,110 @@
+package com.onlineshop.auth.benchmark;
+
+import com.onlineshop.auth.AuthApplication;
+import com.onlineshop.auth.TestcontainersConfiguration;
+import com.onlineshop.auth.repository.JdbcSessionValidationLookup;
+import com.onlineshop.auth.repository.JpaSessionValidationLookup;
+import com.onlineshop.auth.repository.SessionRepository;
+import com.onlineshop.auth.repository.SessionValidationLookup;
+import com.onlineshop.common.util.TokenHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session lookup for token validation against a real PostgreSQL (Testcontainers): the Spring Data JPQL
+ * projection vs. the plain JDBC statement of the {@code jdbc-session-lookup} profile.
+ *
+ * <p>Both paths run in the same application context, against the same pool and the same row. Needs Docker.
+ * Run from {@code Auth/} after {@code mvn test-compile}:</p>
+ * <pre>
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.onlineshop.auth.benchmark.SessionLookupBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionLookupBenchmark {
+
+    private static final String TOKEN = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    private ConfigurableApplicationContext context;
+    private SessionValidationLookup jpa;
+    private SessionValidationLookup jdbc;
+    private String tokenHash;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.from(AuthApplication::main)
+                .with(TestcontainersConfiguration.class)
+                .run("--spring.main.web-application-type=none", "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.web=WARN", "--logging.level.com.onlineshop.auth=WARN")
+                .getApplicationContext();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jpa = new JpaSessionValidationLookup(context.getBean(SessionRepository.class));
+        jdbc = new JdbcSessionValidationLookup(jdbcTemplate);
+
+        tokenHash = TokenHasher.hash(TOKEN);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Long userId = jdbcTemplate.queryForObject("""
+                INSERT INTO users (username, normalized_username, password_hash)
+                VALUES ('bench', 'bench', 'not-a-hash') RETURNING id
+                """, Long.class);
+        jdbcTemplate.update("INSERT INTO sessions (token_hash, user_id, created_at, expires_at) VALUES (?, ?, ?, ?)",
+                tokenHash, userId, Timestamp.from(now), Timestamp.from(now.plus(1, ChronoUnit.HOURS)));
+
+        SessionRepository.SessionValidationProjection expected = jpa.findByTokenHash(tokenHash, now).orElseThrow();
+        SessionRepository.SessionValidationProjection actual = jdbc.findByTokenHash(tokenHash, now).orElseThrow();
+        if (!expected.getUserId().equals(actual.getUserId())
+                || !expected.getExpiresAt().equals(actual.getExpiresAt())) {
+            throw new IllegalStateException("JPA and JDBC lookups disagree");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long jpaProjection() {
+        return jpa.findByTokenHash(tokenHash, Instant.now()).orElseThrow().getUserId();
+    }
+
+    @Benchmark
+    public Long jdbcStatement() {
+        return jdbc.findByTokenHash(tokenHash, Instant.now()).orElseThrow().getUserId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SessionLookupBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
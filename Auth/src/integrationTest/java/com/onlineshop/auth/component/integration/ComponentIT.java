@@ -4,11 +4,14 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.onlineshop.auth.BaseIntegrationTest;
+import com.onlineshop.auth.config.SecurityConfig;
 import com.onlineshop.auth.dto.ErrorResponse;
 import com.onlineshop.auth.dto.LoginRequest;
 import com.onlineshop.auth.dto.LoginResponse;
 import com.onlineshop.auth.dto.RegisterRequest;
 import com.onlineshop.auth.dto.RegisterResponse;
+import com.onlineshop.auth.dto.ValidateBatchRequest;
+import com.onlineshop.auth.dto.ValidateBatchResponse;
 import com.onlineshop.auth.dto.ValidateResponse;
 import com.onlineshop.auth.testutil.TestDataFactory;
 import org.junit.jupiter.api.Test;
@@ -18,6 +21,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
@@ -43,6 +47,8 @@ class ComponentIT extends BaseIntegrationTest {
     private static final String REGISTER_PATH = AUTH_BASE_PATH + "/register";
     private static final String LOGIN_PATH = AUTH_BASE_PATH + "/login";
     private static final String VALIDATE_PATH = AUTH_BASE_PATH + "/validate";
+    private static final String VALIDATE_BATCH_PATH = AUTH_BASE_PATH + "/validate/batch";
+    private static final String REVOCATIONS_PATH = AUTH_BASE_PATH + "/revocations";
 
     private static final String USERNAME = "TestUser";
     private static final String USERNAME_NORMALIZED = "testuser";
@@ -58,6 +64,9 @@ class ComponentIT extends BaseIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Value("${auth.service-token}")
+    private String serviceToken;
+
     private final ObjectMapper objectMapper = new ObjectMapper()
             .registerModule(new JavaTimeModule())
             .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
@@ -210,6 +219,71 @@ class ComponentIT extends BaseIntegrationTest {
         assertThat(response.getExpiresAt()).isNull();
     }
 
+    // ==================== Service Token Tests ====================
+
+    @Test
+    void validateBatch_withoutServiceToken_returnsForbidden() {
+        log.info("Testing batch validation without the service token");
+
+        restTestClient.post()
+                .uri(VALIDATE_BATCH_PATH)
+                .body(new ValidateBatchRequest(List.of("some-token")))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void validateBatch_withWrongServiceToken_returnsForbidden() {
+        log.info("Testing batch validation with a wrong service token");
+
+        restTestClient.post()
+                .uri(VALIDATE_BATCH_PATH)
+                .header(SecurityConfig.SERVICE_TOKEN_HEADER, "wrong-" + serviceToken)
+                .body(new ValidateBatchRequest(List.of("some-token")))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void validateBatch_withServiceToken_returnsResultPerToken() throws Exception {
+        registerUser(USERNAME, PASSWORD);
+        LoginResponse login = login(USERNAME, PASSWORD);
+
+        var result = restTestClient.post()
+                .uri(VALIDATE_BATCH_PATH)
+                .header(SecurityConfig.SERVICE_TOKEN_HEADER, serviceToken)
+                .body(new ValidateBatchRequest(List.of(login.getToken(), "abc123-invalid-random-token-xyz789")))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class);
+
+        ValidateBatchResponse response = objectMapper.readValue(result.getResponseBody(), ValidateBatchResponse.class);
+        assertThat(response.getResults()).hasSize(2);
+        assertThat(response.getResults().get(0).isValid()).isTrue();
+        assertThat(response.getResults().get(1).isValid()).isFalse();
+    }
+
+    @Test
+    void revocations_withoutServiceToken_returnsForbidden() {
+        log.info("Testing revocations without the service token");
+
+        restTestClient.get()
+                .uri(REVOCATIONS_PATH)
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void revocations_withServiceToken_returnsOk() {
+        log.info("Testing revocations with the service token");
+
+        restTestClient.get()
+                .uri(REVOCATIONS_PATH)
+                .header(SecurityConfig.SERVICE_TOKEN_HEADER, serviceToken)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
     // ==================== Username Uniqueness Tests ====================
 
     /**
@@ -0,0 +1,53 @@
+package com.onlineshop.auth.component.integration;
+
+import com.onlineshop.auth.BaseIntegrationTest;
+import com.onlineshop.auth.entity.Session;
+import com.onlineshop.auth.entity.User;
+import com.onlineshop.auth.repository.JdbcSessionValidationLookup;
+import com.onlineshop.auth.repository.JpaSessionValidationLookup;
+import com.onlineshop.auth.repository.SessionRepository;
+import com.onlineshop.auth.repository.SessionValidationLookup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The {@code jdbc-session-lookup} read path returns what the JPA projection returns.
+ */
+@ActiveProfiles("jdbc-session-lookup")
+class JdbcSessionValidationLookupIT extends BaseIntegrationTest {
+
+    @Autowired
+    private SessionValidationLookup sessionValidationLookup;
+
+    @Test
+    void jdbcLookup_isActiveAndMatchesJpaProjection() {
+        User user = userRepository.save(new User("JdbcLookupUser", "not-a-hash"));
+        Session session = new Session();
+        session.setTokenHash("a".repeat(64));
+        session.setUser(user);
+        session.setExpiresAt(Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MICROS));
+        sessionRepository.save(session);
+
+        SessionRepository.SessionValidationProjection jdbc = sessionValidationLookup
+                .findByTokenHash(session.getTokenHash(), Instant.now()).orElseThrow();
+        SessionRepository.SessionValidationProjection jpa = new JpaSessionValidationLookup(sessionRepository)
+                .findByTokenHash(session.getTokenHash(), Instant.now()).orElseThrow();
+
+        assertThat(sessionValidationLookup).isInstanceOf(JdbcSessionValidationLookup.class);
+        assertThat(jdbc.getUserId()).isEqualTo(user.getId()).isEqualTo(jpa.getUserId());
+        assertThat(jdbc.getUsername()).isEqualTo("JdbcLookupUser").isEqualTo(jpa.getUsername());
+        assertThat(jdbc.getCreatedAt()).isEqualTo(jpa.getCreatedAt());
+        assertThat(jdbc.getExpiresAt()).isEqualTo(jpa.getExpiresAt());
+    }
+
+    @Test
+    void jdbcLookup_whenNoSession_returnsEmpty() {
+        assertThat(sessionValidationLookup.findByTokenHash("b".repeat(64), Instant.now())).isEmpty();
+    }
+}
@@ -0,0 +1,112 @@
+package com.onlineshop.auth.component.integration;
+
+import com.onlineshop.auth.BaseIntegrationTest;
+import com.onlineshop.auth.entity.Session;
+import com.onlineshop.auth.entity.User;
+import com.onlineshop.auth.service.ExpiredSessionPurger;
+import com.onlineshop.auth.service.SessionPartitionMaintainer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The {@code sessions} table is partitioned by day of expiry: partitions exist ahead of time, expired days are
+ * dropped whole, and the validation lookup skips the partitions of expired days.
+ */
+class SessionPartitioningIT extends BaseIntegrationTest {
+
+    @Autowired
+    private SessionPartitionMaintainer sessionPartitionMaintainer;
+
+    @Autowired
+    private ExpiredSessionPurger expiredSessionPurger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void maintain_createsUpcomingPartitionsAndDropsExpiredOnes() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS sessions_p20200101 PARTITION OF sessions "
+                + "FOR VALUES FROM ('2020-01-01') TO ('2020-01-02')");
+
+        sessionPartitionMaintainer.maintain();
+
+        assertThat(partitions())
+                .doesNotContain("sessions_p20200101")
+                .contains(partitionName(today), partitionName(today.plusDays(7)), "sessions_default");
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('sessions_p20200101') IS NULL", Boolean.class))
+                .isTrue();
+    }
+
+    @Test
+    void newSession_landsInThePartitionOfItsExpiryDay() {
+        User user = userRepository.save(new User("PartitionedUser", "not-a-hash"));
+        Session session = new Session();
+        session.setTokenHash("c".repeat(64));
+        session.setUser(user);
+        session.setExpiresAt(Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MICROS));
+        sessionRepository.save(session);
+
+        String partition = jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM sessions WHERE token_hash = ?", String.class,
+                session.getTokenHash());
+
+        assertThat(partition).isEqualTo(partitionName(LocalDate.ofInstant(session.getExpiresAt(), ZoneOffset.UTC)));
+        assertThat(sessionRepository.findValidationProjectionByTokenHash(session.getTokenHash(), Instant.now()))
+                .hasValueSatisfying(found -> assertThat(found.getUserId()).isEqualTo(user.getId()));
+    }
+
+    @Test
+    void purge_deletesExpiredSessionsFromDefaultPartitionOnly() {
+        User user = userRepository.save(new User("DefaultPartitionUser", "not-a-hash"));
+        // Neither day has a partition: 2020-06-01 is long gone, and 60 days ahead is past premake-days
+        Session expired = saveSession(user, "d".repeat(64), Instant.parse("2020-06-01T12:00:00Z"));
+        Session live = saveSession(user, "e".repeat(64), Instant.now().plus(60, ChronoUnit.DAYS));
+
+        expiredSessionPurger.purge();
+
+        assertThat(jdbcTemplate.queryForList("SELECT token_hash FROM sessions_default", String.class))
+                .doesNotContain(expired.getTokenHash())
+                .contains(live.getTokenHash());
+    }
+
+    @Test
+    void validationLookup_skipsPartitionsOfExpiredDays() {
+        LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT s.user_id FROM sessions s WHERE s.token_hash = 'x' AND s.expires_at >= '"
+                        + LocalDateTime.now(ZoneOffset.UTC) + "'", String.class);
+
+        assertThat(String.join("\n", plan)).doesNotContain(partitionName(yesterday));
+    }
+
+    private Session saveSession(User user, String tokenHash, Instant expiresAt) {
+        Session session = new Session();
+        session.setTokenHash(tokenHash);
+        session.setUser(user);
+        session.setExpiresAt(expiresAt.truncatedTo(ChronoUnit.MICROS));
+        return sessionRepository.save(session);
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'sessions'::regclass
+                """, String.class);
+    }
+
+    private static String partitionName(LocalDate day) {
+        return "sessions_p" + day.toString().replace("-", "");
+    }
+}
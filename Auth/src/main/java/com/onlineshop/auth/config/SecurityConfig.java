@@ -1,7 +1,15 @@
 package com.onlineshop.auth.config;
 
+import com.onlineshop.auth.service.BoundedPasswordEncoder;
+import com.onlineshop.common.util.SignedSessionTokenCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -9,19 +17,36 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.time.Clock;
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    public static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+
+    /**
+     * Argon2 on a bounded pool of hashing workers, so concurrent logins cannot oversubscribe CPU and memory.
+     * {@code threads: 0} means one per available processor.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
+    public BoundedPasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${auth.password-hashing.threads:0}") int threads,
+            @Value("${auth.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${auth.password-hashing.max-queue-wait:2s}") Duration maxQueueWait,
+            @Value("${auth.password-hashing.retry-after:1s}") Duration retryAfter) {
         // OWASP 2025: Argon2id with 47 MiB memory, 1 iteration, parallelism 1
         // Constructor: saltLength, hashLength, parallelism, memory (KiB), iterations
-        return new Argon2PasswordEncoder(16, 32, 1, 47104, 1);
+        PasswordEncoder argon2 = new Argon2PasswordEncoder(16, 32, 1, 47104, 1);
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(argon2, workers, queueCapacity, maxQueueWait, retryAfter, meterRegistry);
     }
 
     @Bean
@@ -29,22 +54,50 @@ public class SecurityConfig {
         return new SecureRandom();
     }
 
+    /**
+     * Signs session tokens so the API gateway can verify them without calling Auth.
+     * The secret is shared with the gateway ({@code gateway.auth.signed-tokens.secret}).
+     */
+    @Bean
+    @ConditionalOnProperty(name = "session.token-format", havingValue = "signed")
+    public SignedSessionTokenCodec signedSessionTokenCodec(@Value("${session.signing-secret}") String secret) {
+        return new SignedSessionTokenCodec(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
     @Bean
     public Clock clock() {
         return Clock.systemUTC();
     }
 
+    /**
+     * Endpoints meant for the API gateway only (batch validation, revocations) require the service token shared with it
+     * ({@code auth.service-token}, same value as {@code gateway.auth.service-token}) in
+     * {@value #SERVICE_TOKEN_HEADER}; without it they answer 403. The rest of {@code /api/v1/auth} is public.
+     */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            @Value("${auth.service-token}") String serviceToken) throws Exception {
+        byte[] expectedToken = serviceToken.getBytes(StandardCharsets.UTF_8);
+        AuthorizationManager<RequestAuthorizationContext> serviceOnly = (authentication, context) ->
+                new AuthorizationDecision(hasServiceToken(context.getRequest(), expectedToken));
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/api/v1/auth/validate/batch", "/api/v1/auth/revocations").access(serviceOnly)
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/actuator/**").permitAll()
                         .anyRequest().authenticated());
 
         return http.build();
     }
+
+    private static boolean hasServiceToken(HttpServletRequest request, byte[] expectedToken) {
+        String token = request.getHeader(SERVICE_TOKEN_HEADER);
+        // An unset secret locks the endpoints instead of opening them to an empty header
+        return token != null && expectedToken.length > 0
+                && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), expectedToken);
+    }
 }
@@ -10,6 +10,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+
 @RestController
 @RequestMapping("/api/v1/auth")
 @RequiredArgsConstructor
@@ -57,6 +59,34 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/validate/batch")
+    public ResponseEntity<ValidateBatchResponse> validateBatch(@Valid @RequestBody ValidateBatchRequest request) {
+        long startedAt = System.nanoTime();
+        log.info("Validate batch request started with {} tokens", request.getTokens().size());
+        ValidateBatchResponse response = authService.validateTokens(request.getTokens());
+        log.info("Validate batch request completed in {} ms", elapsedMillis(startedAt));
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null) {
+            throw new MissingAuthorizationHeaderException();
+        }
+        String token = extractToken(authHeader);
+        if (token != null) {
+            authService.logout(token);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/revocations")
+    public ResponseEntity<RevocationsResponse> revocations(
+            @RequestParam(value = "since", required = false) Instant since) {
+        return ResponseEntity.ok(authService.revocationsSince(since != null ? since : Instant.EPOCH));
+    }
+
     private String extractToken(String authHeader) {
         if (authHeader.isBlank()) {
             return null;
@@ -0,0 +1,35 @@
+package com.onlineshop.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Sessions revoked since the requested instant that have not expired yet.
+ * {@code asOf} is the {@code since} to pass on the next poll.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevocationsResponse {
+
+    private List<RevokedToken> revoked;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, timezone = "UTC")
+    private Instant asOf;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RevokedToken {
+
+        private String tokenHash;
+        @JsonFormat(shape = JsonFormat.Shape.STRING, timezone = "UTC")
+        private Instant expiresAt;
+    }
+}
@@ -0,0 +1,22 @@
+package com.onlineshop.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValidateBatchRequest {
+
+    public static final int MAX_TOKENS = 100;
+
+    @NotEmpty(message = "Tokens are required and cannot be empty")
+    @Size(max = MAX_TOKENS, message = "At most " + MAX_TOKENS + " tokens can be validated per request")
+    private List<@NotBlank(message = "Tokens cannot be blank") String> tokens;
+}
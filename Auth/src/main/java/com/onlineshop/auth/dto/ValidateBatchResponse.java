@@ -0,0 +1,18 @@
+package com.onlineshop.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Validation results in the order of {@link ValidateBatchRequest#getTokens()}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValidateBatchResponse {
+
+    private List<ValidateResponse> results;
+}
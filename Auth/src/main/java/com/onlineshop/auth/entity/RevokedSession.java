@@ -0,0 +1,29 @@
+package com.onlineshop.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A session ended before its expiry. Kept until {@code expiresAt}, after which the token is rejected anyway.
+ */
+@Entity
+@Table(name = "revoked_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedSession {
+
+    @Id
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
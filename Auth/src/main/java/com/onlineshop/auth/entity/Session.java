@@ -10,8 +10,18 @@ import java.time.Instant;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.SourceType;
 
+/**
+ * A login session, stored in the {@code sessions} table, which is partitioned by {@code expires_at}.
+ *
+ * <p>PostgreSQL needs the partition key in every unique constraint of a partitioned table. So the table's
+ * primary key is {@code (id, expires_at)} and its token key is {@code (token_hash, expires_at)}. Hibernate
+ * still identifies a session by {@code id} alone, because it does not support identity generation on a
+ * composite key. That is safe: the identity column never repeats an id. {@code expiresAt} is not updatable,
+ * so a row never changes partition or key.</p>
+ */
 @Entity
-@Table(name = "sessions")
+@Table(name = "sessions", uniqueConstraints = @UniqueConstraint(
+        name = "sessions_token_hash_key", columnNames = {"token_hash", "expires_at"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,7 +31,7 @@ public class Session {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    @Column(name = "token_hash", nullable = false, length = 64)
     private String tokenHash;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -32,7 +42,7 @@ public class Session {
     @CreationTimestamp(source = SourceType.VM)
     private Instant createdAt;
 
-    @Column(name = "expires_at", nullable = false)
+    @Column(name = "expires_at", nullable = false, updatable = false)
     private Instant expiresAt;
 
     public boolean isValid(Instant now) {
@@ -4,6 +4,7 @@ import com.onlineshop.auth.dto.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -115,6 +116,25 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingOverloadedException(
+            PasswordHashingOverloadedException ex,
+            WebRequest request) {
+        logger.warn("Password hashing overloaded, rejecting {}", request.getDescription(false));
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .type("https://api.onlineshop.com/errors/service-unavailable")
+                .title("Service Unavailable")
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .detail(ex.getMessage())
+                .instance(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(MissingAuthorizationHeaderException.class)
     public ResponseEntity<ErrorResponse> handleMissingAuthorizationHeaderException(
             MissingAuthorizationHeaderException ex,
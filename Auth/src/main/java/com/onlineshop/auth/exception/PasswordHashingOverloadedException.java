@@ -0,0 +1,20 @@
+package com.onlineshop.auth.exception;
+
+import java.time.Duration;
+
+/**
+ * A password hash was not admitted because the hashing workers are saturated.
+ */
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public PasswordHashingOverloadedException(Duration retryAfter) {
+        super("Authentication is temporarily overloaded. Please try again later.");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
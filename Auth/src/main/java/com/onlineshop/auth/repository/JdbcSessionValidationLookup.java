@@ -0,0 +1,88 @@
+package com.onlineshop.auth.repository;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Session lookup as one plain JDBC statement: no repository proxy, JPQL translation, persistence context or
+ * projection proxy per call.
+ *
+ * <p>The SQL text is a constant, so the PostgreSQL driver's per-connection statement cache keeps it prepared
+ * on the server after the first few executions (the driver's {@code prepareThreshold}), and Hikari keeps the
+ * connections. The row is mapped into a record with column indexes.</p>
+ */
+@Repository
+@Profile("jdbc-session-lookup")
+public class JdbcSessionValidationLookup implements SessionValidationLookup {
+
+    static final String SQL = """
+            SELECT u.id, u.username, s.created_at, s.expires_at
+            FROM sessions s
+            JOIN users u ON u.id = s.user_id
+            WHERE s.token_hash = ? AND s.expires_at >= ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcSessionValidationLookup(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<SessionRepository.SessionValidationProjection> findByTokenHash(String tokenHash, Instant now) {
+        return Optional.ofNullable(jdbcTemplate.query(SQL,
+                statement -> {
+                    statement.setString(1, tokenHash);
+                    statement.setObject(2, now.atOffset(ZoneOffset.UTC));
+                },
+                JdbcSessionValidationLookup::mapRow));
+    }
+
+    private static SessionRow mapRow(ResultSet resultSet) throws SQLException {
+        if (!resultSet.next()) {
+            return null;
+        }
+        return new SessionRow(
+                resultSet.getLong(1),
+                resultSet.getString(2),
+                toInstant(resultSet.getObject(3, OffsetDateTime.class)),
+                toInstant(resultSet.getObject(4, OffsetDateTime.class)));
+    }
+
+    // Bound and read as Hibernate binds and reads the Instant columns, so both lookups return the same values
+    private static Instant toInstant(OffsetDateTime value) {
+        return value == null ? null : value.toInstant();
+    }
+
+    record SessionRow(Long userId, String username, Instant createdAt, Instant expiresAt)
+            implements SessionRepository.SessionValidationProjection {
+
+        @Override
+        public Long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+
+        @Override
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
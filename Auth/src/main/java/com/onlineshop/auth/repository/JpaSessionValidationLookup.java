@@ -0,0 +1,26 @@
+package com.onlineshop.auth.repository;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Session lookup through the Spring Data JPQL projection query.
+ */
+@Repository
+@Profile("!jdbc-session-lookup")
+public class JpaSessionValidationLookup implements SessionValidationLookup {
+
+    private final SessionRepository sessionRepository;
+
+    public JpaSessionValidationLookup(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+    }
+
+    @Override
+    public Optional<SessionRepository.SessionValidationProjection> findByTokenHash(String tokenHash, Instant now) {
+        return sessionRepository.findValidationProjectionByTokenHash(tokenHash, now);
+    }
+}
@@ -0,0 +1,30 @@
+package com.onlineshop.auth.repository;
+
+import com.onlineshop.auth.entity.RevokedSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedSessionRepository extends JpaRepository<RevokedSession, String> {
+
+    @Query("""
+            SELECT r FROM RevokedSession r
+            WHERE r.revokedAt > :since AND r.expiresAt > :now
+            ORDER BY r.revokedAt
+            """)
+    List<RevokedSession> findRevokedSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    /**
+     * Deletes revocations of tokens that have expired, which no longer need to be reported.
+     * Only sessions ended early are recorded, so one statement deletes them all.
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedSession r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
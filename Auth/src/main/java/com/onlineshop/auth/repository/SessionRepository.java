@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,17 +19,79 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
     @Query("SELECT s FROM Session s JOIN FETCH s.user WHERE s.tokenHash = :tokenHash")
     Optional<Session> findByTokenHashWithUser(@Param("tokenHash") String tokenHash);
 
+    /**
+     * Looks up a session that has not expired at {@code now}. The bound on {@code expires_at} lets PostgreSQL
+     * skip the partitions of expired days.
+     */
     @Query("""
             SELECT s.user.id AS userId, s.user.username AS username, s.createdAt AS createdAt, s.expiresAt AS expiresAt
             FROM Session s
-            WHERE s.tokenHash = :tokenHash
+            WHERE s.tokenHash = :tokenHash AND s.expiresAt >= :now
             """)
-    Optional<SessionValidationProjection> findValidationProjectionByTokenHash(@Param("tokenHash") String tokenHash);
+    Optional<SessionValidationProjection> findValidationProjectionByTokenHash(@Param("tokenHash") String tokenHash,
+            @Param("now") Instant now);
+
+    /**
+     * Looks up many sessions that have not expired at {@code now} in one query. The hashes are bound as a single
+     * array parameter, so the statement text is the same for every batch size.
+     */
+    @Query(value = """
+            SELECT s.token_hash AS tokenHash, u.id AS userId, u.username AS username,
+                   s.created_at AS createdAt, s.expires_at AS expiresAt
+            FROM sessions s
+            JOIN users u ON u.id = s.user_id
+            WHERE s.token_hash = ANY(CAST(:tokenHashes AS varchar[])) AND s.expires_at >= :now
+            """, nativeQuery = true)
+    List<SessionBatchValidationProjection> findValidationProjectionsByTokenHashes(
+            @Param("tokenHashes") String[] tokenHashes, @Param("now") Instant now);
 
     @Modifying
     @Query("DELETE FROM Session s WHERE s.expiresAt < :now")
     void deleteExpiredSessions(@Param("now") Instant now);
 
+    /**
+     * Deletes at most {@code batchSize} expired sessions. Rows locked by another transaction are skipped, and
+     * each call holds its row locks for one small batch only.
+     *
+     * @return the number of sessions deleted
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM sessions
+            WHERE id IN (
+                SELECT id FROM sessions
+                WHERE expires_at < :now
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED)
+            """, nativeQuery = true)
+    int deleteExpiredSessionsBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
+
+    /**
+     * {@link #deleteExpiredSessionsBatch} for a partitioned {@code sessions} table, where expired days are
+     * dropped whole: deletes only from {@code sessions_default}, which holds the sessions of days that had no
+     * partition yet.
+     *
+     * @return the number of sessions deleted
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM sessions_default
+            WHERE id IN (
+                SELECT id FROM sessions_default
+                WHERE expires_at < :now
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED)
+            """, nativeQuery = true)
+    int deleteExpiredDefaultPartitionBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
+
+    /**
+     * Whether {@code sessions} is range-partitioned, in which case expired days are dropped whole by
+     * {@code SessionPartitionMaintainer} instead of deleted row by row, except in {@code sessions_default}.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('sessions'))",
+            nativeQuery = true)
+    boolean isPartitioned();
+
     @Modifying
     @Query("DELETE FROM Session s WHERE s.user.id = :userId")
     void deleteByUserId(@Param("userId") Long userId);
@@ -39,4 +102,8 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
         Instant getCreatedAt();
         Instant getExpiresAt();
     }
+
+    interface SessionBatchValidationProjection extends SessionValidationProjection {
+        String getTokenHash();
+    }
 }
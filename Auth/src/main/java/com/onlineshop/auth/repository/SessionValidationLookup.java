@@ -0,0 +1,18 @@
+package com.onlineshop.auth.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Read path for the session lookup behind token validation.
+ *
+ * <p>The default goes through {@link SessionRepository} (JPA). The {@code jdbc-session-lookup} profile swaps in
+ * {@link JdbcSessionValidationLookup}, a single prepared statement mapped straight to a record.</p>
+ */
+public interface SessionValidationLookup {
+
+    /**
+     * The session of {@code tokenHash}, if it has not expired at {@code now}.
+     */
+    Optional<SessionRepository.SessionValidationProjection> findByTokenHash(String tokenHash, Instant now);
+}
@@ -1,23 +1,35 @@
 package com.onlineshop.auth.service;
 
 import com.onlineshop.auth.dto.*;
+import com.onlineshop.auth.entity.RevokedSession;
 import com.onlineshop.auth.entity.Session;
 import com.onlineshop.auth.entity.User;
 import com.onlineshop.auth.exception.InvalidUsernameOrPasswordException;
 import com.onlineshop.auth.exception.UserAlreadyExistsException;
+import com.onlineshop.auth.repository.RevokedSessionRepository;
 import com.onlineshop.auth.repository.SessionRepository;
+import com.onlineshop.auth.repository.SessionValidationLookup;
 import com.onlineshop.auth.repository.UserRepository;
+import com.onlineshop.common.util.SignedSessionTokenCodec;
+import com.onlineshop.common.util.TokenHasher;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Slf4j
@@ -25,19 +37,30 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final SessionRepository sessionRepository;
+    private final SessionValidationLookup sessionValidationLookup;
+    private final RevokedSessionRepository revokedSessionRepository;
     private final PasswordEncoder passwordEncoder;
     private final SecureRandom secureRandom;
     private final Clock clock;
+    private final SessionCache sessionCache;
+    // Present when session.token-format=signed; opaque tokens otherwise
+    private final SignedSessionTokenCodec signedTokenCodec;
     private final long sessionExpirationSeconds;
 
     public AuthService(UserRepository userRepository, SessionRepository sessionRepository,
-            PasswordEncoder passwordEncoder, SecureRandom secureRandom, Clock clock,
+            SessionValidationLookup sessionValidationLookup, RevokedSessionRepository revokedSessionRepository,
+            PasswordEncoder passwordEncoder, SecureRandom secureRandom, Clock clock, SessionCache sessionCache,
+            Optional<SignedSessionTokenCodec> signedTokenCodec,
             @Value("${session.expiration:3600}") long sessionExpirationSeconds) {
         this.userRepository = userRepository;
         this.sessionRepository = sessionRepository;
+        this.sessionValidationLookup = sessionValidationLookup;
+        this.revokedSessionRepository = revokedSessionRepository;
         this.passwordEncoder = passwordEncoder;
         this.secureRandom = secureRandom;
         this.clock = clock;
+        this.sessionCache = sessionCache;
+        this.signedTokenCodec = signedTokenCodec.orElse(null);
         this.sessionExpirationSeconds = sessionExpirationSeconds;
     }
 
@@ -91,14 +114,15 @@ public class AuthService {
         log.info("Login operation password verification completed in {} ms for userId={}",
                 elapsedMillis(passwordMatchStartedAt), user.getId());
 
+        Instant now = clock.instant();
+        Instant expiresAt = now.plusSeconds(sessionExpirationSeconds);
+
         long tokenGenerationStartedAt = System.nanoTime();
-        String token = generateToken();
+        String token = generateToken(user, now, expiresAt);
         log.info("Login operation token generation completed in {} ms for userId={}",
                 elapsedMillis(tokenGenerationStartedAt), user.getId());
 
         String tokenHash = hashToken(token);
-        Instant now = clock.instant();
-        Instant expiresAt = now.plusSeconds(sessionExpirationSeconds);
 
         Session session = new Session();
         session.setTokenHash(tokenHash);
@@ -109,6 +133,9 @@ public class AuthService {
         sessionRepository.save(session);
         log.info("Login operation db.save(session) completed in {} ms for userId={}",
                 elapsedMillis(sessionSaveStartedAt), user.getId());
+        // The gateway validates a fresh token right away, usually on this replica
+        sessionCache.put(tokenHash, new SessionCache.CachedSession(
+                user.getId(), user.getUsername(), session.getCreatedAt(), expiresAt));
 
         log.info("Login service completed in {} ms for userId={}",
                 elapsedMillis(requestStartedAt), user.getId());
@@ -130,13 +157,14 @@ public class AuthService {
         Instant now = clock.instant();
 
         long findSessionStartedAt = System.nanoTime();
-        SessionRepository.SessionValidationProjection session = sessionRepository
-                .findValidationProjectionByTokenHash(tokenHash)
-                .orElse(null);
-        log.info("Validate operation db.findValidationProjectionByTokenHash completed in {} ms",
+        SessionCache.CachedSession session = sessionCache.get(tokenHash, hash -> sessionValidationLookup
+                .findByTokenHash(hash, now)
+                .map(SessionCache.CachedSession::of)
+                .orElse(null));
+        log.info("Validate operation session lookup completed in {} ms",
                 elapsedMillis(findSessionStartedAt));
 
-        if (session == null || now.isAfter(session.getExpiresAt())) {
+        if (session == null || now.isAfter(session.expiresAt())) {
             log.info("Validate service completed in {} ms with valid=false", elapsedMillis(requestStartedAt));
             return ValidateResponse.builder()
                     .valid(false)
@@ -144,18 +172,108 @@ public class AuthService {
         }
 
         log.info("Validate service completed in {} ms with valid=true for userId={}",
-                elapsedMillis(requestStartedAt), session.getUserId());
+                elapsedMillis(requestStartedAt), session.userId());
 
         return ValidateResponse.builder()
                 .valid(true)
-                .userId(session.getUserId())
-                .username(session.getUsername())
-                .createdAt(session.getCreatedAt())
-                .expiresAt(session.getExpiresAt())
+                .userId(session.userId())
+                .username(session.username())
+                .createdAt(session.createdAt())
+                .expiresAt(session.expiresAt())
+                .build();
+    }
+
+    public ValidateBatchResponse validateTokens(List<String> tokens) {
+        long requestStartedAt = System.nanoTime();
+        String[] tokenHashes = new String[tokens.size()];
+        for (int i = 0; i < tokenHashes.length; i++) {
+            tokenHashes[i] = TokenHasher.hash(tokens.get(i));
+        }
+        Instant now = clock.instant();
+
+        long findSessionsStartedAt = System.nanoTime();
+        // Cached sessions are answered from memory; the rest are looked up in one query
+        Map<String, SessionCache.CachedSession> sessionsByHash = sessionCache.getAll(
+                new LinkedHashSet<>(Arrays.asList(tokenHashes)), hashes -> findSessions(hashes, now));
+        log.info("Validate batch operation session lookup completed in {} ms for {} tokens",
+                elapsedMillis(findSessionsStartedAt), tokenHashes.length);
+
+        List<ValidateResponse> results = new ArrayList<>(tokenHashes.length);
+        int validCount = 0;
+        for (String tokenHash : tokenHashes) {
+            SessionCache.CachedSession session = sessionsByHash.get(tokenHash);
+            if (session == null || now.isAfter(session.expiresAt())) {
+                results.add(ValidateResponse.builder().valid(false).build());
+                continue;
+            }
+            validCount++;
+            results.add(ValidateResponse.builder()
+                    .valid(true)
+                    .userId(session.userId())
+                    .username(session.username())
+                    .createdAt(session.createdAt())
+                    .expiresAt(session.expiresAt())
+                    .build());
+        }
+
+        log.info("Validate batch service completed in {} ms with {}/{} valid",
+                elapsedMillis(requestStartedAt), validCount, tokenHashes.length);
+        return new ValidateBatchResponse(results);
+    }
+
+    private Map<String, SessionCache.CachedSession> findSessions(Set<? extends String> tokenHashes,
+            Instant now) {
+        List<SessionRepository.SessionBatchValidationProjection> sessions = sessionRepository
+                .findValidationProjectionsByTokenHashes(tokenHashes.toArray(String[]::new), now);
+        Map<String, SessionCache.CachedSession> sessionsByHash = HashMap.newHashMap(sessions.size());
+        for (SessionRepository.SessionBatchValidationProjection session : sessions) {
+            sessionsByHash.put(session.getTokenHash(), SessionCache.CachedSession.of(session));
+        }
+        return sessionsByHash;
+    }
+
+    /**
+     * Ends the session of the token. The token is recorded as revoked until its expiry, so the API gateway
+     * learns about it from its revocation poll: it stops verifying a signed token locally and evicts a
+     * cached opaque one. Only this replica's {@link SessionCache} is evicted here.
+     *
+     * @return true if a session was ended
+     */
+    @Transactional
+    public boolean logout(String token) {
+        String tokenHash = hashToken(token);
+        Session session = sessionRepository.findByTokenHash(tokenHash).orElse(null);
+        if (session == null) {
+            return false;
+        }
+        sessionRepository.delete(session);
+        sessionCache.evict(tokenHash);
+        revokedSessionRepository.save(new RevokedSession(tokenHash, session.getExpiresAt(), clock.instant()));
+        log.info("Logout completed for userId={}", session.getUser().getId());
+        return true;
+    }
+
+    /**
+     * Tokens revoked after {@code since} that have not expired yet.
+     */
+    public RevocationsResponse revocationsSince(Instant since) {
+        Instant now = clock.instant();
+        List<RevocationsResponse.RevokedToken> revoked = revokedSessionRepository.findRevokedSince(since, now).stream()
+                .map(session -> new RevocationsResponse.RevokedToken(session.getTokenHash(), session.getExpiresAt()))
+                .toList();
+        return RevocationsResponse.builder()
+                .revoked(revoked)
+                .asOf(now)
                 .build();
     }
 
-    private String generateToken() {
+    private String generateToken(User user, Instant createdAt, Instant expiresAt) {
+        if (signedTokenCodec != null) {
+            byte[] nonce = new byte[SignedSessionTokenCodec.NONCE_LENGTH];
+            secureRandom.nextBytes(nonce);
+            return signedTokenCodec.issue(
+                    new SignedSessionTokenCodec.Claims(user.getId(), user.getUsername(), createdAt, expiresAt), nonce);
+        }
         byte[] bytes = new byte[32];
         secureRandom.nextBytes(bytes);
         return HexFormat.of().formatHex(bytes);
@@ -163,14 +281,9 @@ public class AuthService {
 
     private String hashToken(String token) {
         long hashStartedAt = System.nanoTime();
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(token.getBytes());
-            log.info("Token hashing completed in {} ms", elapsedMillis(hashStartedAt));
-            return HexFormat.of().formatHex(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
-        }
+        String hash = TokenHasher.hash(token);
+        log.info("Token hashing completed in {} ms", elapsedMillis(hashStartedAt));
+        return hash;
     }
 
     private long elapsedMillis(long startedAt) {
@@ -0,0 +1,136 @@
+package com.onlineshop.auth.service;
+
+import com.onlineshop.auth.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link PasswordEncoder} that runs the delegate (Argon2) on a fixed pool of platform threads behind a bounded
+ * queue, instead of on the calling request thread.
+ *
+ * <p>Request threads are virtual and unbounded, so without this every concurrent login or registration computes
+ * its own memory-hard hash at once: CPU and memory are oversubscribed and cheap requests such as token
+ * validation queue behind them. Here at most {@code threads} hashes run at a time (one per core by default),
+ * and at most {@code queue-capacity} wait. A hash that does not fit in the queue, or that waited longer than
+ * {@code max-queue-wait} before a worker picked it up, fails immediately with
+ * {@link PasswordHashingOverloadedException}, which is answered with 503 and {@code Retry-After}.</p>
+ *
+ * <p>Metrics: {@code auth.password.hashing.queue.size}, {@code auth.password.hashing.active},
+ * {@code auth.password.hashing.wait} (time queued) and {@code auth.password.hashing.rejected.total} by
+ * {@code reason}.</p>
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    static final String REASON_QUEUE_FULL = "queue_full";
+    static final String REASON_QUEUE_WAIT = "queue_wait";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor workers;
+    private final long maxQueueWaitNanos;
+    private final Duration retryAfter;
+    private final Timer waitTimer;
+    private final Counter queueFullRejections;
+    private final Counter queueWaitRejections;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration maxQueueWait,
+            Duration retryAfter, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hashing-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.retryAfter = retryAfter;
+
+        Gauge.builder("auth.password.hashing.queue.size", workers, executor -> executor.getQueue().size())
+                .description("Password hashes waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes being computed")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("auth.password.hashing.wait")
+                .description("Time a password hash waited for a worker")
+                .register(meterRegistry);
+        this.queueFullRejections = rejections(meterRegistry, REASON_QUEUE_FULL);
+        this.queueWaitRejections = rejections(meterRegistry, REASON_QUEUE_WAIT);
+        log.info("Password hashing limited to {} threads with a queue of {}", threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Parses the hash parameters only, nothing to offload
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    private <T> T execute(Supplier<T> hash) {
+        long queuedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = workers.submit(() -> {
+                long waited = System.nanoTime() - queuedAt;
+                waitTimer.record(waited, TimeUnit.NANOSECONDS);
+                if (waited > maxQueueWaitNanos) {
+                    // The caller has most likely given up by now - don't spend a worker on it
+                    queueWaitRejections.increment();
+                    throw new PasswordHashingOverloadedException(retryAfter);
+                }
+                return hash.get();
+            });
+        } catch (RejectedExecutionException e) {
+            queueFullRejections.increment();
+            throw new PasswordHashingOverloadedException(retryAfter);
+        }
+
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (CancellationException e) {
+            throw new IllegalStateException("Password hashing was cancelled", e);
+        }
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("auth.password.hashing.rejected.total")
+                .description("Password hashes rejected because the hashing workers were saturated")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,252 @@
+package com.onlineshop.auth.service;
+
+import com.onlineshop.auth.repository.RevokedSessionRepository;
+import com.onlineshop.auth.repository.SessionRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Deletes expired sessions in the background, so the {@code sessions} table and its indexes stop growing with
+ * every login.
+ *
+ * <p>Every {@code interval} a run deletes up to {@code max-batches} batches of {@code batch-size} rows, each in
+ * its own short transaction, pausing {@code batch-pause} in between. The run first takes a PostgreSQL
+ * session advisory lock on a connection of its own and holds it until the last batch. If another replica
+ * holds it, that replica is purging and this run is skipped. So only one Auth instance purges at a time,
+ * without any extra coordination table.</p>
+ *
+ * <p>The run also stops early, leaving the rest for the next interval, when the database looks busy: a batch
+ * took longer than {@code slow-batch-threshold}, or requests are waiting for a pooled connection.</p>
+ *
+ * <p>Each run first deletes the {@code revoked_sessions} rows of expired tokens. A token past its expiry is
+ * rejected anyway, so its revocation no longer needs to be reported.</p>
+ *
+ * <p>When {@code sessions} is partitioned, {@link SessionPartitionMaintainer} drops expired days whole, and
+ * runs here delete only the expired rows of {@code sessions_default} - sessions that expire on a day with no
+ * partition yet - in the same batches. Left there, they would never be deleted, and would keep that day's
+ * partition from being created.</p>
+ *
+ * <p>Metrics: {@code auth.session.purge.deleted.total}, {@code auth.session.purge.revocations.deleted.total},
+ * {@code auth.session.purge.batch} (batch latency) and {@code auth.session.purge.runs.total} by
+ * {@code result}.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "auth.session-purge.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredSessionPurger implements SmartLifecycle {
+
+    // Advisory lock key shared by all Auth replicas ("SESSPURG")
+    static final long PURGE_LOCK_KEY = 0x5345535350555247L;
+
+    static final String RESULT_COMPLETED = "completed";
+    static final String RESULT_LOCKED = "locked";
+    static final String RESULT_BACKED_OFF = "backed_off";
+    static final String RESULT_LIMITED = "limited";
+    static final String RESULT_FAILED = "failed";
+
+    private final SessionRepository sessionRepository;
+    private final RevokedSessionRepository revokedSessionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSource dataSource;
+    private final Clock clock;
+    private final HikariDataSource connectionPool;
+    private final MeterRegistry meterRegistry;
+    private final Duration interval;
+    private final Duration initialDelay;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration batchPause;
+    private final long slowBatchThresholdNanos;
+    private final Counter deleted;
+    private final Counter revocationsDeleted;
+    private final Timer batchTimer;
+
+    private ScheduledExecutorService scheduler;
+
+    public ExpiredSessionPurger(
+            SessionRepository sessionRepository,
+            RevokedSessionRepository revokedSessionRepository,
+            PlatformTransactionManager transactionManager,
+            DataSource dataSource,
+            Clock clock,
+            MeterRegistry meterRegistry,
+            @Value("${auth.session-purge.interval:5m}") Duration interval,
+            @Value("${auth.session-purge.initial-delay:1m}") Duration initialDelay,
+            @Value("${auth.session-purge.batch-size:1000}") int batchSize,
+            @Value("${auth.session-purge.max-batches:100}") int maxBatches,
+            @Value("${auth.session-purge.batch-pause:100ms}") Duration batchPause,
+            @Value("${auth.session-purge.slow-batch-threshold:500ms}") Duration slowBatchThreshold) {
+        this.sessionRepository = sessionRepository;
+        this.revokedSessionRepository = revokedSessionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataSource = dataSource;
+        this.clock = clock;
+        this.connectionPool = hikari(dataSource);
+        this.meterRegistry = meterRegistry;
+        this.interval = interval;
+        this.initialDelay = initialDelay;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.batchPause = batchPause;
+        this.slowBatchThresholdNanos = slowBatchThreshold.toNanos();
+        this.deleted = Counter.builder("auth.session.purge.deleted.total")
+                .description("Expired sessions deleted by the purge job")
+                .register(meterRegistry);
+        this.revocationsDeleted = Counter.builder("auth.session.purge.revocations.deleted.total")
+                .description("Revocations of expired tokens deleted by the purge job")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("auth.session.purge.batch")
+                .description("Duration of one expired-session delete batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs one purge and returns its result ({@code completed}, {@code locked}, {@code backed_off} or
+     * {@code limited}).
+     */
+    public String purge() {
+        // The lock belongs to this connection's session, so it must be released on the same connection
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            if (!tryLock(statement)) {
+                return finish(RESULT_LOCKED, 0);
+            }
+            try {
+                purgeRevocations();
+                if (sessionRepository.isPartitioned()) {
+                    return purgeBatches(sessionRepository::deleteExpiredDefaultPartitionBatch);
+                }
+                return purgeBatches(sessionRepository::deleteExpiredSessionsBatch);
+            } finally {
+                statement.execute("SELECT pg_advisory_unlock(" + PURGE_LOCK_KEY + ")");
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Expired session purge lock failed", e);
+        }
+    }
+
+    private static boolean tryLock(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT pg_try_advisory_lock(" + PURGE_LOCK_KEY + ")")) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    private void purgeRevocations() {
+        Integer count = transactionTemplate.execute(status -> revokedSessionRepository.deleteExpired(clock.instant()));
+        if (count != null && count > 0) {
+            revocationsDeleted.increment(count);
+            log.info("Expired session purge: {} expired revocations deleted", count);
+        }
+    }
+
+    private String purgeBatches(ToIntBiFunction<Instant, Integer> deleteBatch) {
+        long total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            long startedAt = System.nanoTime();
+            Integer count = transactionTemplate.execute(status ->
+                    deleteBatch.applyAsInt(clock.instant(), batchSize));
+            long elapsed = System.nanoTime() - startedAt;
+            int deletedInBatch = count != null ? count : 0;
+            batchTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            deleted.increment(deletedInBatch);
+            total += deletedInBatch;
+
+            if (deletedInBatch < batchSize) {
+                return finish(RESULT_COMPLETED, total);
+            }
+            if (elapsed >= slowBatchThresholdNanos || connectionsAwaited()) {
+                return finish(RESULT_BACKED_OFF, total);
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        return finish(RESULT_LIMITED, total);
+    }
+
+    private String finish(String result, long total) {
+        meterRegistry.counter("auth.session.purge.runs.total", "result", result).increment();
+        // A run that found the lock taken is routine on all but one replica
+        if (total > 0 || RESULT_BACKED_OFF.equals(result) || RESULT_LIMITED.equals(result)) {
+            log.info("Expired session purge {}: {} sessions deleted", result, total);
+        }
+        return result;
+    }
+
+    private boolean connectionsAwaited() {
+        HikariPoolMXBean pool = connectionPool != null ? connectionPool.getHikariPoolMXBean() : null;
+        return pool != null && pool.getThreadsAwaitingConnection() > 0;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            meterRegistry.counter("auth.session.purge.runs.total", "result", RESULT_FAILED).increment();
+            log.warn("Expired session purge failed: {}", e.getMessage());
+        }
+    }
+
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("expired-session-purge").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::purgeQuietly, initialDelay.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+}
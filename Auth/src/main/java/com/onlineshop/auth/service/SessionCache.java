@@ -0,0 +1,154 @@
+package com.onlineshop.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.onlineshop.auth.repository.SessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * In-process cache of the session lookup behind {@code /validate}, keyed by token hash.
+ *
+ * <p>Only sessions that exist are cached: a miss always goes to the database, so a token issued by another
+ * replica is found as soon as its row is committed. Entries are added on login and on the first lookup, and
+ * live until the session's {@code expiresAt} or {@code max-ttl}, whichever comes first. Logout evicts the
+ * entry on this replica; other replicas keep answering from their copy for at most {@code max-ttl}, which is
+ * what bounds the staleness of a revocation.</p>
+ *
+ * <p>Metrics: the Caffeine {@code cache.*} meters for {@code auth-sessions} (hit rate, size, evictions) and
+ * {@code auth.session.lookup} by {@code source} ({@code cache} or {@code db}), one sample per lookup call,
+ * batch lookups included.</p>
+ */
+@Component
+public class SessionCache {
+
+    private static final String CACHE_NAME = "auth-sessions";
+
+    private final Cache<String, CachedSession> sessions;
+    private final Timer cacheLookups;
+    private final Timer databaseLookups;
+
+    public SessionCache(
+            MeterRegistry meterRegistry,
+            Clock clock,
+            @Value("${auth.session-cache.max-size:100000}") long maxSize,
+            @Value("${auth.session-cache.max-ttl:30s}") Duration maxTtl) {
+        this.sessions = Caffeine.newBuilder()
+                .recordStats()
+                .maximumSize(maxSize)
+                .expireAfter(new SessionExpiry(clock, maxTtl.toNanos()))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, CACHE_NAME);
+        this.cacheLookups = lookupTimer(meterRegistry, "cache");
+        this.databaseLookups = lookupTimer(meterRegistry, "db");
+    }
+
+    /**
+     * Returns the cached session, or loads it with {@code loader} (null if there is none). Concurrent lookups
+     * of the same hash share one load.
+     */
+    public CachedSession get(String tokenHash, Function<String, CachedSession> loader) {
+        long startedAt = System.nanoTime();
+        boolean[] loaded = new boolean[1];
+        CachedSession session = sessions.get(tokenHash, hash -> {
+            loaded[0] = true;
+            return loader.apply(hash);
+        });
+        (loaded[0] ? databaseLookups : cacheLookups).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return session;
+    }
+
+    /**
+     * Returns the cached sessions among {@code tokenHashes}, loading the missing ones in one call. Hashes without
+     * a session are absent from the result. The call is timed once, as a {@code db} lookup if anything had to be
+     * loaded.
+     */
+    public Map<String, CachedSession> getAll(Set<String> tokenHashes,
+            Function<Set<? extends String>, Map<String, CachedSession>> loader) {
+        long startedAt = System.nanoTime();
+        boolean[] loaded = new boolean[1];
+        Map<String, CachedSession> found = sessions.getAll(tokenHashes, missing -> {
+            loaded[0] = true;
+            return loader.apply(missing);
+        });
+        (loaded[0] ? databaseLookups : cacheLookups).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return found;
+    }
+
+    public void put(String tokenHash, CachedSession session) {
+        sessions.put(tokenHash, session);
+    }
+
+    /**
+     * Evicts the session now and, inside a transaction, again after commit, so a lookup that reads the row
+     * before the delete is committed cannot put it back.
+     */
+    public void evict(String tokenHash) {
+        sessions.invalidate(tokenHash);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sessions.invalidate(tokenHash);
+                }
+            });
+        }
+    }
+
+    private static Timer lookupTimer(MeterRegistry meterRegistry, String source) {
+        return Timer.builder("auth.session.lookup")
+                .description("Session lookups for token validation")
+                .tag("source", source)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Session fields needed to answer a validation.
+     */
+    public record CachedSession(Long userId, String username, Instant createdAt, Instant expiresAt) {
+
+        public static CachedSession of(SessionRepository.SessionValidationProjection projection) {
+            return new CachedSession(projection.getUserId(), projection.getUsername(), projection.getCreatedAt(),
+                    projection.getExpiresAt());
+        }
+    }
+
+    /**
+     * Until the session expires, capped at {@code maxTtl}. Reads don't extend it.
+     */
+    private record SessionExpiry(Clock clock, long maxTtlNanos) implements Expiry<String, CachedSession> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedSession session, long currentTime) {
+            long untilExpiry = Duration.between(clock.instant(), session.expiresAt()).toNanos();
+            return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedSession session, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(key, session, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedSession session, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.onlineshop.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the daily partitions of {@code sessions} (range-partitioned by {@code expires_at}, see
+ * {@code init-db/01-schema.sql}) ahead of time and drops expired ones.
+ *
+ * <p>At startup and then every {@code interval}, it creates the partitions for today and the next
+ * {@code premake-days} days, so new sessions never land in the default partition. Partitions whose whole day
+ * ended more than {@code retention-days} ago hold only expired sessions: they are detached and dropped, which
+ * removes a day of sessions without deleting rows, without dead tuples and without vacuum.</p>
+ *
+ * <p>Creating, detaching and dropping a partition briefly lock {@code sessions} exclusively.
+ * {@code DETACH ... CONCURRENTLY} would avoid that, but PostgreSQL refuses it while the table has a default
+ * partition. Instead, each change runs in its own short transaction with {@code lock_timeout}. If the lock is
+ * not granted in time, that change gives up and is retried on the next run. Logins and lookups queued
+ * behind the change wait at most that long.</p>
+ *
+ * <p>One replica maintains at a time, under a PostgreSQL session advisory lock. On an unpartitioned
+ * {@code sessions} table a run does nothing and {@link ExpiredSessionPurger} deletes expired rows instead.</p>
+ *
+ * <p>Metrics: {@code auth.session.partitions.created.total} and {@code auth.session.partitions.dropped.total}.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "auth.session-partitioning.enabled", havingValue = "true", matchIfMissing = true)
+public class SessionPartitionMaintainer implements SmartLifecycle {
+
+    // Advisory lock key shared by all Auth replicas ("SESSPART")
+    static final long MAINTENANCE_LOCK_KEY = 0x5345535350415254L;
+
+    private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final Pattern PARTITION_NAME = Pattern.compile("sessions_p(\\d{8})");
+    private static final String IS_PARTITIONED_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('sessions'))";
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass('sessions')
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final Duration interval;
+    private final int premakeDays;
+    private final int retentionDays;
+    private final Duration lockTimeout;
+    private final Counter created;
+    private final Counter dropped;
+
+    private ScheduledExecutorService scheduler;
+
+    public SessionPartitionMaintainer(
+            JdbcTemplate jdbcTemplate,
+            Clock clock,
+            MeterRegistry meterRegistry,
+            @Value("${auth.session-partitioning.interval:1h}") Duration interval,
+            @Value("${auth.session-partitioning.premake-days:7}") int premakeDays,
+            @Value("${auth.session-partitioning.retention-days:1}") int retentionDays,
+            @Value("${auth.session-partitioning.lock-timeout:2s}") Duration lockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.interval = interval;
+        this.premakeDays = premakeDays;
+        this.retentionDays = retentionDays;
+        this.lockTimeout = lockTimeout;
+        this.created = Counter.builder("auth.session.partitions.created.total")
+                .description("Daily session partitions created ahead of time")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("auth.session.partitions.dropped.total")
+                .description("Expired daily session partitions dropped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs one maintenance pass on a single connection, which holds the session advisory lock for the whole
+     * pass. Each partition change is committed on its own.
+     */
+    public void maintain() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                if (!queryBoolean(statement, "SELECT pg_try_advisory_lock(" + MAINTENANCE_LOCK_KEY + ")")) {
+                    return null;
+                }
+                try {
+                    if (queryBoolean(statement, IS_PARTITIONED_SQL)) {
+                        maintainPartitions(connection, statement);
+                    }
+                } finally {
+                    connection.setAutoCommit(true);
+                    statement.execute("SELECT pg_advisory_unlock(" + MAINTENANCE_LOCK_KEY + ")");
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    private void maintainPartitions(Connection connection, Statement statement) throws SQLException {
+        LocalDate today = LocalDate.ofInstant(clock.instant(), ZoneOffset.UTC);
+        List<String> existing = partitions(statement);
+
+        for (int offset = 0; offset <= premakeDays; offset++) {
+            LocalDate day = today.plusDays(offset);
+            String name = partitionName(day);
+            if (existing.contains(name)) {
+                continue;
+            }
+            try {
+                executeWithLockTimeout(connection, statement,
+                        "CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF sessions FOR VALUES FROM ('"
+                                + day + "') TO ('" + day.plusDays(1) + "')");
+                created.increment();
+                log.info("Created session partition {}", name);
+            } catch (SQLException e) {
+                // Lock timeout, or rows for that day already sit in sessions_default (purged once expired)
+                log.warn("Could not create session partition {}: {}", name, e.getMessage());
+            }
+        }
+
+        LocalDate oldestKept = today.minusDays(retentionDays);
+        for (String name : existing) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches() || !LocalDate.parse(matcher.group(1), PARTITION_DAY).isBefore(oldestKept)) {
+                continue;
+            }
+            try {
+                executeWithLockTimeout(connection, statement,
+                        "ALTER TABLE sessions DETACH PARTITION " + name,
+                        "DROP TABLE " + name);
+                dropped.increment();
+                log.info("Dropped expired session partition {}", name);
+            } catch (SQLException e) {
+                log.warn("Could not drop session partition {}, retrying on the next run: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs the statements in one transaction that waits at most {@code lock-timeout} for each lock.
+     */
+    private void executeWithLockTimeout(Connection connection, Statement statement, String... sql)
+            throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            statement.execute("SET LOCAL lock_timeout = '" + lockTimeout.toMillis() + "ms'");
+            for (String command : sql) {
+                statement.execute(command);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static List<String> partitions(Statement statement) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery(PARTITIONS_SQL)) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+        return names;
+    }
+
+    private static boolean queryBoolean(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    static String partitionName(LocalDate day) {
+        return "sessions_p" + PARTITION_DAY.format(day);
+    }
+
+    private void maintainQuietly() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            log.warn("Session partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("session-partition-maintenance").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::maintainQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -4,13 +4,19 @@ import com.onlineshop.auth.dto.LoginRequest;
 import com.onlineshop.auth.dto.LoginResponse;
 import com.onlineshop.auth.dto.RegisterRequest;
 import com.onlineshop.auth.dto.RegisterResponse;
+import com.onlineshop.auth.dto.ValidateBatchResponse;
 import com.onlineshop.auth.dto.ValidateResponse;
+import com.onlineshop.auth.entity.RevokedSession;
 import com.onlineshop.auth.entity.Session;
 import com.onlineshop.auth.entity.User;
 import com.onlineshop.auth.exception.InvalidUsernameOrPasswordException;
 import com.onlineshop.auth.exception.UserAlreadyExistsException;
+import com.onlineshop.auth.repository.JpaSessionValidationLookup;
+import com.onlineshop.auth.repository.RevokedSessionRepository;
 import com.onlineshop.auth.repository.SessionRepository;
 import com.onlineshop.auth.repository.UserRepository;
+import com.onlineshop.common.util.SignedSessionTokenCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,18 +25,23 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -46,6 +57,9 @@ class AuthServiceTest {
     @Mock
     private SessionRepository sessionRepository;
 
+    @Mock
+    private RevokedSessionRepository revokedSessionRepository;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
@@ -58,12 +72,20 @@ class AuthServiceTest {
     @BeforeEach
     void setUp() {
         fixedClock = Clock.fixed(FIXED_TIME, ZoneId.of("UTC"));
-        authService = new AuthService(
+        authService = createAuthService(Optional.empty());
+    }
+
+    private AuthService createAuthService(Optional<SignedSessionTokenCodec> signedTokenCodec) {
+        return new AuthService(
                 userRepository,
                 sessionRepository,
+                new JpaSessionValidationLookup(sessionRepository),
+                revokedSessionRepository,
                 passwordEncoder,
                 secureRandom,
                 fixedClock,
+                new SessionCache(new SimpleMeterRegistry(), fixedClock, 1000, Duration.ofSeconds(30)),
+                signedTokenCodec,
                 SESSION_EXPIRATION_SECONDS
         );
     }
@@ -142,6 +164,32 @@ class AuthServiceTest {
         assertThat(savedSession.getTokenHash()).hasSize(64);
     }
 
+    @Test
+    void login_whenSignedTokenFormat_issuesTokenVerifiableWithoutDatabase() {
+        SignedSessionTokenCodec codec = new SignedSessionTokenCodec(
+                "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+        authService = createAuthService(Optional.of(codec));
+        LoginRequest request = new LoginRequest("testuser", "password123");
+        User user = createUser(1L, "testuser", "encodedPassword");
+
+        when(userRepository.findByNormalizedUsername("testuser")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password123", "encodedPassword")).thenReturn(true);
+        mockSecureRandomBytes();
+        when(sessionRepository.save(any(Session.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        LoginResponse response = authService.login(request);
+
+        SignedSessionTokenCodec.Claims claims = codec.verify(response.getToken());
+        assertThat(claims).isNotNull();
+        assertThat(claims.userId()).isEqualTo(1L);
+        assertThat(claims.username()).isEqualTo("testuser");
+        assertThat(claims.expiresAt()).isEqualTo(FIXED_TIME.plusSeconds(SESSION_EXPIRATION_SECONDS));
+
+        ArgumentCaptor<Session> sessionCaptor = ArgumentCaptor.forClass(Session.class);
+        verify(sessionRepository).save(sessionCaptor.capture());
+        assertThat(sessionCaptor.getValue().getTokenHash()).isEqualTo(hashToken(response.getToken()));
+    }
+
     @Test
     void login_whenUserNotFound_throwsInvalidUsernameOrPasswordException() {
         LoginRequest request = new LoginRequest("nonexistent", "password123");
@@ -238,8 +286,143 @@ class AuthServiceTest {
         assertThat(response.getExpiresAt()).isNull();
     }
 
+    @Test
+    void validateToken_whenValidatedTwice_queriesDatabaseOnce() {
+        String token = "validtoken";
+        String tokenHash = hashToken(token);
+        when(sessionRepository.findValidationProjectionByTokenHash(tokenHash, FIXED_TIME)).thenReturn(Optional.of(
+                new BatchProjection(tokenHash, 1L, "testuser", FIXED_TIME, FIXED_TIME.plusSeconds(3600))));
+
+        ValidateResponse first = authService.validateToken(token);
+        ValidateResponse second = authService.validateToken(token);
+
+        assertThat(first.isValid()).isTrue();
+        assertThat(second.isValid()).isTrue();
+        assertThat(second.getUserId()).isEqualTo(1L);
+        verify(sessionRepository, times(1)).findValidationProjectionByTokenHash(tokenHash, FIXED_TIME);
+    }
+
+    @Test
+    void validateToken_afterLogin_isAnsweredWithoutDatabase() {
+        User user = createUser(1L, "testuser", "encodedPassword");
+        when(userRepository.findByNormalizedUsername("testuser")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password123", "encodedPassword")).thenReturn(true);
+        when(sessionRepository.save(any(Session.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        mockSecureRandomBytes();
+        LoginResponse login = authService.login(new LoginRequest("testuser", "password123"));
+
+        ValidateResponse response = authService.validateToken(login.getToken());
+
+        assertThat(response.isValid()).isTrue();
+        assertThat(response.getUsername()).isEqualTo("testuser");
+        verify(sessionRepository, never()).findValidationProjectionByTokenHash(any(), any());
+    }
+
+    @Test
+    void validateToken_afterLogout_queriesDatabaseAgain() {
+        String token = "validtoken";
+        String tokenHash = hashToken(token);
+        User user = createUser(1L, "testuser", "encodedPassword");
+        when(sessionRepository.findValidationProjectionByTokenHash(tokenHash, FIXED_TIME))
+                .thenReturn(Optional.of(new BatchProjection(tokenHash, 1L, "testuser", FIXED_TIME,
+                        FIXED_TIME.plusSeconds(3600))))
+                .thenReturn(Optional.empty());
+        when(sessionRepository.findByTokenHash(tokenHash)).thenReturn(Optional.of(
+                createSession(1L, tokenHash, user, FIXED_TIME, FIXED_TIME.plusSeconds(3600))));
+        assertThat(authService.validateToken(token).isValid()).isTrue();
+
+        authService.logout(token);
+
+        assertThat(authService.validateToken(token).isValid()).isFalse();
+    }
+
+    // ==================== logout() tests ====================
+
+    @Test
+    void logout_whenSessionExists_deletesSessionAndRecordsRevocation() {
+        String token = "validtoken";
+        String tokenHash = hashToken(token);
+        User user = createUser(1L, "testuser", "encodedPassword");
+        Session session = createSession(1L, tokenHash, user, FIXED_TIME, FIXED_TIME.plusSeconds(3600));
+
+        when(sessionRepository.findByTokenHash(tokenHash)).thenReturn(Optional.of(session));
+
+        assertThat(authService.logout(token)).isTrue();
+
+        verify(sessionRepository).delete(session);
+        ArgumentCaptor<RevokedSession> revokedCaptor = ArgumentCaptor.forClass(RevokedSession.class);
+        verify(revokedSessionRepository).save(revokedCaptor.capture());
+        assertThat(revokedCaptor.getValue().getTokenHash()).isEqualTo(tokenHash);
+        assertThat(revokedCaptor.getValue().getExpiresAt()).isEqualTo(FIXED_TIME.plusSeconds(3600));
+        assertThat(revokedCaptor.getValue().getRevokedAt()).isEqualTo(FIXED_TIME);
+    }
+
+    @Test
+    void logout_whenSessionNotFound_returnsFalse() {
+        when(sessionRepository.findByTokenHash(hashToken("unknowntoken"))).thenReturn(Optional.empty());
+
+        assertThat(authService.logout("unknowntoken")).isFalse();
+    }
+
+    // ==================== validateTokens() tests ====================
+
+    @Test
+    void validateTokens_returnsResultsInRequestOrderFromOneQuery() {
+        String validHash = hashToken("validtoken");
+        String expiredHash = hashToken("expiredtoken");
+        String unknownHash = hashToken("unknowntoken");
+
+        when(sessionRepository.findValidationProjectionsByTokenHashes(
+                new String[]{unknownHash, validHash, expiredHash}, FIXED_TIME))
+                .thenReturn(List.of(
+                        new BatchProjection(validHash, 1L, "testuser", FIXED_TIME, FIXED_TIME.plusSeconds(3600)),
+                        new BatchProjection(expiredHash, 2L, "other", FIXED_TIME.minusSeconds(7200),
+                                FIXED_TIME.minusSeconds(3600))));
+
+        ValidateBatchResponse response = authService.validateTokens(
+                List.of("unknowntoken", "validtoken", "expiredtoken"));
+
+        assertThat(response.getResults()).hasSize(3);
+        assertThat(response.getResults().get(0).isValid()).isFalse();
+        assertThat(response.getResults().get(1).isValid()).isTrue();
+        assertThat(response.getResults().get(1).getUserId()).isEqualTo(1L);
+        assertThat(response.getResults().get(1).getUsername()).isEqualTo("testuser");
+        assertThat(response.getResults().get(2).isValid()).isFalse();
+        assertThat(response.getResults().get(2).getUserId()).isNull();
+    }
+
     // ==================== Helper methods ====================
 
+    private record BatchProjection(String tokenHash, Long userId, String username, Instant createdAt,
+            Instant expiresAt) implements SessionRepository.SessionBatchValidationProjection {
+
+        @Override
+        public String getTokenHash() {
+            return tokenHash;
+        }
+
+        @Override
+        public Long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+
+        @Override
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+
     private User createUser(Long id, String username, String passwordHash) {
         User user = new User();
         user.setId(id);
@@ -0,0 +1,132 @@
+package com.onlineshop.auth.service;
+
+import com.onlineshop.auth.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch hashing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private MeterRegistry meterRegistry;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void shouldHashOnWorkerThread() {
+        // Given
+        encoder = newEncoder(new FakeEncoder(false), 1, Duration.ofSeconds(1));
+
+        // When
+        String hash = encoder.encode("secret");
+
+        // Then
+        assertThat(hash).startsWith("hashed-by-password-hashing-");
+        assertThat(encoder.matches("secret", hash)).isTrue();
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() throws InterruptedException {
+        // Given - one hash running, one queued
+        encoder = newEncoder(new FakeEncoder(true), 1, Duration.ofSeconds(10));
+        CompletableFuture.runAsync(() -> encoder.encode("first"));
+        assertThat(hashing.await(1, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture.runAsync(() -> encoder.encode("queued"));
+        waitForQueueSize(1);
+
+        // When / Then
+        assertThatThrownBy(() -> encoder.encode("rejected"))
+                .isInstanceOf(PasswordHashingOverloadedException.class)
+                .extracting(e -> ((PasswordHashingOverloadedException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(1));
+        assertThat(rejections(BoundedPasswordEncoder.REASON_QUEUE_FULL)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectHashThatWaitedTooLong() throws InterruptedException {
+        // Given
+        encoder = newEncoder(new FakeEncoder(true), 1, Duration.ofMillis(50));
+        CompletableFuture.runAsync(() -> encoder.encode("first"));
+        assertThat(hashing.await(1, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+        waitForQueueSize(1);
+
+        // When
+        Thread.sleep(100);
+        release.countDown();
+
+        // Then
+        assertThat(queued).failsWithin(Duration.ofSeconds(1))
+                .withThrowableThat()
+                .havingRootCause()
+                .isInstanceOf(PasswordHashingOverloadedException.class);
+        assertThat(rejections(BoundedPasswordEncoder.REASON_QUEUE_WAIT)).isEqualTo(1);
+    }
+
+    private BoundedPasswordEncoder newEncoder(PasswordEncoder delegate, int queueCapacity, Duration maxQueueWait) {
+        return new BoundedPasswordEncoder(delegate, 1, queueCapacity, maxQueueWait, Duration.ofSeconds(1),
+                meterRegistry);
+    }
+
+    private void waitForQueueSize(int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (meterRegistry.get("auth.password.hashing.queue.size").gauge().value() < size) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.get("auth.password.hashing.rejected.total").tag("reason", reason).counter().count();
+    }
+
+    private class FakeEncoder implements PasswordEncoder {
+
+        private final boolean blocking;
+
+        FakeEncoder(boolean blocking) {
+            this.blocking = blocking;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hashing.countDown();
+            if (blocking) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "hashed-by-" + Thread.currentThread().getName() + ":" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.endsWith(":" + rawPassword);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.onlineshop.auth.service;
+
+import com.onlineshop.auth.repository.RevokedSessionRepository;
+import com.onlineshop.auth.repository.SessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredSessionPurgerTest {
+
+    private static final Instant FIXED_TIME = Instant.parse("2025-01-15T10:00:00Z");
+    private static final int BATCH_SIZE = 100;
+    private static final String LOCK_SQL = "SELECT pg_try_advisory_lock(" + ExpiredSessionPurger.PURGE_LOCK_KEY + ")";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(" + ExpiredSessionPurger.PURGE_LOCK_KEY + ")";
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private RevokedSessionRepository revokedSessionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void purge_deletesBatchesUntilOneIsNotFull() throws SQLException {
+        givenPurgeLock(true);
+        when(sessionRepository.deleteExpiredSessionsBatch(FIXED_TIME, BATCH_SIZE)).thenReturn(100, 100, 42);
+
+        String result = newPurger(Duration.ofSeconds(10)).purge();
+
+        assertThat(result).isEqualTo(ExpiredSessionPurger.RESULT_COMPLETED);
+        verify(sessionRepository, times(3)).deleteExpiredSessionsBatch(FIXED_TIME, BATCH_SIZE);
+        assertThat(meterRegistry.get("auth.session.purge.deleted.total").counter().count()).isEqualTo(242);
+        assertThat(meterRegistry.get("auth.session.purge.batch").timer().count()).isEqualTo(3);
+        verify(statement).execute(UNLOCK_SQL);
+    }
+
+    @Test
+    void purge_whenAnotherReplicaHoldsTheLock_deletesNothing() throws SQLException {
+        givenPurgeLock(false);
+
+        String result = newPurger(Duration.ofSeconds(10)).purge();
+
+        assertThat(result).isEqualTo(ExpiredSessionPurger.RESULT_LOCKED);
+        verify(sessionRepository, never()).deleteExpiredSessionsBatch(eq(FIXED_TIME), anyInt());
+        verify(revokedSessionRepository, never()).deleteExpired(FIXED_TIME);
+        verify(statement, never()).execute(UNLOCK_SQL);
+        assertThat(meterRegistry.get("auth.session.purge.runs.total")
+                .tag("result", ExpiredSessionPurger.RESULT_LOCKED).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void purge_whenBatchIsSlow_backsOffUntilNextRun() throws SQLException {
+        givenPurgeLock(true);
+        when(sessionRepository.deleteExpiredSessionsBatch(FIXED_TIME, BATCH_SIZE)).thenReturn(100);
+
+        String result = newPurger(Duration.ZERO).purge();
+
+        assertThat(result).isEqualTo(ExpiredSessionPurger.RESULT_BACKED_OFF);
+        verify(sessionRepository, times(1)).deleteExpiredSessionsBatch(FIXED_TIME, BATCH_SIZE);
+    }
+
+    @Test
+    void purge_stopsAfterMaxBatches() throws SQLException {
+        givenPurgeLock(true);
+        when(sessionRepository.deleteExpiredSessionsBatch(FIXED_TIME, BATCH_SIZE)).thenReturn(100);
+
+        String result = newPurger(Duration.ofSeconds(10)).purge();
+
+        assertThat(result).isEqualTo(ExpiredSessionPurger.RESULT_LIMITED);
+        verify(sessionRepository, times(5)).deleteExpiredSessionsBatch(FIXED_TIME, BATCH_SIZE);
+    }
+
+    @Test
+    void purge_whenSessionsArePartitioned_deletesOnlyFromDefaultPartition() throws SQLException {
+        givenPurgeLock(true);
+        when(sessionRepository.isPartitioned()).thenReturn(true);
+        when(sessionRepository.deleteExpiredDefaultPartitionBatch(FIXED_TIME, BATCH_SIZE)).thenReturn(100, 3);
+
+        String result = newPurger(Duration.ofSeconds(10)).purge();
+
+        assertThat(result).isEqualTo(ExpiredSessionPurger.RESULT_COMPLETED);
+        verify(sessionRepository, times(2)).deleteExpiredDefaultPartitionBatch(FIXED_TIME, BATCH_SIZE);
+        verify(sessionRepository, never()).deleteExpiredSessionsBatch(eq(FIXED_TIME), anyInt());
+        assertThat(meterRegistry.get("auth.session.purge.deleted.total").counter().count()).isEqualTo(103);
+        verify(revokedSessionRepository).deleteExpired(FIXED_TIME);
+        verify(statement).execute(UNLOCK_SQL);
+    }
+
+    @Test
+    void purge_deletesRevocationsOfExpiredTokens() throws SQLException {
+        givenPurgeLock(true);
+        when(revokedSessionRepository.deleteExpired(FIXED_TIME)).thenReturn(7);
+        when(sessionRepository.deleteExpiredSessionsBatch(FIXED_TIME, BATCH_SIZE)).thenReturn(0);
+
+        String result = newPurger(Duration.ofSeconds(10)).purge();
+
+        assertThat(result).isEqualTo(ExpiredSessionPurger.RESULT_COMPLETED);
+        assertThat(meterRegistry.get("auth.session.purge.revocations.deleted.total").counter().count()).isEqualTo(7);
+    }
+
+    private void givenPurgeLock(boolean acquired) throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(LOCK_SQL)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(acquired);
+    }
+
+    private ExpiredSessionPurger newPurger(Duration slowBatchThreshold) {
+        return new ExpiredSessionPurger(sessionRepository, revokedSessionRepository, transactionManager, dataSource,
+                Clock.fixed(FIXED_TIME, ZoneId.of("UTC")), meterRegistry,
+                Duration.ofMinutes(5), Duration.ofMinutes(1), BATCH_SIZE, 5, Duration.ZERO, slowBatchThreshold);
+    }
+}
@@ -0,0 +1,63 @@
+package com.onlineshop.auth.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionCacheTest {
+
+    private static final SessionCache.CachedSession SESSION = new SessionCache.CachedSession(
+            1L, "john", Instant.now(), Instant.now().plus(Duration.ofHours(1)));
+
+    private MeterRegistry meterRegistry;
+    private SessionCache sessionCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sessionCache = new SessionCache(meterRegistry, Clock.systemUTC(), 1000, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void shouldTimeBatchLookupAsDatabaseLookupWhenSessionsAreLoaded() {
+        // Given
+        sessionCache.put("a", SESSION);
+
+        // When
+        Map<String, SessionCache.CachedSession> found = sessionCache.getAll(Set.of("a", "b"),
+                missing -> Map.of("b", SESSION));
+
+        // Then
+        assertThat(found).containsOnlyKeys("a", "b");
+        assertThat(lookups("db")).isEqualTo(1);
+        assertThat(lookups("cache")).isZero();
+    }
+
+    @Test
+    void shouldTimeBatchLookupAsCacheLookupWhenAllSessionsAreCached() {
+        // Given
+        sessionCache.put("a", SESSION);
+        sessionCache.put("b", SESSION);
+
+        // When
+        Map<String, SessionCache.CachedSession> found = sessionCache.getAll(Set.of("a", "b"), missing -> Map.of());
+
+        // Then
+        assertThat(found).containsOnlyKeys("a", "b");
+        assertThat(lookups("cache")).isEqualTo(1);
+        assertThat(lookups("db")).isZero();
+    }
+
+    private long lookups(String source) {
+        return meterRegistry.get("auth.session.lookup").tag("source", source).timer().count();
+    }
+}
@@ -0,0 +1,15 @@
+package com.onlineshop.gateway.cache;
+
+/**
+ * An L1 invalidation broadcast to every gateway instance.
+ *
+ * @param origin    id of the instance that published it, so it can skip its own messages
+ * @param cacheName logical cache name (e.g. "auth-tokens")
+ * @param key       cache key (token hash), or {@code null} to clear the whole cache
+ */
+public record CacheInvalidation(String origin, String cacheName, String key) {
+
+    public boolean isClear() {
+        return key == null;
+    }
+}
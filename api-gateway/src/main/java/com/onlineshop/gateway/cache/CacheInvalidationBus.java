@@ -0,0 +1,30 @@
+package com.onlineshop.gateway.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts L1 cache invalidations between gateway instances.
+ *
+ * <p>L2 (Redis) is shared, so evicting it once is enough. Every instance has its own L1 though,
+ * and without this bus a revoked session would keep being served from the other replicas' L1
+ * until it expires there.</p>
+ *
+ * <p>Evictions are published by {@link TieredCache}. The gateway evicts a token when a logout passes through
+ * it ({@code LogoutCacheEviction}).</p>
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Publishes an invalidation to all subscribers, including those on other instances.
+     *
+     * @param invalidation the invalidation to broadcast
+     */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * Registers a listener for invalidations published by any instance.
+     *
+     * @param listener callback invoked for every received invalidation
+     */
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
@@ -1,6 +1,7 @@
 package com.onlineshop.gateway.cache;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.onlineshop.common.util.TokenHasher;
 import com.onlineshop.gateway.dto.ValidateResponse;
 import com.onlineshop.gateway.metrics.GatewayMetrics;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
@@ -11,11 +12,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.Optional;
 
 //@Component
@@ -24,7 +21,8 @@ public class DefaultTokenCacheManagerManualImpl implements TokenCacheManager {
 
     private final Cache<String, ValidateResponse> caffeineCache;
     private final RedisTemplate<String, ValidateResponse> redisTemplate;
-    private final long redisTtlSeconds;
+    private final Duration redisTtl;
+    private final TokenExpiryPolicy expiryPolicy;
     private final CircuitBreaker redisCircuitBreaker;
     private final GatewayMetrics metrics;
 
@@ -34,11 +32,13 @@ public class DefaultTokenCacheManagerManualImpl implements TokenCacheManager {
             Cache<String, ValidateResponse> caffeineCache,
             RedisTemplate<String, ValidateResponse> redisTemplate,
             GatewayMetrics metrics,
+            TokenExpiryPolicy expiryPolicy,
             @Value("${gateway.cache.redis.ttl-seconds:300}") long redisTtlSeconds) {
         this.caffeineCache = caffeineCache;
         this.redisTemplate = redisTemplate;
         this.metrics = metrics;
-        this.redisTtlSeconds = redisTtlSeconds;
+        this.expiryPolicy = expiryPolicy;
+        this.redisTtl = Duration.ofSeconds(redisTtlSeconds);
 
         CircuitBreakerConfig config = CircuitBreakerConfig.custom()
                 .slidingWindowSize(10)
@@ -60,12 +60,6 @@ public class DefaultTokenCacheManagerManualImpl implements TokenCacheManager {
         if (cachedResponse != null) {
             log.debug("Token validation hit L1 cache (Caffeine)");
             metrics.recordCacheHit(GatewayMetrics.LAYER_L1, GatewayMetrics.SERVICE_AUTH);
-            // Check expiry before returning
-            if (isExpired(cachedResponse)) {
-                log.debug("L1 cached token expired, evicting");
-                caffeineCache.invalidate(tokenHash);
-                return Optional.empty();
-            }
             return cachedResponse.isValid() ? Optional.of(cachedResponse) : Optional.empty();
         }
         metrics.recordCacheMiss(GatewayMetrics.LAYER_L1, GatewayMetrics.SERVICE_AUTH);
@@ -79,18 +73,6 @@ public class DefaultTokenCacheManagerManualImpl implements TokenCacheManager {
             if (redisResponse != null) {
                 log.debug("Token validation hit L2 cache (Redis)");
                 metrics.recordCacheHit(GatewayMetrics.LAYER_L2, GatewayMetrics.SERVICE_AUTH);
-                // Check expiry before returning
-                if (isExpired(redisResponse)) {
-                    log.debug("L2 cached token expired, evicting");
-                    try {
-                        redisCircuitBreaker.executeRunnable(() ->
-                                redisTemplate.delete(REDIS_KEY_PREFIX + tokenHash)
-                        );
-                    } catch (Exception e) {
-                        log.warn("Failed to delete expired token from Redis: {}", e.getMessage());
-                    }
-                    return Optional.empty();
-                }
                 // Promote to L1 cache
                 caffeineCache.put(tokenHash, redisResponse);
                 return redisResponse.isValid() ? Optional.of(redisResponse) : Optional.empty();
@@ -117,7 +99,7 @@ public class DefaultTokenCacheManagerManualImpl implements TokenCacheManager {
                     redisTemplate.opsForValue().set(
                             REDIS_KEY_PREFIX + tokenHash,
                             response,
-                            Duration.ofSeconds(redisTtlSeconds)
+                            expiryPolicy.timeToLive(response, redisTtl)
                     )
             );
         } catch (Exception e) {
@@ -133,25 +115,6 @@ public class DefaultTokenCacheManagerManualImpl implements TokenCacheManager {
      * @return the hashed token
      */
     private String hashToken(String token) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hash) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
-        }
-    }
-
-    private boolean isExpired(ValidateResponse response) {
-        if (response.getExpiresAt() == null) {
-            return false;
-        }
-        // Add 30-second grace period to handle clock skew
-        Instant expiryWithGrace = response.getExpiresAt().minusSeconds(30);
-        return Instant.now().isAfter(expiryWithGrace);
+        return TokenHasher.hash(token);
     }
 }
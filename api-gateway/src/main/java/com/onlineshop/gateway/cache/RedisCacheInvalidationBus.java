@@ -0,0 +1,144 @@
+package com.onlineshop.gateway.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * {@link CacheInvalidationBus} on Redis pub/sub.
+ *
+ * <p>Messages are plain text {@code origin\ncacheName\nkey}, with an empty key meaning "clear".
+ * Publishing is fire-and-forget on the given executor: a Redis outage must not fail the eviction
+ * itself, it only means other instances fall back to their L1 TTL.</p>
+ *
+ * <p>The listener container must not auto-start: its initial subscription fails hard when Redis is
+ * down, which would take the whole gateway with it. This bus starts it instead, in the background,
+ * retrying until Redis becomes reachable.</p>
+ */
+@Slf4j
+public class RedisCacheInvalidationBus implements CacheInvalidationBus, SmartLifecycle {
+
+    public static final String DEFAULT_CHANNEL = "gateway:cache-invalidation";
+
+    private static final char SEPARATOR = '\n';
+    private static final Duration SUBSCRIBE_RETRY_INTERVAL = Duration.ofSeconds(5);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String channel;
+    private final Executor executor;
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+
+    public RedisCacheInvalidationBus(
+            StringRedisTemplate redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            String channel,
+            Executor executor) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.channel = channel;
+        this.executor = executor;
+        listenerContainer.addMessageListener((message, pattern) -> onMessage(message), ChannelTopic.of(channel));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        executor.execute(this::subscribeUntilConnected);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        listenerContainer.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void subscribeUntilConnected() {
+        while (running) {
+            try {
+                listenerContainer.start();
+                log.info("Subscribed to cache invalidation channel '{}'", channel);
+                return;
+            } catch (Exception e) {
+                log.warn("Cannot subscribe to cache invalidation channel '{}', retrying in {}s: {}",
+                        channel, SUBSCRIBE_RETRY_INTERVAL.toSeconds(), e.getMessage());
+                // Reset the container so the next start() attempts a fresh subscription
+                listenerContainer.stop();
+            }
+            try {
+                Thread.sleep(SUBSCRIBE_RETRY_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        String payload = encode(invalidation);
+        CompletableFuture.runAsync(() -> redisTemplate.convertAndSend(channel, payload), executor)
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        log.warn("Failed to publish cache invalidation for '{}': {}",
+                                invalidation.cacheName(), throwable.getMessage());
+                    }
+                });
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    private void onMessage(Message message) {
+        CacheInvalidation invalidation = decode(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (invalidation == null) {
+            log.warn("Ignoring malformed cache invalidation message on channel '{}'", channel);
+            return;
+        }
+        for (Consumer<CacheInvalidation> listener : listeners) {
+            try {
+                listener.accept(invalidation);
+            } catch (Exception e) {
+                log.warn("Cache invalidation listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    static String encode(CacheInvalidation invalidation) {
+        return invalidation.origin() + SEPARATOR
+                + invalidation.cacheName() + SEPARATOR
+                + (invalidation.key() == null ? "" : invalidation.key());
+    }
+
+    static CacheInvalidation decode(String payload) {
+        int first = payload.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : payload.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            return null;
+        }
+        String key = payload.substring(second + 1);
+        return new CacheInvalidation(
+                payload.substring(0, first),
+                payload.substring(first + 1, second),
+                key.isEmpty() ? null : key);
+    }
+}
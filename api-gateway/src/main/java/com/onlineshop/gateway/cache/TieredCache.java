@@ -1,12 +1,23 @@
 package com.onlineshop.gateway.cache;
 
+import com.github.benmanes.caffeine.cache.Policy;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
 
+import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
 
 /**
  * A tiered cache implementation that wraps L1 (Caffeine) and L2 (Redis) caches.
@@ -16,24 +27,181 @@ import java.util.concurrent.Executor;
  * <p>Redis operations are protected by a circuit breaker to handle Redis failures gracefully.
  * When Redis is unavailable, the cache degrades to L1-only mode.</p>
  *
+ * <p>Concurrent misses for the same key are coalesced in {@link #get(Object, Callable)}:
+ * the first caller performs the L2 lookup and the value loader, every other caller waits on the
+ * same in-flight future instead of issuing its own Redis and downstream round-trip.
+ * Only values accepted by the {@code cacheableValue} predicate are written back to the cache.</p>
+ *
+ * <p>An optional {@link NegativeTier} stores negative results (e.g. invalid tokens) in a
+ * separate L1/L2 pair with its own, shorter TTL and size bound, so repeated negative lookups
+ * are answered from cache without evicting positive entries.</p>
+ *
+ * <p>With {@link RefreshAhead} enabled, an L1 hit on an entry that expires within the refresh window
+ * triggers an asynchronous reload through the registered {@link RefreshLoader}, never through the
+ * caller's value loader, which may only be valid during the call. The caller gets the current
+ * value immediately and the refreshed value replaces it in both layers, so hot keys never expire on
+ * the request path. Only entries that are actually read inside the window get refreshed; idle
+ * entries simply expire. This needs a Caffeine L1 built with {@code expireAfter(Expiry)}.</p>
+ *
+ * <p>Each refresh holds a per-key generation. Any eviction or clear of the key ends it, and a refresh
+ * whose generation has ended writes nothing. If the eviction lands while the refreshed value is being
+ * written, the refresh evicts its own write again, so a refresh never brings back an evicted key.</p>
+ *
+ * <p>With an {@link InvalidationBroadcast}, {@code evict}/{@code clear} are also published on a
+ * {@link CacheInvalidationBus} so other gateway instances drop the key from their own L1 via
+ * {@link #evictLocal(Object)} / {@link #clearLocal()}. Keys are broadcast as strings (token hashes).</p>
+ *
  * <p>Metrics are automatically collected by the underlying CaffeineCacheManager and
  * RedisCacheManager when {@code recordStats()} and {@code enableStatistics()} are enabled.</p>
  */
 @Slf4j
 public class TieredCache implements Cache {
 
+    private static final String LAYER_L1 = "l1";
+    private static final String LAYER_L2 = "l2";
+
     private final String name;
     private final Cache l1Cache;
     private final Cache l2Cache;
     private final CircuitBreaker circuitBreaker;
     private final Executor l2WriteExecutor;
+    private final Predicate<Object> cacheableValue;
+    private final NegativeTier negativeTier;
+    private final Counter coalescedLoads;
+    private final NegativeLookupCounters negativeL1Lookups;
+    private final NegativeLookupCounters negativeL2Lookups;
+    private final RefreshAhead refreshAhead;
+    private final InvalidationBroadcast invalidationBroadcast;
+    private final Policy.VarExpiration<Object, Object> l1Expiration;
+    private final Counter refreshSuccesses;
+    private final Counter refreshFailures;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    // Key -> generation of the refresh in flight; evictions remove it to cancel the write-back
+    private final ConcurrentMap<Object, Object> refreshesInFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Separate L1/L2 pair for negative results.
+     *
+     * @param l1Cache       local cache for negative results
+     * @param l2Cache       distributed cache for negative results
+     * @param negativeValue decides whether a loaded value belongs in this tier
+     */
+    public record NegativeTier(Cache l1Cache, Cache l2Cache, Predicate<Object> negativeValue) {
+    }
+
+    /**
+     * Refresh-ahead settings for the positive L1 tier.
+     *
+     * @param window      how long before L1 expiry an accessed entry gets refreshed
+     * @param refreshable decides whether a cached value is worth refreshing (e.g. not about to expire anyway)
+     * @param loader      reloads a key in the background
+     * @param executor    runs the background reloads
+     */
+    public record RefreshAhead(Duration window, Predicate<Object> refreshable, RefreshLoader loader,
+                               Executor executor) {
+    }
+
+    /**
+     * Reloads the value of a key for refresh-ahead, independently of any request.
+     */
+    @FunctionalInterface
+    public interface RefreshLoader {
+
+        /**
+         * @return the current value, or {@code null} if the key cannot be reloaded (the entry then just expires)
+         */
+        Object reload(Object key) throws Exception;
+    }
+
+    /**
+     * Publishes local evictions to other gateway instances.
+     *
+     * @param bus        bus shared by all instances
+     * @param instanceId id of this instance, used as the message origin
+     */
+    public record InvalidationBroadcast(CacheInvalidationBus bus, String instanceId) {
+    }
+
+    /**
+     * The optional features of a cache; {@link #NONE} enables none of them.
+     *
+     * @param negativeTier          separate tier for negative results, or {@code null}
+     * @param refreshAhead          refresh-ahead of hot L1 entries, or {@code null}
+     * @param invalidationBroadcast publishes evictions to other instances, or {@code null}
+     */
+    public record Options(
+            NegativeTier negativeTier,
+            RefreshAhead refreshAhead,
+            InvalidationBroadcast invalidationBroadcast) {
+
+        public static final Options NONE = new Options(null, null, null);
+
+        public Options withNegativeTier(NegativeTier negativeTier) {
+            return new Options(negativeTier, refreshAhead, invalidationBroadcast);
+        }
 
-    public TieredCache(String name, Cache l1Cache, Cache l2Cache, CircuitBreaker circuitBreaker, Executor l2WriteExecutor) {
+        public Options withRefreshAhead(RefreshAhead refreshAhead) {
+            return new Options(negativeTier, refreshAhead, invalidationBroadcast);
+        }
+
+        public Options withInvalidationBroadcast(InvalidationBroadcast invalidationBroadcast) {
+            return new Options(negativeTier, refreshAhead, invalidationBroadcast);
+        }
+    }
+
+    public TieredCache(
+            String name,
+            Cache l1Cache,
+            Cache l2Cache,
+            CircuitBreaker circuitBreaker,
+            Executor l2WriteExecutor,
+            Predicate<Object> cacheableValue,
+            Options options,
+            MeterRegistry meterRegistry) {
+        NegativeTier negativeTier = options.negativeTier();
+        RefreshAhead refreshAhead = options.refreshAhead();
         this.name = name;
         this.l1Cache = l1Cache;
         this.l2Cache = l2Cache;
         this.circuitBreaker = circuitBreaker;
         this.l2WriteExecutor = l2WriteExecutor;
+        this.cacheableValue = cacheableValue;
+        this.negativeTier = negativeTier;
+        this.invalidationBroadcast = options.invalidationBroadcast();
+        this.coalescedLoads = Counter.builder("gateway.cache.coalesced.total")
+                .tag("cache", name)
+                .description("Cache misses that joined an in-flight load instead of loading themselves")
+                .register(meterRegistry);
+        this.negativeL1Lookups = negativeTier != null
+                ? new NegativeLookupCounters(meterRegistry, name, LAYER_L1) : null;
+        this.negativeL2Lookups = negativeTier != null
+                ? new NegativeLookupCounters(meterRegistry, name, LAYER_L2) : null;
+        this.l1Expiration = refreshAhead != null ? variableExpiration(l1Cache) : null;
+        if (refreshAhead != null && l1Expiration == null) {
+            log.warn("Refresh-ahead disabled for cache '{}': L1 has no variable expiration policy", name);
+        }
+        this.refreshAhead = l1Expiration != null ? refreshAhead : null;
+        this.refreshSuccesses = refreshCounter(meterRegistry, name, "success");
+        this.refreshFailures = refreshCounter(meterRegistry, name, "failure");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Policy.VarExpiration<Object, Object> variableExpiration(Cache cache) {
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache)
+                    .policy()
+                    .expireVariably()
+                    .orElse(null);
+        }
+        return null;
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, String cacheName, String result) {
+        return Counter.builder("gateway.cache.refresh.total")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .description("Refresh-ahead reloads of entries close to L1 expiry")
+                .register(meterRegistry);
     }
 
     @Override
@@ -49,13 +217,38 @@ public class TieredCache implements Cache {
     @Override
     public ValueWrapper get(Object key) {
         // 1. Check L1 (Caffeine) - always available, nanosecond access
+        ValueWrapper l1Result = getFromL1(key);
+        if (l1Result != null) {
+            return l1Result;
+        }
+
+        // 2. Check L2 (Redis) with circuit breaker protection
+        ValueWrapper l2Result = getFromL2(key);
+        if (l2Result == null) {
+            log.debug("Cache miss for key hash: {}", key);
+        }
+        return l2Result;
+    }
+
+    private ValueWrapper getFromL1(Object key) {
         ValueWrapper l1Result = l1Cache.get(key);
         if (l1Result != null) {
             log.debug("Cache hit on L1 for key hash: {}", key);
             return l1Result;
         }
+        if (negativeTier == null) {
+            return null;
+        }
 
-        // 2. Check L2 (Redis) with circuit breaker protection
+        ValueWrapper negativeResult = negativeTier.l1Cache().get(key);
+        negativeL1Lookups.record(negativeResult != null);
+        if (negativeResult != null) {
+            log.debug("Negative cache hit on L1 for key hash: {}", key);
+        }
+        return negativeResult;
+    }
+
+    private ValueWrapper getFromL2(Object key) {
         try {
             ValueWrapper l2Result = circuitBreaker.executeSupplier(() -> l2Cache.get(key));
             if (l2Result != null) {
@@ -64,12 +257,19 @@ public class TieredCache implements Cache {
                 l1Cache.put(key, l2Result.get());
                 return l2Result;
             }
+            if (negativeTier != null) {
+                ValueWrapper negativeResult = circuitBreaker.executeSupplier(() -> negativeTier.l2Cache().get(key));
+                negativeL2Lookups.record(negativeResult != null);
+                if (negativeResult != null) {
+                    log.debug("Negative cache hit on L2 for key hash: {}, promoting to L1", key);
+                    negativeTier.l1Cache().put(key, negativeResult.get());
+                    return negativeResult;
+                }
+            }
         } catch (Exception e) {
             log.warn("L2 cache (Redis) unavailable for GET: {}", e.getMessage());
             // Continue without L2 - graceful degradation
         }
-
-        log.debug("Cache miss for key hash: {}", key);
         return null;
     }
 
@@ -91,69 +291,203 @@ public class TieredCache implements Cache {
     @Override
     @SuppressWarnings("unchecked")
     public <T> T get(Object key, Callable<T> valueLoader) {
-        ValueWrapper wrapper = get(key);
-        if (wrapper != null) {
-            return (T) wrapper.get();
+        ValueWrapper l1Result = getFromL1(key);
+        if (l1Result != null) {
+            Object value = l1Result.get();
+            if (refreshAhead != null && cacheableValue.test(value)) {
+                refreshIfExpiringSoon(key, value);
+            }
+            return (T) value;
+        }
+
+        // Single-flight: only the first miss for a key goes to L2 and the value loader
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            coalescedLoads.increment();
+            log.debug("Joining in-flight load for key hash: {}", key);
+            return (T) awaitInFlightLoad(key, valueLoader, inFlight);
         }
 
-        // Cache miss - call the value loader
         try {
-            T value = valueLoader.call();
+            Object value = loadThroughL2(key, valueLoader);
+            flight.complete(value);
+            return (T) value;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlightLoads.remove(key, flight);
+        }
+    }
+
+    private Object loadThroughL2(Object key, Callable<?> valueLoader) throws Exception {
+        // A previous leader may have populated L1 between our miss and taking the lead
+        ValueWrapper cached = l1Cache.get(key);
+        if (cached == null && negativeTier != null) {
+            cached = negativeTier.l1Cache().get(key);
+        }
+        if (cached == null) {
+            cached = getFromL2(key);
+        }
+        if (cached != null) {
+            return cached.get();
+        }
+
+        // Cache miss on both layers - call the value loader
+        log.debug("Cache miss for key hash: {}", key);
+        Object value = valueLoader.call();
+        if (cacheableValue.test(value)) {
             put(key, value);
-            return value;
+        } else if (isNegative(value)) {
+            putNegative(key, value);
+        }
+        return value;
+    }
+
+    private Object awaitInFlightLoad(Object key, Callable<?> valueLoader, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            // Surface the leader's failure exactly as if this caller had loaded the value itself
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private void refreshIfExpiringSoon(Object key, Object value) {
+        Optional<Duration> remaining = l1Expiration.getExpiresAfter(key);
+        if (remaining.isEmpty() || remaining.get().compareTo(refreshAhead.window()) > 0) {
+            return;
+        }
+        Object generation = new Object();
+        if (!refreshAhead.refreshable().test(value) || refreshesInFlight.putIfAbsent(key, generation) != null) {
+            return;
+        }
+
+        log.debug("Refreshing ahead key hash: {} ({} ms left in L1)", key, remaining.get().toMillis());
+        try {
+            refreshAhead.executor().execute(() -> {
+                try {
+                    refresh(key, generation);
+                } finally {
+                    refreshesInFlight.remove(key, generation);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshesInFlight.remove(key, generation);
+            refreshFailures.increment();
+            log.warn("Refresh-ahead rejected for cache '{}': {}", name, e.getMessage());
+        }
+    }
+
+    private void refresh(Object key, Object generation) {
+        try {
+            Object value = refreshAhead.loader().reload(key);
+            if (value == null) {
+                return;
+            }
+            if (writeRefreshed(key, generation, value)) {
+                refreshSuccesses.increment();
+            } else {
+                log.debug("Discarded refresh of evicted key hash: {}", key);
+            }
         } catch (Exception e) {
-            throw new ValueRetrievalException(key, valueLoader, e);
+            // Keep serving the current value until it expires; the next miss loads it normally
+            refreshFailures.increment();
+            log.warn("Refresh-ahead failed for cache '{}': {}", name, e.getMessage());
         }
     }
 
+    private boolean writeRefreshed(Object key, Object generation, Object value) {
+        if (refreshesInFlight.get(key) != generation) {
+            return false;
+        }
+        // L2 is written on this background thread, so the generation check below sees the finished write
+        if (cacheableValue.test(value)) {
+            l1Cache.put(key, value);
+            await(runOnL2(() -> l2Cache.put(key, value), "Stored refreshed entry in L2", "write to", key));
+        } else {
+            // No longer valid - drop the positive entry so the next caller sees the new state
+            l1Cache.evict(key);
+            await(runOnL2(() -> l2Cache.evict(key), "Evicted refreshed entry from L2", "evict from", key));
+            broadcast(key);
+            if (isNegative(value)) {
+                putNegative(key, value);
+            }
+        }
+        if (refreshesInFlight.get(key) == generation) {
+            return true;
+        }
+        // Evicted while writing; the eviction may have reached L2 before this write did
+        evictLocal(key);
+        await(runOnL2(() -> {
+            l2Cache.evict(key);
+            if (negativeTier != null) {
+                negativeTier.l2Cache().evict(key);
+            }
+        }, "Evicted discarded refresh from L2", "evict from", key));
+        return false;
+    }
+
+    private static void await(CompletionStage<Void> stage) {
+        // Failures are already logged by runOnL2
+        stage.toCompletableFuture().handle((ignored, throwable) -> null).join();
+    }
+
+    private boolean isNegative(Object value) {
+        return negativeTier != null && negativeTier.negativeValue().test(value);
+    }
+
     @Override
     public void put(Object key, Object value) {
+        if (isNegative(value)) {
+            putNegative(key, value);
+            return;
+        }
+
         // Always write to L1 (Caffeine)
         l1Cache.put(key, value);
 
         // Write to L2 (Redis) asynchronously with circuit breaker protection
-        circuitBreaker.executeCompletionStage(() ->
-                CompletableFuture.runAsync(() -> l2Cache.put(key, value), l2WriteExecutor)
-        ).whenComplete((ignored, throwable) -> {
-            if (throwable == null) {
-                log.debug("Stored in L2 for key hash: {}", key);
-            } else {
-                log.warn("Failed to write to L2 cache (Redis): {}", throwable.getMessage());
-                // L1 write succeeded, so the cache operation is partially successful
-            }
-        });
+        runOnL2(() -> l2Cache.put(key, value), "Stored in L2", "write to", key);
+    }
+
+    private void putNegative(Object key, Object value) {
+        negativeTier.l1Cache().put(key, value);
+        runOnL2(() -> negativeTier.l2Cache().put(key, value), "Stored negative result in L2", "write to", key);
     }
 
     @Override
     public void evict(Object key) {
         // Evict from L1
-        l1Cache.evict(key);
+        evictLocal(key);
 
         // Evict from L2 asynchronously with circuit breaker protection
-        circuitBreaker.executeCompletionStage(() ->
-                CompletableFuture.runAsync(() -> l2Cache.evict(key), l2WriteExecutor)
-        ).whenComplete((ignored, throwable) -> {
-            if (throwable == null) {
-                log.debug("Evicted from L2 for key hash: {}", key);
-            } else {
-                log.warn("Failed to evict from L2 cache (Redis): {}", throwable.getMessage());
+        runOnL2(() -> {
+            l2Cache.evict(key);
+            if (negativeTier != null) {
+                negativeTier.l2Cache().evict(key);
             }
-        });
+        }, "Evicted from L2", "evict from", key)
+                // Broadcast only once L2 is gone, so other instances cannot re-promote the stale entry
+                .whenComplete((ignored, throwable) -> broadcast(key));
     }
 
     @Override
     public boolean evictIfPresent(Object key) {
+        refreshesInFlight.remove(key);
         boolean l1Evicted = l1Cache.evictIfPresent(key);
+        if (negativeTier != null) {
+            l1Evicted |= negativeTier.l1Cache().evictIfPresent(key);
+        }
 
-        circuitBreaker.executeCompletionStage(() ->
-                CompletableFuture.runAsync(() -> l2Cache.evictIfPresent(key), l2WriteExecutor)
-        ).whenComplete((ignored, throwable) -> {
-            if (throwable == null) {
-                log.debug("EvictedIfPresent from L2 for key hash: {}", key);
-            } else {
-                log.warn("Failed to evictIfPresent from L2 cache (Redis): {}", throwable.getMessage());
+        runOnL2(() -> {
+            l2Cache.evictIfPresent(key);
+            if (negativeTier != null) {
+                negativeTier.l2Cache().evictIfPresent(key);
             }
-        });
+        }, "EvictedIfPresent from L2", "evictIfPresent from", key)
+                .whenComplete((ignored, throwable) -> broadcast(key));
 
         return l1Evicted;
     }
@@ -161,34 +495,110 @@ public class TieredCache implements Cache {
     @Override
     public void clear() {
         // Clear L1
-        l1Cache.clear();
+        clearLocal();
 
         // Clear L2 asynchronously with circuit breaker protection
-        circuitBreaker.executeCompletionStage(() ->
-                CompletableFuture.runAsync(l2Cache::clear, l2WriteExecutor)
-        ).whenComplete((ignored, throwable) -> {
-            if (throwable == null) {
-                log.debug("Cleared L2 cache");
-            } else {
-                log.warn("Failed to clear L2 cache (Redis): {}", throwable.getMessage());
+        runOnL2(() -> {
+            l2Cache.clear();
+            if (negativeTier != null) {
+                negativeTier.l2Cache().clear();
             }
-        });
+        }, "Cleared L2 cache", "clear", null)
+                .whenComplete((ignored, throwable) -> broadcast(null));
     }
 
     @Override
     public boolean invalidate() {
+        refreshesInFlight.clear();
         boolean l1Invalidated = l1Cache.invalidate();
+        if (negativeTier != null) {
+            l1Invalidated |= negativeTier.l1Cache().invalidate();
+        }
+
+        runOnL2(() -> {
+            l2Cache.invalidate();
+            if (negativeTier != null) {
+                negativeTier.l2Cache().invalidate();
+            }
+        }, "Invalidated L2 cache", "invalidate", null)
+                .whenComplete((ignored, throwable) -> broadcast(null));
+
+        return l1Invalidated;
+    }
+
+    /**
+     * Evicts the key from this instance's L1 only (positive and negative tier).
+     * Called for invalidations received from other instances; L2 is shared and already evicted.
+     */
+    public void evictLocal(Object key) {
+        refreshesInFlight.remove(key);
+        l1Cache.evict(key);
+        if (negativeTier != null) {
+            negativeTier.l1Cache().evict(key);
+        }
+    }
+
+    /**
+     * Clears this instance's L1 only (positive and negative tier).
+     */
+    public void clearLocal() {
+        refreshesInFlight.clear();
+        l1Cache.clear();
+        if (negativeTier != null) {
+            negativeTier.l1Cache().clear();
+        }
+    }
+
+    private void broadcast(Object key) {
+        if (invalidationBroadcast == null) {
+            return;
+        }
+        try {
+            invalidationBroadcast.bus().publish(new CacheInvalidation(
+                    invalidationBroadcast.instanceId(), name, key == null ? null : key.toString()));
+        } catch (Exception e) {
+            // Local eviction already happened; other instances fall back to their L1 TTL
+            log.warn("Failed to broadcast invalidation for cache '{}': {}", name, e.getMessage());
+        }
+    }
 
-        circuitBreaker.executeCompletionStage(() ->
-                CompletableFuture.runAsync(l2Cache::invalidate, l2WriteExecutor)
+    private CompletionStage<Void> runOnL2(Runnable operation, String successMessage, String failedOperation, Object key) {
+        return circuitBreaker.executeCompletionStage(() ->
+                CompletableFuture.runAsync(operation, l2WriteExecutor)
         ).whenComplete((ignored, throwable) -> {
             if (throwable == null) {
-                log.debug("Invalidated L2 cache");
+                log.debug("{} for key hash: {}", successMessage, key);
             } else {
-                log.warn("Failed to invalidate L2 cache (Redis): {}", throwable.getMessage());
+                // The L1 operation succeeded, so the cache operation is partially successful
+                log.warn("Failed to {} L2 cache (Redis): {}", failedOperation, throwable.getMessage());
             }
         });
+    }
 
-        return l1Invalidated;
+    /**
+     * Hit/miss counters for one layer of the negative tier.
+     */
+    private static final class NegativeLookupCounters {
+
+        private final Counter hits;
+        private final Counter misses;
+
+        NegativeLookupCounters(MeterRegistry meterRegistry, String cacheName, String layer) {
+            this.hits = counter(meterRegistry, cacheName, layer, "hit");
+            this.misses = counter(meterRegistry, cacheName, layer, "miss");
+        }
+
+        void record(boolean hit) {
+            (hit ? hits : misses).increment();
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String cacheName, String layer, String result) {
+            return Counter.builder("gateway.cache.negative.lookups.total")
+                    .tag("cache", cacheName)
+                    .tag("layer", layer)
+                    .tag("result", result)
+                    .description("Negative-result cache lookups")
+                    .register(meterRegistry);
+        }
     }
 }
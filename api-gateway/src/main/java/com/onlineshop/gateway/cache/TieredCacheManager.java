@@ -1,6 +1,7 @@
 package com.onlineshop.gateway.cache;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
@@ -15,8 +16,10 @@ import org.springframework.data.redis.cache.RedisCache;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 
 /**
  *
@@ -32,18 +35,32 @@ import java.util.concurrent.Executor;
  *   <li>L1 metrics: cache_gets_total{cache="l1-auth-tokens", cacheManager="caffeineCacheManager"}</li>
  *   <li>L2 metrics: cache_gets_total{cache="l2-auth-tokens", cacheManager="redisCacheManager"}</li>
  * </ul>
+ *
+ * <p>When a {@code negativeValue} predicate is configured, each TieredCache also gets a negative
+ * tier backed by the "l1-&lt;name&gt;-negative" and "l2-&lt;name&gt;-negative" caches, which are
+ * expected to be registered with their own TTL and size bound.</p>
+ *
+ * <p>A non-null {@link TieredCache.RefreshAhead} enables refresh-ahead on every TieredCache.</p>
+ *
+ * <p>A non-null {@link CacheInvalidationBus} makes evictions cluster-wide: each TieredCache publishes
+ * its evictions, and this manager applies invalidations from other instances to the local L1.</p>
  */
 @Slf4j
 public class TieredCacheManager implements CacheManager {
 
     private static final String L1_PREFIX = "l1-";
     private static final String L2_PREFIX = "l2-";
+    private static final String NEGATIVE_SUFFIX = "-negative";
 
     private final CaffeineCacheManager l1CacheManager;
     private final RedisCacheManager l2CacheManager;
     private final CircuitBreaker circuitBreaker;
     private final Executor l2WriteExecutor;
     private final MeterRegistry meterRegistry;
+    private final Predicate<Object> cacheableValue;
+    private final Predicate<Object> negativeValue;
+    private final TieredCache.RefreshAhead refreshAhead;
+    private final TieredCache.InvalidationBroadcast invalidationBroadcast;
     private final Map<String, TieredCache> cacheMap = new ConcurrentHashMap<>();
     private final Set<String> monitoredCaches = ConcurrentHashMap.newKeySet();
 
@@ -52,12 +69,26 @@ public class TieredCacheManager implements CacheManager {
             RedisCacheManager l2CacheManager,
             CircuitBreaker circuitBreaker,
             Executor l2WriteExecutor,
-            MeterRegistry meterRegistry) {
+            MeterRegistry meterRegistry,
+            Predicate<Object> cacheableValue,
+            Predicate<Object> negativeValue,
+            TieredCache.RefreshAhead refreshAhead,
+            CacheInvalidationBus invalidationBus) {
         this.l1CacheManager = l1CacheManager;
         this.l2CacheManager = l2CacheManager;
         this.circuitBreaker = circuitBreaker;
         this.l2WriteExecutor = l2WriteExecutor;
         this.meterRegistry = meterRegistry;
+        this.cacheableValue = cacheableValue;
+        this.negativeValue = negativeValue;
+        this.refreshAhead = refreshAhead;
+        if (invalidationBus != null) {
+            this.invalidationBroadcast = new TieredCache.InvalidationBroadcast(
+                    invalidationBus, UUID.randomUUID().toString());
+            invalidationBus.subscribe(this::onInvalidation);
+        } else {
+            this.invalidationBroadcast = null;
+        }
         log.info("TieredCacheManager initialized with L1 (Caffeine) and L2 (Redis) caches");
     }
 
@@ -85,7 +116,53 @@ public class TieredCacheManager implements CacheManager {
 //        bindCacheMetrics(l2Cache, "redisCacheManager");
 
         log.debug("Created TieredCache '{}' with L1='{}' and L2='{}'", name, l1Name, l2Name);
-        return new TieredCache(name, l1Cache, l2Cache, circuitBreaker, l2WriteExecutor);
+        return new TieredCache(name, l1Cache, l2Cache, circuitBreaker, l2WriteExecutor, cacheableValue,
+                new TieredCache.Options(createNegativeTier(name), refreshAhead, invalidationBroadcast), meterRegistry);
+    }
+
+    private TieredCache.NegativeTier createNegativeTier(String name) {
+        if (negativeValue == null) {
+            return null;
+        }
+        String l1Name = L1_PREFIX + name + NEGATIVE_SUFFIX;
+        String l2Name = L2_PREFIX + name + NEGATIVE_SUFFIX;
+
+        Cache l1Cache = l1CacheManager.getCache(l1Name);
+        Cache l2Cache = l2CacheManager.getCache(l2Name);
+
+        if (l1Cache == null) {
+            throw new IllegalStateException("Failed to create negative L1 cache for: " + l1Name);
+        }
+        if (l2Cache == null) {
+            throw new IllegalStateException("Failed to create negative L2 cache for: " + l2Name);
+        }
+
+        log.debug("Created negative tier for '{}' with L1='{}' and L2='{}'", name, l1Name, l2Name);
+        return new TieredCache.NegativeTier(l1Cache, l2Cache, negativeValue);
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (invalidationBroadcast.instanceId().equals(invalidation.origin())) {
+            return;
+        }
+        TieredCache cache = cacheMap.get(invalidation.cacheName());
+        if (cache == null) {
+            // Nothing cached locally under this name yet
+            return;
+        }
+
+        if (invalidation.isClear()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(invalidation.key());
+        }
+        Counter.builder("gateway.cache.invalidations.received.total")
+                .tag("cache", invalidation.cacheName())
+                .description("L1 invalidations received from other gateway instances")
+                .register(meterRegistry)
+                .increment();
+        log.debug("Applied remote invalidation for cache '{}' from instance {}",
+                invalidation.cacheName(), invalidation.origin());
     }
 
     private void bindCacheMetrics(Cache cache, String cacheManagerName) {
@@ -0,0 +1,94 @@
+package com.onlineshop.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Computes per-entry cache lifetimes for token validations from {@link ValidateResponse#getExpiresAt()}.
+ *
+ * <p>An entry lives until the token expires (minus a clock-skew margin), but never longer than the
+ * configured maximum for the layer. Entries without an expiry, or values that are not a
+ * {@link ValidateResponse}, fall back to the maximum. This keeps long-lived tokens hot for their
+ * whole life while making sure an expired token is never served from cache.</p>
+ *
+ * <p>The same policy backs both L1 ({@link #caffeineExpiry(Duration)}) and L2
+ * ({@link #redisTtl(Duration)}), so the layers agree on when a token drops out.</p>
+ */
+public class TokenExpiryPolicy {
+
+    // Redis treats a zero or negative TTL as "persist forever", so never go below this
+    private static final Duration MIN_TTL = Duration.ofMillis(1);
+
+    private final Clock clock;
+    private final Duration skewMargin;
+
+    public TokenExpiryPolicy(Clock clock, Duration skewMargin) {
+        this.clock = clock;
+        this.skewMargin = skewMargin;
+    }
+
+    /**
+     * Returns how long the given value may stay cached, capped by {@code maxTtl}.
+     *
+     * @param value the cached value
+     * @param maxTtl upper bound for the layer
+     * @return a positive duration, at least one millisecond
+     */
+    public Duration timeToLive(Object value, Duration maxTtl) {
+        if (!(value instanceof ValidateResponse response) || response.getExpiresAt() == null) {
+            return maxTtl;
+        }
+        Instant cacheableUntil = response.getExpiresAt().minus(skewMargin);
+        Duration remaining = Duration.between(clock.instant(), cacheableUntil);
+        if (remaining.compareTo(maxTtl) > 0) {
+            return maxTtl;
+        }
+        return remaining.compareTo(MIN_TTL) < 0 ? MIN_TTL : remaining;
+    }
+
+    /**
+     * Returns whether the token behind the given value stops being cacheable within {@code period}.
+     * Values without an expiry never do.
+     */
+    public boolean expiresWithin(Object value, Duration period) {
+        if (!(value instanceof ValidateResponse response) || response.getExpiresAt() == null) {
+            return false;
+        }
+        Instant cacheableUntil = response.getExpiresAt().minus(skewMargin);
+        return !cacheableUntil.isAfter(clock.instant().plus(period));
+    }
+
+    /**
+     * Caffeine expiry that resets the lifetime on every write and leaves it untouched on reads.
+     */
+    public <K, V> Expiry<K, V> caffeineExpiry(Duration maxTtl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(K key, V value, long currentTime) {
+                return timeToLive(value, maxTtl).toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+                return timeToLive(value, maxTtl).toNanos();
+            }
+
+            @Override
+            public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    /**
+     * Per-entry Redis TTL matching {@link #caffeineExpiry(Duration)}.
+     */
+    public RedisCacheWriter.TtlFunction redisTtl(Duration maxTtl) {
+        return (key, value) -> timeToLive(value, maxTtl);
+    }
+}
@@ -0,0 +1,86 @@
+package com.onlineshop.gateway.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+/**
+ * Key {@link RedisSerializer} that stores token hashes as their raw 32-byte SHA-256 digest.
+ *
+ * <p>RedisCache keys arrive as {@code "<cacheName>::<hex hash>"}. The prefix is kept as UTF-8 and the
+ * 64-character hex hash is packed into 32 bytes, halving the key size. Anything else (e.g. the
+ * {@code "<cacheName>::*"} pattern used by {@code clear()}) is written as plain UTF-8, so pattern
+ * scans over the prefix keep working.</p>
+ */
+public class TokenHashKeyRedisSerializer implements RedisSerializer<String> {
+
+    private static final String SEPARATOR = "::";
+    private static final int DIGEST_LENGTH = 32;
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Override
+    public byte[] serialize(String key) throws SerializationException {
+        if (key == null) {
+            return null;
+        }
+
+        int separator = key.indexOf(SEPARATOR);
+        int hashStart = separator < 0 ? 0 : separator + SEPARATOR.length();
+        if (!isHexDigest(key, hashStart)) {
+            return key.getBytes(StandardCharsets.UTF_8);
+        }
+
+        byte[] prefix = key.substring(0, hashStart).getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[prefix.length + DIGEST_LENGTH];
+        System.arraycopy(prefix, 0, bytes, 0, prefix.length);
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int offset = hashStart + i * 2;
+            bytes[prefix.length + i] = (byte) ((HexFormat.fromHexDigit(key.charAt(offset)) << 4)
+                    | HexFormat.fromHexDigit(key.charAt(offset + 1)));
+        }
+        return bytes;
+    }
+
+    @Override
+    public String deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null) {
+            return null;
+        }
+
+        int hashStart = indexOfSeparator(bytes) + SEPARATOR.length();
+        if (hashStart < SEPARATOR.length() || bytes.length - hashStart != DIGEST_LENGTH) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new String(bytes, 0, hashStart, StandardCharsets.UTF_8)
+                + HEX.formatHex(bytes, hashStart, bytes.length);
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return String.class;
+    }
+
+    private static boolean isHexDigest(String key, int start) {
+        if (key.length() - start != DIGEST_LENGTH * 2) {
+            return false;
+        }
+        for (int i = start; i < key.length(); i++) {
+            if (!HexFormat.isHexDigit(key.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOfSeparator(byte[] bytes) {
+        // Cache names are plain text, so the first "::" always ends the prefix
+        for (int i = 0; i < bytes.length - 1; i++) {
+            if (bytes[i] == ':' && bytes[i + 1] == ':') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,190 @@
+package com.onlineshop.gateway.cache;
+
+import com.onlineshop.gateway.dto.ValidateResponse;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Fixed-layout binary {@link RedisSerializer} for {@link ValidateResponse} L2 entries.
+ *
+ * <p>Layout:</p>
+ * <pre>
+ * flags      1 byte   bits 0-4: valid, userId, username, createdAt, expiresAt present; bits 5-7: format version
+ * userId     varint   zig-zag encoded, if present
+ * username   varint length + UTF-8 bytes, if present
+ * createdAt  8 bytes  epoch seconds, if present
+ * expiresAt  8 bytes  epoch seconds, if present
+ * plan       varint length + UTF-8 bytes, version 2 and later
+ * </pre>
+ *
+ * <p>Version 2 is written only for responses that carry a plan, so entries without one keep the
+ * version 1 layout. New fields are only ever appended, and a reader skips the bytes after the fields
+ * it knows, so it reads entries of newer versions too. Version 3 is never used: its flag byte can
+ * equal {@code '{'}.</p>
+ *
+ * <p>Gateways from before this rule reject any version but 1. While such gateways share the Redis
+ * cache, construct with {@code writeVersion} 1 ({@code gateway.cache.redis.binary-version}), which
+ * leaves the plan out of L2 entries.</p>
+ *
+ * <p>A typical entry is ~30 bytes instead of ~130 bytes of JSON, and decoding needs no parsing of
+ * field names or ISO-8601 dates. Instants are truncated to whole seconds, where the JSON format kept
+ * nanoseconds. Truncating moves {@code expiresAt} earlier, never later, and the cache expiry works at
+ * second granularity anyway.</p>
+ *
+ * <p>JSON entries left in Redis from before the switch start with {@code '{'}. They fail with a
+ * {@link SerializationException} and are treated as L2 misses.</p>
+ */
+public class ValidateResponseRedisSerializer implements RedisSerializer<ValidateResponse> {
+
+    private static final int VALID = 1;
+    private static final int HAS_USER_ID = 1 << 1;
+    private static final int HAS_USERNAME = 1 << 2;
+    private static final int HAS_CREATED_AT = 1 << 3;
+    private static final int HAS_EXPIRES_AT = 1 << 4;
+    private static final int VERSION_MASK = 0b1110_0000;
+    private static final int VERSION_1 = 1 << 5;
+    private static final int VERSION_2 = 2 << 5;
+    private static final int JSON_OBJECT = '{';
+
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private final int writeVersion;
+
+    public ValidateResponseRedisSerializer() {
+        this(2);
+    }
+
+    /**
+     * @param writeVersion newest layout version written, 1 or 2
+     */
+    public ValidateResponseRedisSerializer(int writeVersion) {
+        if (writeVersion != 1 && writeVersion != 2) {
+            throw new IllegalArgumentException("Unsupported ValidateResponse write version: " + writeVersion);
+        }
+        this.writeVersion = writeVersion << 5;
+    }
+
+    @Override
+    public byte[] serialize(ValidateResponse value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+
+        byte[] username = value.getUsername() == null ? null : value.getUsername().getBytes(StandardCharsets.UTF_8);
+        byte[] plan = value.getPlan() == null || writeVersion < VERSION_2
+                ? null
+                : value.getPlan().getBytes(StandardCharsets.UTF_8);
+        int flags = (plan != null ? VERSION_2 : VERSION_1)
+                | (value.isValid() ? VALID : 0)
+                | (value.getUserId() != null ? HAS_USER_ID : 0)
+                | (username != null ? HAS_USERNAME : 0)
+                | (value.getCreatedAt() != null ? HAS_CREATED_AT : 0)
+                | (value.getExpiresAt() != null ? HAS_EXPIRES_AT : 0);
+
+        int size = 1
+                + (value.getUserId() != null ? MAX_VARINT_BYTES : 0)
+                + (username != null ? 5 + username.length : 0)
+                + (value.getCreatedAt() != null ? Long.BYTES : 0)
+                + (value.getExpiresAt() != null ? Long.BYTES : 0)
+                + (plan != null ? 5 + plan.length : 0);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put((byte) flags);
+        if (value.getUserId() != null) {
+            long userId = value.getUserId();
+            writeVarint(buffer, (userId << 1) ^ (userId >> 63));
+        }
+        if (username != null) {
+            writeVarint(buffer, username.length);
+            buffer.put(username);
+        }
+        if (value.getCreatedAt() != null) {
+            buffer.putLong(value.getCreatedAt().getEpochSecond());
+        }
+        if (value.getExpiresAt() != null) {
+            buffer.putLong(value.getExpiresAt().getEpochSecond());
+        }
+        if (plan != null) {
+            writeVarint(buffer, plan.length);
+            buffer.put(plan);
+        }
+
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public ValidateResponse deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        int flags = bytes[0] & 0xFF;
+        int version = flags & VERSION_MASK;
+        if (version == 0 || flags == JSON_OBJECT) {
+            throw new SerializationException("Unsupported ValidateResponse format: 0x" + Integer.toHexString(flags));
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            ValidateResponse response = new ValidateResponse();
+            response.setValid((flags & VALID) != 0);
+            if ((flags & HAS_USER_ID) != 0) {
+                long zigZag = readVarint(buffer);
+                response.setUserId((zigZag >>> 1) ^ -(zigZag & 1));
+            }
+            if ((flags & HAS_USERNAME) != 0) {
+                response.setUsername(readString(buffer, bytes));
+            }
+            if ((flags & HAS_CREATED_AT) != 0) {
+                response.setCreatedAt(Instant.ofEpochSecond(buffer.getLong()));
+            }
+            if ((flags & HAS_EXPIRES_AT) != 0) {
+                response.setExpiresAt(Instant.ofEpochSecond(buffer.getLong()));
+            }
+            if (version >= VERSION_2) {
+                response.setPlan(readString(buffer, bytes));
+            }
+            // Fields of newer versions follow; they are not known here and are skipped
+            return response;
+        } catch (RuntimeException e) {
+            throw new SerializationException("Truncated or corrupt ValidateResponse entry", e);
+        }
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return ValidateResponse.class;
+    }
+
+    private static String readString(ByteBuffer buffer, byte[] bytes) {
+        int length = (int) readVarint(buffer);
+        String value = new String(bytes, buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new SerializationException("Malformed varint");
+    }
+}
@@ -0,0 +1,83 @@
+package com.onlineshop.gateway.config;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opens connections to the Auth service once the gateway is up, so the first token validations after a
+ * deploy do not pay TCP setup and the HTTP/2 upgrade.
+ *
+ * <p>The JDK client upgrades a cleartext connection to HTTP/2 only on a request without a body, so the
+ * warm-up GETs are also what moves the connection to h2c before the first batch POST. Failures are
+ * logged and otherwise ignored - Auth may still be starting.</p>
+ */
+@Component
+@Slf4j
+public class AuthClientWarmUp {
+
+    private final RestClient restClient;
+    private final ExecutorService authHttpExecutor;
+    private final URI warmUpUri;
+    private final int requests;
+    private final Counter warmUpFailures;
+
+    public AuthClientWarmUp(
+            RestClient restClient,
+            ExecutorService authHttpExecutor,
+            @Value("${gateway.auth.service-url}") String authServiceUrl,
+            @Value("${gateway.auth.client.warm-up-path:/actuator/health}") String warmUpPath,
+            @Value("${gateway.auth.client.warm-up-requests:4}") int requests,
+            MeterRegistry meterRegistry) {
+        this.restClient = restClient;
+        this.authHttpExecutor = authHttpExecutor;
+        this.warmUpUri = URI.create(authServiceUrl + warmUpPath);
+        this.requests = requests;
+        this.warmUpFailures = Counter.builder("gateway.auth.client.warmup.failures")
+                .description("Failed Auth service connection warm-up requests")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (requests <= 0) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        List<CompletableFuture<Void>> calls = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            calls.add(CompletableFuture.runAsync(this::call, authHttpExecutor));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+                .orTimeout(10, TimeUnit.SECONDS)
+                .whenComplete((ignored, throwable) -> log.info("Auth service connection warm-up finished in {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)));
+    }
+
+    private void call() {
+        try {
+            restClient.get()
+                    .uri(warmUpUri)
+                    .retrieve()
+                    // Any status will do - the connection is what is being warmed
+                    .onStatus(status -> true, (request, response) -> { })
+                    .toBodilessEntity();
+        } catch (RuntimeException e) {
+            warmUpFailures.increment();
+            log.debug("Auth service warm-up request failed: {}", e.getMessage());
+        }
+    }
+}
@@ -2,14 +2,24 @@ package com.onlineshop.gateway.config;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.onlineshop.gateway.cache.CacheInvalidationBus;
+import com.onlineshop.gateway.cache.InProcessCacheInvalidationBus;
+import com.onlineshop.gateway.cache.RedisCacheInvalidationBus;
+import com.onlineshop.gateway.cache.TieredCache;
 import com.onlineshop.gateway.cache.TieredCacheManager;
+import com.onlineshop.gateway.cache.TokenExpiryPolicy;
+import com.onlineshop.gateway.cache.TokenHashKeyRedisSerializer;
+import com.onlineshop.gateway.cache.ValidateResponseRedisSerializer;
 import com.onlineshop.gateway.dto.ValidateResponse;
+import com.onlineshop.gateway.service.TokenRefreshLoader;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -20,10 +30,14 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.JacksonJsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Clock;
 import java.time.Duration;
 
 /**
@@ -42,6 +56,21 @@ import java.time.Duration;
  *   <li>L1: cache_gets_total{cache="l1-auth-tokens", cacheManager="caffeineCacheManager"}</li>
  *   <li>L2: cache_gets_total{cache="l2-auth-tokens", cacheManager="redisCacheManager"}</li>
  * </ul>
+ *
+ * <p>Positive entries expire together with the token they describe: the configured TTLs are upper
+ * bounds, and the effective per-entry lifetime comes from {@link TokenExpiryPolicy}.</p>
+ *
+ * <p>L2 entries use a compact binary format ({@link ValidateResponseRedisSerializer}) with raw SHA-256
+ * digests as keys ({@link TokenHashKeyRedisSerializer}); {@code gateway.cache.redis.serialization=json}
+ * switches back to the Jackson JSON format.</p>
+ *
+ * <p>L1 evictions are broadcast to the other gateway instances over a {@link CacheInvalidationBus}
+ * ({@code gateway.cache.invalidation.bus}: {@code redis} pub/sub by default, {@code in-process} for
+ * single-instance runs and tests), so a revoked session disappears from every replica's L1 at once.</p>
+ *
+ * <p>Invalid tokens are kept in a separate negative tier ("l1-auth-tokens-negative",
+ * "l2-auth-tokens-negative") with a short TTL of its own, so bots and stale browser tabs
+ * replaying revoked tokens are rejected without reaching the Auth service.</p>
  */
 @Configuration
 @EnableCaching
@@ -56,11 +85,55 @@ public class CacheConfig {
     @Value("${gateway.cache.redis.ttl-seconds:300}")
     private long redisTtlSeconds;
 
+    @Value("${gateway.cache.redis.serialization:binary}")
+    private String redisSerialization;
+
+    @Value("${gateway.cache.redis.binary-version:2}")
+    private int redisBinaryVersion;
+
+    @Value("${gateway.cache.expiry-skew-seconds:30}")
+    private long expirySkewSeconds;
+
+    @Value("${gateway.cache.refresh-ahead.enabled:true}")
+    private boolean refreshAheadEnabled;
+
+    @Value("${gateway.cache.refresh-ahead.window-seconds:10}")
+    private long refreshAheadWindowSeconds;
+
+    @Value("${gateway.cache.invalidation.channel:" + RedisCacheInvalidationBus.DEFAULT_CHANNEL + "}")
+    private String invalidationChannel;
+
+    @Value("${gateway.cache.negative.caffeine.ttl-seconds:10}")
+    private long negativeCaffeineTtlSeconds;
+
+    @Value("${gateway.cache.negative.caffeine.max-size:50000}")
+    private long negativeCaffeineMaxSize;
+
+    @Value("${gateway.cache.negative.redis.ttl-seconds:30}")
+    private long negativeRedisTtlSeconds;
+
+    /**
+     * Derives per-entry TTLs from the token expiry, shared by L1 and L2 and by the legacy caches.
+     */
+    @Bean
+    public TokenExpiryPolicy tokenExpiryPolicy() {
+        return new TokenExpiryPolicy(Clock.systemUTC(), Duration.ofSeconds(expirySkewSeconds));
+    }
+
     // ===== Spring Cache Abstraction Beans (for @Cacheable) =====
 
     /**
      * Primary CacheManager that provides tiered caching (L1 + L2).
      * Used by @Cacheable annotations in AuthValidationService.
+     *
+     * <p>Only valid token validations are stored in the main tier. This replaces the {@code unless}
+     * clause, which Spring does not support on {@code @Cacheable(sync = true)}. Invalid ones go
+     * to the negative tier.</p>
+     *
+     * <p>With refresh-ahead enabled, hot tokens read within the last {@code window-seconds} before
+     * their L1 expiry are revalidated on the virtual-thread executor while callers keep getting the
+     * cached value. Tokens that expire within the window themselves are left to drop out. The
+     * revalidation goes through {@link TokenRefreshLoader}, not the request's own call.</p>
      */
     @Bean
     @Primary
@@ -69,13 +142,29 @@ public class CacheConfig {
             RedisCacheManager redisCacheManager,
             CircuitBreaker redisCacheCircuitBreaker,
             java.util.concurrent.ExecutorService virtualThreadExecutor,
-            io.micrometer.core.instrument.MeterRegistry meterRegistry) {
+            io.micrometer.core.instrument.MeterRegistry meterRegistry,
+            TokenExpiryPolicy tokenExpiryPolicy,
+            ObjectProvider<CacheInvalidationBus> cacheInvalidationBus,
+            ObjectProvider<TokenRefreshLoader> tokenRefreshLoader) {
+        TieredCache.RefreshAhead refreshAhead = null;
+        if (refreshAheadEnabled) {
+            Duration window = Duration.ofSeconds(refreshAheadWindowSeconds);
+            refreshAhead = new TieredCache.RefreshAhead(
+                    window,
+                    value -> !tokenExpiryPolicy.expiresWithin(value, window),
+                    tokenRefreshLoader.getObject(),
+                    virtualThreadExecutor);
+        }
         return new TieredCacheManager(
                 caffeineCacheManager,
                 redisCacheManager,
                 redisCacheCircuitBreaker,
                 virtualThreadExecutor,
-                meterRegistry);
+                meterRegistry,
+                value -> value instanceof ValidateResponse response && response.isValid(),
+                value -> value instanceof ValidateResponse response && !response.isValid(),
+                refreshAhead,
+                cacheInvalidationBus.getIfAvailable());
     }
 
     /**
@@ -83,15 +172,24 @@ public class CacheConfig {
      * Provides nanosecond access for frequently accessed tokens.
      */
     @Bean
-    public CaffeineCacheManager caffeineCacheManager(MeterRegistry meterRegistry) {
+    public CaffeineCacheManager caffeineCacheManager(MeterRegistry meterRegistry, TokenExpiryPolicy tokenExpiryPolicy) {
         Caffeine<Object, Object> caffeineBuilder = Caffeine.newBuilder()
                 .recordStats()  // Enables Micrometer metrics
-                .expireAfterWrite(Duration.ofSeconds(caffeineTtlSeconds))
+                .expireAfter(tokenExpiryPolicy.caffeineExpiry(Duration.ofSeconds(caffeineTtlSeconds)))
                 .maximumSize(caffeineMaxSize);
         com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineBuilder.build();
         CaffeineCacheManager manager = new CaffeineCacheManager();
         manager.registerCustomCache("l1-auth-tokens", nativeCache);
         CaffeineCacheMetrics.monitor(meterRegistry, nativeCache, "l1-auth-tokens");
+
+        // Negative tier: short-lived, separately bounded so a bot flood cannot evict valid tokens
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> negativeCache = Caffeine.newBuilder()
+                .recordStats()
+                .expireAfterWrite(Duration.ofSeconds(negativeCaffeineTtlSeconds))
+                .maximumSize(negativeCaffeineMaxSize)
+                .build();
+        manager.registerCustomCache("l1-auth-tokens-negative", negativeCache);
+        CaffeineCacheMetrics.monitor(meterRegistry, negativeCache, "l1-auth-tokens-negative");
         return manager;
     }
 
@@ -100,21 +198,70 @@ public class CacheConfig {
      * Provides shared cache across multiple gateway instances.
      */
     @Bean
-    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisCacheManager redisCacheManager(
+            RedisConnectionFactory connectionFactory,
+            TokenExpiryPolicy tokenExpiryPolicy) {
+        boolean binary = !"json".equalsIgnoreCase(redisSerialization);
+        RedisSerializer<String> keySerializer = binary
+                ? new TokenHashKeyRedisSerializer()
+                : new StringRedisSerializer();
+        RedisSerializer<ValidateResponse> valueSerializer = binary
+                ? new ValidateResponseRedisSerializer(redisBinaryVersion)
+                : new JacksonJsonRedisSerializer<>(ValidateResponse.class);
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofSeconds(redisTtlSeconds))
+                .entryTtl(tokenExpiryPolicy.redisTtl(Duration.ofSeconds(redisTtlSeconds)))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new StringRedisSerializer()))
+                        .fromSerializer(keySerializer))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new JacksonJsonRedisSerializer<>(ValidateResponse.class)));
+                        .fromSerializer(valueSerializer));
 
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
                 .enableStatistics()  // Enables Micrometer metrics
                 .initialCacheNames(java.util.Set.of("l2-auth-tokens"))
+                .withCacheConfiguration("l2-auth-tokens-negative",
+                        config.entryTtl(Duration.ofSeconds(negativeRedisTtlSeconds)))
                 .build();
     }
 
+    /**
+     * Listener container for the Redis invalidation channel. Started by {@link RedisCacheInvalidationBus}
+     * in the background rather than on context refresh, so the gateway still starts when Redis is down.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "gateway.cache.invalidation.bus", havingValue = "redis", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setAutoStartup(false);
+        return container;
+    }
+
+    /**
+     * Cross-instance L1 invalidation over Redis pub/sub.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "gateway.cache.invalidation.bus", havingValue = "redis", matchIfMissing = true)
+    public CacheInvalidationBus redisCacheInvalidationBus(
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer cacheInvalidationListenerContainer,
+            java.util.concurrent.ExecutorService virtualThreadExecutor) {
+        return new RedisCacheInvalidationBus(
+                stringRedisTemplate,
+                cacheInvalidationListenerContainer,
+                invalidationChannel,
+                virtualThreadExecutor);
+    }
+
+    /**
+     * In-process invalidation bus for single-instance runs and tests.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "gateway.cache.invalidation.bus", havingValue = "in-process")
+    public CacheInvalidationBus inProcessCacheInvalidationBus() {
+        return new InProcessCacheInvalidationBus();
+    }
+
     /**
      * Circuit breaker for Redis cache operations.
      * Protects against Redis failures and enables graceful degradation to L1-only mode.
@@ -139,9 +286,10 @@ public class CacheConfig {
      * Used by DefaultTokenCacheManagerManualImpl for legacy manual caching.
      */
     @Bean
-    public Cache<String, ValidateResponse> tokenCache() {
+    public Cache<String, ValidateResponse> tokenCache(TokenExpiryPolicy tokenExpiryPolicy) {
         return Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofSeconds(caffeineTtlSeconds))
+                .expireAfter(tokenExpiryPolicy.<String, ValidateResponse>caffeineExpiry(
+                        Duration.ofSeconds(caffeineTtlSeconds)))
                 .maximumSize(caffeineMaxSize)
                 .recordStats()
                 .build();
@@ -15,4 +15,13 @@ public class ExecutorsConfig {
         return Executors.newVirtualThreadPerTaskExecutor();
     }
 
+    /**
+     * Executor of the Auth service HttpClient (response handling, body publishing). Separate from
+     * {@link #virtualThreadExecutor()} so its threads are identifiable in dumps.
+     */
+    @Bean
+    public ExecutorService authHttpExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("auth-http-", 0).factory());
+    }
+
 }
@@ -1,5 +1,6 @@
 package com.onlineshop.gateway.config;
 
+import com.onlineshop.gateway.service.LogoutCacheEviction;
 import tools.jackson.databind.ObjectMapper;
 import tools.jackson.databind.json.JsonMapper;
 import org.springframework.beans.factory.annotation.Value;
@@ -33,12 +34,18 @@ public class GatewayConfig {
         return JsonMapper.builder().build();
     }
 
+    /**
+     * Public Auth endpoints only. Batch validation and revocations are for the gateway itself, which calls
+     * Auth directly with the service token; requests for them here get 404 like any unrouted path.
+     */
     @Bean
-    public RouterFunction<ServerResponse> authRoute() {
+    public RouterFunction<ServerResponse> authRoute(LogoutCacheEviction logoutCacheEviction) {
         return route("auth-service")
-                .route(path("/auth/**"), http())
+                .route(path("/auth/register", "/auth/login", "/auth/validate", "/auth/logout"), http())
                 .before(uri(authServiceUrl))
                 .before(rewritePath("/auth(?<segment>/?.*)", "/api/v1/auth${segment}"))
+                // A successful logout evicts the token from every instance's caches
+                .after(logoutCacheEviction::afterLogout)
                 .build();
     }
 
@@ -2,16 +2,20 @@ package com.onlineshop.gateway.config;
 
 import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.client.RestClient;
 
-import io.github.resilience4j.bulkhead.Bulkhead;
-import io.github.resilience4j.bulkhead.BulkheadConfig;
-import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import com.onlineshop.gateway.exception.ConcurrencyLimitExceededException;
+import com.onlineshop.gateway.service.AdaptiveConcurrencyLimiter;
+
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
@@ -21,14 +25,42 @@ import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.timelimiter.TimeLimiter;
 import io.github.resilience4j.timelimiter.TimeLimiterConfig;
 import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 @Configuration
 @Slf4j
 public class ResilienceConfig {
 
+    public static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+
+    /**
+     * HTTP/2 client for the Auth service. A bean of its own so that clients needing a different request
+     * deadline (SyncAuthServiceClient) share its connections instead of opening their own.
+     */
+    @Bean
+    public HttpClient authHttpClient(ExecutorService authHttpExecutor) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(authHttpExecutor)
+                .build();
+    }
+
     /**
-     * Configures RestClient with JDK's native HttpClient.
+     * Configures the RestClient for Auth service calls with JDK's native HttpClient.
+     *
+     * Connection profile:
+     * - HTTP/2: cleartext (h2c) to Auth, which enables it with server.http2.enabled. Concurrent calls
+     *   are multiplexed as streams over one connection instead of each holding a pooled HTTP/1.1
+     *   connection. The JDK client falls back to HTTP/1.1 if the server does not upgrade.
+     * - Dedicated executor (authHttpExecutor) for the client's async work.
+     * - Base URL set once; callers pass precomputed URIs instead of concatenating per request.
+     * - Every request carries the service token shared with Auth (gateway.auth.service-token), which Auth
+     *   requires on the endpoints meant for the gateway only (batch validation, revocations).
+     * - Connections are opened before traffic arrives by AuthClientWarmUp.
      *
      * Timeouts:
      * - Connection timeout: 5 seconds (time to establish connection)
@@ -36,21 +68,41 @@ public class ResilienceConfig {
      *
      * Note: Resilience4j TimeLimiter (3s) typically triggers before these timeouts,
      * providing the primary timeout control. These HTTP-level timeouts serve as a safety net.
+     *
+     * Metrics: http.client.requests (per URI, status, outcome) through the observation registry, and
+     * gateway.auth.client.streams.active - requests in flight to Auth, i.e. open HTTP/2 streams.
      */
     @Bean
-    public RestClient restClient() {
-        // Use Java's native HttpClient (Java 11+) with connection timeout
-        HttpClient httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(5))
-                .build();
-
+    public RestClient restClient(
+            @Value("${gateway.auth.service-url}") String authServiceUrl,
+            @Value("${gateway.auth.service-token}") String serviceToken,
+            HttpClient authHttpClient,
+            ExecutorService authHttpExecutor,
+            ObservationRegistry observationRegistry,
+            MeterRegistry meterRegistry) {
         // Create request factory with read timeout
-        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(authHttpClient, authHttpExecutor);
         requestFactory.setReadTimeout(Duration.ofSeconds(5));
 
-        // Build RestClient with configured factory
+        AtomicInteger activeStreams = new AtomicInteger();
+        Gauge.builder("gateway.auth.client.streams.active", activeStreams, AtomicInteger::get)
+                .description("Requests in flight to the Auth service (HTTP/2 streams)")
+                .register(meterRegistry);
+        ClientHttpRequestInterceptor streamTracking = (request, body, execution) -> {
+            activeStreams.incrementAndGet();
+            try {
+                return execution.execute(request, body);
+            } finally {
+                activeStreams.decrementAndGet();
+            }
+        };
+
         return RestClient.builder()
+                .baseUrl(authServiceUrl)
+                .defaultHeader(SERVICE_TOKEN_HEADER, serviceToken)
                 .requestFactory(requestFactory)
+                .requestInterceptor(streamTracking)
+                .observationRegistry(observationRegistry)
                 .build();
     }
 
@@ -62,18 +114,22 @@ public class ResilienceConfig {
                 .waitDurationInOpenState(Duration.ofSeconds(30))
                 .permittedNumberOfCallsInHalfOpenState(3)
                 // Ignore parsing errors - they're not service failures, just bad responses
+                // Ignore calls shed by the concurrency limit - they never reached the service
                 // Don't trigger circuit breaker or count towards failure rate
-                .ignoreExceptions(HttpMessageNotReadableException.class)
+                .ignoreExceptions(HttpMessageNotReadableException.class, ConcurrencyLimitExceededException.class)
                 .build();
 
         CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
         CircuitBreaker circuitBreaker = registry.circuitBreaker("authService");
 
-        // Log parsing errors at warn level for monitoring
+        // Log parsing errors at warn level for monitoring; sheds are logged by the client that sheds them
         circuitBreaker.getEventPublisher()
-                .onIgnoredError(event -> log.warn(
-                        "Auth service returned unparseable response: {}",
-                        event.getThrowable().getMessage()));
+                .onIgnoredError(event -> {
+                    if (event.getThrowable() instanceof HttpMessageNotReadableException) {
+                        log.warn("Auth service returned unparseable response: {}",
+                                event.getThrowable().getMessage());
+                    }
+                });
 
         return circuitBreaker;
     }
@@ -84,7 +140,8 @@ public class ResilienceConfig {
                 .maxAttempts(3)
                 .waitDuration(Duration.ofMillis(500))
                 // Don't retry on parsing errors - they won't succeed on retry
-                .ignoreExceptions(HttpMessageNotReadableException.class)
+                // Don't retry shed calls - retrying only adds load to an overloaded service
+                .ignoreExceptions(HttpMessageNotReadableException.class, ConcurrencyLimitExceededException.class)
                 .build();
 
         RetryRegistry registry = RetryRegistry.of(config);
@@ -102,43 +159,32 @@ public class ResilienceConfig {
     }
 
     /**
-     * Configures Bulkhead pattern for Auth Service.
+     * Adaptive concurrency limit for Auth service calls, in place of a fixed Bulkhead.
      *
-     * The Bulkhead pattern limits the number of concurrent calls to prevent
-     * resource exhaustion and cascading failures. This implementation uses
-     * a semaphore-based approach which is optimal for virtual threads.
+     * A fixed limit is either too high for Auth (CPU-bound at 30-50 concurrent users in the perf runs)
+     * or too low once Auth is scaled out. The limit follows the latency Auth shows instead: it grows while
+     * latency stays near its baseline and shrinks as calls start to queue or time out. Calls over the limit
+     * fail at once with 503 instead of waiting for a permit.
      *
-     * Configuration Details:
-     * - maxConcurrentCalls: 10 - Maximum concurrent calls allowed (prevents overwhelming target service)
-     * - maxWaitDuration: 5 seconds - Maximum time to wait for a permit (prevents indefinite blocking)
-     * - writableStackTraceEnabled: true - Captures stack traces for better debugging
-     *
-     * For Auth Service, we use a conservative limit (10 concurrent) because:
-     * 1. Each auth validation call performs expensive token verification
-     * 2. Auth service is a critical dependency (circuit breaker helps here too)
-     * 3. Virtual threads handle waiting gracefully without thread pool overhead
+     * Metrics: gateway.auth.client.concurrency.limit and gateway.auth.client.concurrency.inflight.
      */
     @Bean
-    public Bulkhead authServiceBulkhead() {
-        BulkheadConfig config = BulkheadConfig.custom()
-                // Maximum number of concurrent calls allowed
-                // This prevents overwhelming the auth service with too many simultaneous requests
-                // With virtual threads, we can safely allow more concurrent calls compared to platform threads
-                .maxConcurrentCalls(200)
-
-                // Maximum duration to wait for a permit to execute
-                // If a permit isn't available within this time, BulkheadFullException is thrown
-                // Set to 5 seconds to align with our HTTP timeouts and allow graceful backpressure
-                .maxWaitDuration(Duration.ofSeconds(5))
-
-                // Enable detailed stack traces in exceptions
-                // Useful for debugging when bulkhead is exhausted (BulkheadFullException)
-                // Helps identify which part of the code triggered the bulkhead rejection
-                .writableStackTraceEnabled(true)
-
-                .build();
-
-        BulkheadRegistry registry = BulkheadRegistry.of(config);
-        return registry.bulkhead("authService");
+    public AdaptiveConcurrencyLimiter authConcurrencyLimiter(
+            @Value("${gateway.auth.client.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${gateway.auth.client.concurrency.min-limit:4}") int minLimit,
+            @Value("${gateway.auth.client.concurrency.max-limit:200}") int maxLimit,
+            @Value("${gateway.auth.client.concurrency.rtt-tolerance:2.0}") double rttTolerance,
+            @Value("${gateway.auth.client.concurrency.smoothing:0.2}") double smoothing,
+            @Value("${gateway.auth.client.concurrency.long-window:600}") int longWindow,
+            MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                "authService", initialLimit, minLimit, maxLimit, rttTolerance, smoothing, longWindow);
+        Gauge.builder("gateway.auth.client.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for Auth service calls")
+                .register(meterRegistry);
+        Gauge.builder("gateway.auth.client.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Auth service calls holding a concurrency permit")
+                .register(meterRegistry);
+        return limiter;
     }
 }
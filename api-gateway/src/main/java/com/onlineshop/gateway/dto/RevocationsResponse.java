@@ -0,0 +1,13 @@
+package com.onlineshop.gateway.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Sessions revoked in Auth since the polled instant; {@code asOf} is where the next poll continues.
+ */
+public record RevocationsResponse(List<RevokedToken> revoked, Instant asOf) {
+
+    public record RevokedToken(String tokenHash, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.onlineshop.gateway.dto;
+
+import java.util.List;
+
+public record ValidateBatchRequest(List<String> tokens) {
+}
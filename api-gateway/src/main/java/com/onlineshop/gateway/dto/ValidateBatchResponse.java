@@ -0,0 +1,9 @@
+package com.onlineshop.gateway.dto;
+
+import java.util.List;
+
+/**
+ * Validation results in the order of {@link ValidateBatchRequest#tokens()}.
+ */
+public record ValidateBatchResponse(List<ValidateResponse> results) {
+}
@@ -27,4 +27,9 @@ public class ValidateResponse implements Serializable {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "UTC")
     private Instant expiresAt;
 
+    /**
+     * Subscription plan of the user, used to pick a rate limit tier. Optional - absent for the default plan.
+     */
+    private String plan;
+
 }
@@ -0,0 +1,14 @@
+package com.onlineshop.gateway.exception;
+
+/**
+ * Exception thrown when a call to a downstream service is shed by its concurrency limit.
+ *
+ * <p>The call never reached the service, so circuit breakers ignore it; callers handle it like any other
+ * {@link ServiceUnavailableException}.</p>
+ */
+public class ConcurrencyLimitExceededException extends ServiceUnavailableException {
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,127 @@
+package com.onlineshop.gateway.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+
+/**
+ * Request as forwarded downstream after authentication: the original request with the user headers laid over
+ * it.
+ *
+ * <p>The overlay is three fixed fields instead of a map, and nothing is copied up front. Header lookups compare
+ * against the overlay names (case-insensitively, as header names are) before delegating, and
+ * {@link #getHeaderNames()} streams the overlay names followed by the original ones instead of collecting them
+ * into a set. Client-sent headers with an overlay name are hidden, so a client cannot supply its own
+ * {@code X-User-Id}.</p>
+ */
+final class AuthenticatedUserRequest extends HttpServletRequestWrapper {
+
+    static final String USER_ID_HEADER = "X-User-Id";
+    static final String USERNAME_HEADER = "X-Username";
+    static final String AUTH_STALE_HEADER = "X-Auth-Stale";
+
+    private final String userId;
+    private final String username;
+    // Whether the user was authenticated from a stale answer because Auth was unavailable
+    private final boolean stale;
+
+    AuthenticatedUserRequest(HttpServletRequest request, String userId, String username, boolean stale) {
+        super(request);
+        this.userId = userId;
+        this.username = username;
+        this.stale = stale;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        String value = overlay(name);
+        if (value != null) {
+            return value;
+        }
+        return isOverlayName(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        String value = overlay(name);
+        if (value != null) {
+            return Collections.enumeration(Collections.singletonList(value));
+        }
+        return isOverlayName(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return new HeaderNames(super.getHeaderNames());
+    }
+
+    private String overlay(String name) {
+        if (USER_ID_HEADER.equalsIgnoreCase(name)) {
+            return userId;
+        }
+        if (USERNAME_HEADER.equalsIgnoreCase(name)) {
+            return username;
+        }
+        if (stale && AUTH_STALE_HEADER.equalsIgnoreCase(name)) {
+            return "true";
+        }
+        return null;
+    }
+
+    private static boolean isOverlayName(String name) {
+        return USER_ID_HEADER.equalsIgnoreCase(name)
+                || USERNAME_HEADER.equalsIgnoreCase(name)
+                || AUTH_STALE_HEADER.equalsIgnoreCase(name);
+    }
+
+    /**
+     * Overlay names first, then the original names minus those the overlay hides.
+     */
+    private final class HeaderNames implements Enumeration<String> {
+
+        private final Enumeration<String> original;
+        private int overlayIndex;
+        private String next;
+
+        HeaderNames(Enumeration<String> original) {
+            this.original = original;
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            if (next != null) {
+                return true;
+            }
+            int overlaySize = stale ? 3 : 2;
+            if (overlayIndex < overlaySize) {
+                next = switch (overlayIndex++) {
+                    case 0 -> USER_ID_HEADER;
+                    case 1 -> USERNAME_HEADER;
+                    default -> AUTH_STALE_HEADER;
+                };
+                return true;
+            }
+            while (original.hasMoreElements()) {
+                String name = original.nextElement();
+                if (!isOverlayName(name)) {
+                    next = name;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String nextElement() {
+            if (!hasMoreElements()) {
+                throw new NoSuchElementException();
+            }
+            String name = next;
+            next = null;
+            return name;
+        }
+    }
+}
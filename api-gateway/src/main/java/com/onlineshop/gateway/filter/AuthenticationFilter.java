@@ -6,14 +6,17 @@ import com.onlineshop.gateway.dto.ValidateResponse;
 import com.onlineshop.gateway.exception.GatewayTimeoutException;
 import com.onlineshop.gateway.exception.InvalidTokenFormatException;
 import com.onlineshop.gateway.exception.ServiceUnavailableException;
-import com.onlineshop.gateway.service.AuthValidationService;
+import com.onlineshop.gateway.metrics.GatewayMetrics;
+import com.onlineshop.gateway.service.LastKnownGoodTokens;
+import com.onlineshop.gateway.service.SignedTokenVerifier;
+import com.onlineshop.gateway.service.TokenValidator;
 import com.onlineshop.gateway.validation.TokenSanitizer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.MediaType;
@@ -21,31 +24,50 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Enumeration;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 
 @Component
 @Slf4j
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class AuthenticationFilter extends OncePerRequestFilter {
 
-    private final AuthValidationService authValidationService;
+    private final TokenValidator tokenValidator;
     private final ObjectMapper objectMapper;
     private final TokenSanitizer tokenSanitizer;
+    private final SignedTokenVerifier signedTokenVerifier;
+    private final LastKnownGoodTokens lastKnownGood;
+    private final GatewayMetrics metrics;
+    private final ErrorResponseTemplate missingCredentials;
+    private final ErrorResponseTemplate invalidToken;
+    private final ErrorResponseTemplate authUnavailable;
+    private final ErrorResponseTemplate authTimeout;
+    private final ErrorResponseTemplate unexpectedError;
 
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
 
     public AuthenticationFilter(
-            AuthValidationService authValidationService,
+            TokenValidator tokenValidator,
             ObjectMapper objectMapper,
-            TokenSanitizer tokenSanitizer) {
-        this.authValidationService = authValidationService;
+            TokenSanitizer tokenSanitizer,
+            ObjectProvider<SignedTokenVerifier> signedTokenVerifier,
+            ObjectProvider<LastKnownGoodTokens> lastKnownGood,
+            GatewayMetrics metrics) {
+        this.tokenValidator = tokenValidator;
         this.objectMapper = objectMapper;
         this.tokenSanitizer = tokenSanitizer;
+        this.signedTokenVerifier = signedTokenVerifier.getIfAvailable();
+        this.lastKnownGood = lastKnownGood.getIfAvailable();
+        this.metrics = metrics;
+        this.missingCredentials = ErrorResponseTemplate.of(objectMapper,
+                ErrorResponse.unauthorized("Missing or invalid Authorization header", null));
+        this.invalidToken = ErrorResponseTemplate.of(objectMapper,
+                ErrorResponse.unauthorized("Invalid or expired token", null));
+        this.authUnavailable = ErrorResponseTemplate.of(objectMapper,
+                ErrorResponse.serviceUnavailable("Authentication service is temporarily unavailable", null));
+        this.authTimeout = ErrorResponseTemplate.of(objectMapper,
+                ErrorResponse.gatewayTimeout("Authentication service request timed out", null));
+        this.unexpectedError = ErrorResponseTemplate.of(objectMapper,
+                ErrorResponse.badGateway("An unexpected error occurred during authentication", null));
     }
 
     @Override
@@ -75,32 +97,47 @@ public class AuthenticationFilter extends OncePerRequestFilter {
         String authHeader = request.getHeader(AUTHORIZATION_HEADER);
 
         if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
-            sendUnauthorizedResponse(response, "Missing or invalid Authorization header", path);
+            missingCredentials.write(response, path);
             return;
         }
 
         String token = authHeader.substring(BEARER_PREFIX.length());
 
         try {
-            ValidateResponse validateResponse = authValidationService.validateToken(token);
+            ValidateResponse validateResponse;
+            boolean stale = false;
+            try {
+                validateResponse = validate(token);
+            } catch (ServiceUnavailableException | GatewayTimeoutException e) {
+                // Auth is unavailable - fall back to this token's last successful validation, if still in date
+                validateResponse = lastKnownGood != null ? lastKnownGood.get(token) : null;
+                if (validateResponse == null) {
+                    throw e;
+                }
+                stale = true;
+                metrics.recordStaleAuthentication(e instanceof GatewayTimeoutException ? "timeout" : "unavailable");
+                log.warn("Auth service unavailable, using last known validation: {}", e.getMessage());
+                response.setHeader(AuthenticatedUserRequest.AUTH_STALE_HEADER, "true");
+            }
 
             if (!validateResponse.isValid()) {
-                sendUnauthorizedResponse(response, "Invalid or expired token", path);
+                invalidToken.write(response, path);
                 return;
             }
 
             // Sanitize username before adding to headers
             String sanitizedUsername = tokenSanitizer.sanitizeUsername(validateResponse.getUsername());
+            String userId = validateResponse.getUserId().toString();
 
             // Add user info headers for downstream services
-            HttpServletRequest wrappedRequest = new HeaderMapRequestWrapper(request, Map.of(
-                    "X-User-Id", validateResponse.getUserId().toString(),
-                    "X-Username", sanitizedUsername
-            ));
-            wrappedRequest.setAttribute(RequestAttributeKeys.USER_ID, validateResponse.getUserId().toString());
+            HttpServletRequest wrappedRequest = new AuthenticatedUserRequest(request, userId, sanitizedUsername, stale);
+            wrappedRequest.setAttribute(RequestAttributeKeys.USER_ID, userId);
+            if (validateResponse.getPlan() != null) {
+                wrappedRequest.setAttribute(RequestAttributeKeys.USER_PLAN, validateResponse.getPlan());
+            }
 
             log.debug("Authenticated request for user: {} (ID: {})",
-                    sanitizedUsername, validateResponse.getUserId());
+                    sanitizedUsername, userId);
 
             filterChain.doFilter(wrappedRequest, response);
 
@@ -109,95 +146,36 @@ public class AuthenticationFilter extends OncePerRequestFilter {
             sendBadRequestResponse(response, e.getMessage(), path);
         } catch (ServiceUnavailableException e) {
             log.error("Auth service unavailable: {}", e.getMessage());
-            sendServiceUnavailableResponse(response, "Authentication service is temporarily unavailable", path);
+            authUnavailable.write(response, path);
         } catch (GatewayTimeoutException e) {
             log.error("Auth service timeout: {}", e.getMessage());
-            sendGatewayTimeoutResponse(response, "Authentication service request timed out", path);
+            authTimeout.write(response, path);
         } catch (Exception e) {
             log.error("Unexpected error during authentication: {}", e.getMessage(), e);
-            sendBadGatewayResponse(response, "An unexpected error occurred during authentication", path);
+            unexpectedError.write(response, path);
         }
     }
 
-    private void sendBadRequestResponse(HttpServletResponse response, String detail, String path)
-            throws IOException {
-        ErrorResponse errorResponse = ErrorResponse.badRequest(detail, path);
-
-        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
-    }
-
-    private void sendUnauthorizedResponse(HttpServletResponse response, String detail, String path)
-            throws IOException {
-        ErrorResponse errorResponse = ErrorResponse.unauthorized(detail, path);
-
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
-    }
-
-    private void sendServiceUnavailableResponse(HttpServletResponse response, String detail, String path)
-            throws IOException {
-        ErrorResponse errorResponse = ErrorResponse.serviceUnavailable(detail, path);
-
-        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
-    }
-
-    private void sendGatewayTimeoutResponse(HttpServletResponse response, String detail, String path)
-            throws IOException {
-        ErrorResponse errorResponse = ErrorResponse.gatewayTimeout(detail, path);
-
-        response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    private ValidateResponse validate(String token) {
+        if (signedTokenVerifier != null) {
+            // Signed tokens are verified in-process; opaque ones (or a stale revocation set) go to Auth
+            tokenSanitizer.validate(token);
+            ValidateResponse local = signedTokenVerifier.verify(token);
+            if (local != null) {
+                return local;
+            }
+        }
+        return tokenValidator.validateToken(token);
     }
 
-    private void sendBadGatewayResponse(HttpServletResponse response, String detail, String path)
+    private void sendBadRequestResponse(HttpServletResponse response, String detail, String path)
             throws IOException {
-        ErrorResponse errorResponse = ErrorResponse.badGateway(detail, path);
+        // The detail is the validation message, so this one is still serialized per request
+        byte[] body = objectMapper.writeValueAsBytes(ErrorResponse.badRequest(detail, path));
 
-        response.setStatus(HttpServletResponse.SC_BAD_GATEWAY);
+        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
-    }
-
-    /**
-     * Wrapper to add custom headers to the request for downstream services.
-     */
-    private static class HeaderMapRequestWrapper extends HttpServletRequestWrapper {
-        private final Map<String, String> additionalHeaders;
-
-        public HeaderMapRequestWrapper(HttpServletRequest request, Map<String, String> additionalHeaders) {
-            super(request);
-            this.additionalHeaders = additionalHeaders;
-        }
-
-        @Override
-        public String getHeader(String name) {
-            String header = additionalHeaders.get(name);
-            return header != null ? header : super.getHeader(name);
-        }
-
-        @Override
-        public Enumeration<String> getHeaderNames() {
-            Set<String> headerNames = new HashSet<>(additionalHeaders.keySet());
-            Enumeration<String> originalNames = super.getHeaderNames();
-            while (originalNames.hasMoreElements()) {
-                headerNames.add(originalNames.nextElement());
-            }
-            return Collections.enumeration(headerNames);
-        }
-
-        @Override
-        public Enumeration<String> getHeaders(String name) {
-            String additionalHeader = additionalHeaders.get(name);
-            if (additionalHeader != null) {
-                return Collections.enumeration(Collections.singletonList(additionalHeader));
-            }
-            return super.getHeaders(name);
-        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
     }
 }
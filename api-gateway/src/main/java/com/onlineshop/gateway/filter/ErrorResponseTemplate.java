@@ -0,0 +1,145 @@
+package com.onlineshop.gateway.filter;
+
+import com.onlineshop.gateway.dto.ErrorResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Pre-encoded body of an {@link ErrorResponse} whose only per-request part is the {@code instance} path, for
+ * filters that reject traffic in bulk (401, 429, 503, ...).
+ *
+ * <p>The response is serialized once with the application's {@link ObjectMapper}, so the JSON is byte for byte
+ * what Jackson writes. Each rejection copies those bytes, appends the JSON-escaped path and writes the result to
+ * the output stream with a fixed {@code Content-Length}: one array allocation and no serializer or writer on
+ * the rejection path.</p>
+ */
+public final class ErrorResponseTemplate {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final int status;
+    // Body up to and including the opening quote of the instance value
+    private final byte[] prefix;
+    // Complete body for a null instance, which Jackson leaves out
+    private final byte[] withoutInstance;
+
+    private ErrorResponseTemplate(int status, byte[] withoutInstance) {
+        if (withoutInstance.length == 0 || withoutInstance[withoutInstance.length - 1] != '}') {
+            throw new IllegalArgumentException("Error response does not serialize to a JSON object");
+        }
+        byte[] instanceField = ",\"instance\":\"".getBytes(StandardCharsets.US_ASCII);
+        this.status = status;
+        this.withoutInstance = withoutInstance;
+        this.prefix = Arrays.copyOf(withoutInstance, withoutInstance.length - 1 + instanceField.length);
+        System.arraycopy(instanceField, 0, prefix, withoutInstance.length - 1, instanceField.length);
+    }
+
+    /**
+     * Serializes {@code errorResponse}, whose {@code instance} must be null, as the template.
+     */
+    public static ErrorResponseTemplate of(ObjectMapper objectMapper, ErrorResponse errorResponse) {
+        if (errorResponse.getInstance() != null) {
+            throw new IllegalArgumentException("Template error response must not have an instance");
+        }
+        return new ErrorResponseTemplate(errorResponse.getStatus(), objectMapper.writeValueAsBytes(errorResponse));
+    }
+
+    public int status() {
+        return status;
+    }
+
+    /**
+     * Writes the status, content type, content length and body with {@code instance} spliced in.
+     */
+    public void write(HttpServletResponse response, String instance) throws IOException {
+        byte[] body = render(instance);
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Returns the UTF-8 body for {@code instance}. The array may be shared and must not be modified.
+     */
+    byte[] render(String instance) {
+        if (instance == null) {
+            return withoutInstance;
+        }
+        int escapedLength = asciiEscapedLength(instance);
+        if (escapedLength < 0) {
+            // Non-ASCII path (rare, paths are normally percent-encoded) - escape to a string and encode it
+            return concat(escapeToString(instance).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] body = new byte[prefix.length + escapedLength + 2];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        int position = prefix.length;
+        for (int i = 0; i < instance.length(); i++) {
+            position = writeAscii(instance.charAt(i), body, position);
+        }
+        body[position++] = '"';
+        body[position] = '}';
+        return body;
+    }
+
+    private byte[] concat(byte[] escapedInstance) {
+        byte[] body = new byte[prefix.length + escapedInstance.length + 2];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        System.arraycopy(escapedInstance, 0, body, prefix.length, escapedInstance.length);
+        body[body.length - 2] = '"';
+        body[body.length - 1] = '}';
+        return body;
+    }
+
+    /**
+     * Length of the escaped value in bytes, or -1 if it contains a non-ASCII character.
+     */
+    private static int asciiEscapedLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                return -1;
+            }
+            length += c < 0x20 ? 6 : (c == '"' || c == '\\') ? 2 : 1;
+        }
+        return length;
+    }
+
+    private static int writeAscii(char c, byte[] target, int position) {
+        if (c == '"' || c == '\\') {
+            target[position++] = '\\';
+            target[position++] = (byte) c;
+        } else if (c < 0x20) {
+            target[position++] = '\\';
+            target[position++] = 'u';
+            target[position++] = '0';
+            target[position++] = '0';
+            target[position++] = HEX[c >> 4];
+            target[position++] = HEX[c & 0xF];
+        } else {
+            target[position++] = (byte) c;
+        }
+        return position;
+    }
+
+    private static String escapeToString(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append("\\u00").append((char) HEX[c >> 4]).append((char) HEX[c & 0xF]);
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -2,6 +2,7 @@ package com.onlineshop.gateway.filter;
 
 public final class RequestAttributeKeys {
     public static final String USER_ID = "userId";
+    public static final String USER_PLAN = "userPlan";
 
     private RequestAttributeKeys() {
     }
@@ -72,6 +72,49 @@ public class GatewayMetrics {
         recordCacheOperation(layer, service, RESULT_MISS);
     }
 
+    /**
+     * Record a rate limit decision.
+     *
+     * @param source "local" (taken from this instance's token allotment), "remote" (needed Redis)
+     *               or "fallback" (Redis timed out, failed, or its circuit was open)
+     * @param allowed whether the request was admitted
+     */
+    public void recordRateLimitDecision(String source, boolean allowed) {
+        Counter.builder("gateway.ratelimit.decisions.total")
+                .tag("source", source)
+                .tag("result", allowed ? "allowed" : "rejected")
+                .description("Rate limit decisions by where they were made")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record a hedged Auth call event.
+     *
+     * @param result "sent" (a second attempt went out), "won" (it answered first)
+     *               or "budget_exhausted" (a hedge was due but the budget was spent)
+     */
+    public void recordAuthHedge(String result) {
+        Counter.builder("gateway.auth.client.hedges.total")
+                .tag("result", result)
+                .description("Hedged Auth service calls")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record a request authenticated from the last known good validation because Auth was unavailable.
+     *
+     * @param reason "unavailable" (circuit open, overloaded, failing) or "timeout"
+     */
+    public void recordStaleAuthentication(String reason) {
+        Counter.builder("gateway.auth.stale.total")
+                .tag("reason", reason)
+                .description("Requests authenticated from a stale validation while Auth was unavailable")
+                .register(meterRegistry)
+                .increment();
+    }
+
     public void incrementRateLimitRejections() {
         rateLimitRejections.increment();
     }
@@ -0,0 +1,243 @@
+package com.onlineshop.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.onlineshop.gateway.metrics.GatewayMetrics;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.proxy.AsyncProxyManager;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limiter that admits most requests from a token allotment held locally per client key, and only
+ * goes to the shared Redis bucket to borrow the next batch.
+ *
+ * <p>A borrow is one async CAS ({@code tryConsumeAsMuchAsPossible(batch)}) on the Bucket4j proxy, so
+ * Redis sees one round-trip per batch instead of one per request. Concurrent requests that find the
+ * allotment empty wait for the same borrow rather than each issuing their own.</p>
+ *
+ * <p>A batch is {@code batchSize}, but never more than the tier's capacity divided by
+ * {@code instances * 4}. Tokens parked in one instance's allotment cannot be spent through another, so a
+ * client well within its limit could otherwise be rejected on one instance while the others sit on its
+ * tokens. With the cap, all instances together park at most a quarter of the bucket.</p>
+ *
+ * <p>Borrowed tokens are already taken from the global bucket, so instances never hand out more tokens
+ * than Redis granted. An allotment is usable for {@code maxHold}; the tokens it still holds then are
+ * added back to the Redis bucket (up to its capacity). Tokens borrowed just before a refill and spent
+ * just after it can still admit a client up to one batch per instance above its limit in that period.</p>
+ *
+ * <p>Once a borrow comes back short, the Redis bucket is known to be empty, and the client is rejected
+ * locally until the allotment expires. This keeps a throttled client from turning every rejected request
+ * into a Redis call, at the cost of rejecting it for up to {@code maxHold} after its bucket refills.</p>
+ */
+@Slf4j
+public class HybridRateLimiter {
+
+    static final String SOURCE_LOCAL = "local";
+    static final String SOURCE_REMOTE = "remote";
+
+    private static final int MAX_BORROW_ATTEMPTS = 2;
+
+    // Share of a bucket all instances together may hold in allotments: 1 / BATCH_CAPACITY_DIVISOR
+    private static final long BATCH_CAPACITY_DIVISOR = 4;
+
+    private final AsyncProxyManager<String> proxyManager;
+    private final GatewayMetrics metrics;
+    private final long batchSize;
+    private final long instances;
+    private final long maxHoldNanos;
+    private final Cache<String, Allotment> allotments;
+    private final ConcurrentMap<String, CompletableFuture<Allotment>> inFlightBorrows = new ConcurrentHashMap<>();
+
+    public HybridRateLimiter(
+            AsyncProxyManager<String> proxyManager,
+            GatewayMetrics metrics,
+            int batchSize,
+            int instances,
+            Duration maxHold,
+            long maxClients) {
+        this.proxyManager = proxyManager;
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        this.instances = Math.max(1, instances);
+        this.maxHoldNanos = maxHold.toNanos();
+        this.allotments = Caffeine.newBuilder()
+                .expireAfterWrite(maxHold)
+                .maximumSize(maxClients)
+                // Expire on time rather than on the next access, so unused tokens go back promptly
+                .scheduler(Scheduler.systemScheduler())
+                .<String, Allotment>removalListener((clientKey, allotment, cause) -> giveBack(clientKey, allotment))
+                .build();
+    }
+
+    /**
+     * Tries to decide from the local allotment alone.
+     *
+     * @param clientKey key of the shared Redis bucket (e.g. "authenticated:user:42", "anonymous:ip:10.0.0.1")
+     * @return true or false if the allotment decided, null if tokens must be borrowed from Redis
+     */
+    public Boolean tryConsumeLocally(String clientKey) {
+        Allotment allotment = allotments.getIfPresent(clientKey);
+        if (allotment == null || allotment.isExpired()) {
+            return null;
+        }
+        if (allotment.tryTake()) {
+            metrics.recordRateLimitDecision(SOURCE_LOCAL, true);
+            return true;
+        }
+        if (allotment.drainedRemote()) {
+            // Redis had nothing more to give at the last borrow - don't ask again until the allotment expires
+            metrics.recordRateLimitDecision(SOURCE_LOCAL, false);
+            return false;
+        }
+        return null;
+    }
+
+    /**
+     * Borrows the next batch from Redis and takes one token from it. The caller decides how long to wait
+     * and records the decision.
+     *
+     * @param clientKey key of the shared Redis bucket
+     * @param tier      tier whose configuration backs the bucket
+     * @return completes with true if the request is admitted
+     */
+    public CompletableFuture<Boolean> tryConsumeRemotely(String clientKey, RateLimitTier tier) {
+        return borrowAndTake(clientKey, tier, 1);
+    }
+
+    private CompletableFuture<Boolean> borrowAndTake(String clientKey, RateLimitTier tier, int attempt) {
+        return borrow(clientKey, tier).thenCompose(borrowed -> {
+            if (borrowed.tryTake()) {
+                return CompletableFuture.completedFuture(true);
+            }
+            if (borrowed.drainedRemote() || attempt >= MAX_BORROW_ATTEMPTS) {
+                // Redis bucket is drained - borrowing again cannot help
+                return CompletableFuture.completedFuture(false);
+            }
+            // Other waiters on the same borrow used the whole batch first; borrow once more
+            return borrowAndTake(clientKey, tier, attempt + 1);
+        });
+    }
+
+    private CompletableFuture<Allotment> borrow(String clientKey, RateLimitTier tier) {
+        CompletableFuture<Allotment> flight = new CompletableFuture<>();
+        CompletableFuture<Allotment> inFlight = inFlightBorrows.putIfAbsent(clientKey, flight);
+        if (inFlight != null) {
+            return inFlight;
+        }
+
+        long batch = batchFor(tier);
+        bucket(clientKey, tier)
+                .tryConsumeAsMuchAsPossible(batch)
+                .whenComplete((granted, throwable) -> {
+                    if (throwable != null) {
+                        inFlightBorrows.remove(clientKey, flight);
+                        flight.completeExceptionally(throwable);
+                        return;
+                    }
+                    Allotment allotment = new Allotment(tier, granted, granted < batch,
+                            System.nanoTime() + maxHoldNanos);
+                    // Publish before leaving the in-flight map, so no request slips into a second borrow
+                    allotments.put(clientKey, allotment);
+                    inFlightBorrows.remove(clientKey, flight);
+                    log.debug("Borrowed {} rate limit tokens for client: {}", granted, clientKey);
+                    flight.complete(allotment);
+                });
+        return flight;
+    }
+
+    long batchFor(RateLimitTier tier) {
+        long capacity = Long.MAX_VALUE;
+        for (Bandwidth bandwidth : tier.configuration().getBandwidths()) {
+            capacity = Math.min(capacity, bandwidth.getCapacity());
+        }
+        return Math.max(1, Math.min(batchSize, capacity / (instances * BATCH_CAPACITY_DIVISOR)));
+    }
+
+    private AsyncBucketProxy bucket(String clientKey, RateLimitTier tier) {
+        return proxyManager.builder()
+                .withImplicitConfigurationReplacement(tier.version(), TokensInheritanceStrategy.PROPORTIONALLY)
+                .build(clientKey, () -> CompletableFuture.completedFuture(tier.configuration()));
+    }
+
+    private void giveBack(String clientKey, Allotment allotment) {
+        if (clientKey == null || allotment == null) {
+            return;
+        }
+        long unused = allotment.drain();
+        if (unused <= 0) {
+            return;
+        }
+        bucket(clientKey, allotment.tier()).addTokens(unused).whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                // The tokens are lost for this period; the bucket refills as usual
+                log.debug("Failed to return {} rate limit tokens for client {}: {}", unused, clientKey,
+                        throwable.getMessage());
+            } else {
+                log.debug("Returned {} unused rate limit tokens for client: {}", unused, clientKey);
+            }
+        });
+    }
+
+    /**
+     * Tokens borrowed from Redis in one batch, usable until the deadline.
+     */
+    static final class Allotment {
+
+        private final RateLimitTier tier;
+        private final AtomicLong tokens;
+        private final boolean drainedRemote;
+        private final long deadlineNanos;
+
+        Allotment(RateLimitTier tier, long granted, boolean drainedRemote, long deadlineNanos) {
+            this.tier = tier;
+            this.tokens = new AtomicLong(granted);
+            this.drainedRemote = drainedRemote;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        RateLimitTier tier() {
+            return tier;
+        }
+
+        /**
+         * Takes every token still held, so none can be spent after they are given back.
+         */
+        long drain() {
+            return tokens.getAndSet(0);
+        }
+
+        /**
+         * Whether Redis granted less than a full batch, i.e. the shared bucket was empty after this borrow.
+         */
+        boolean drainedRemote() {
+            return drainedRemote;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - deadlineNanos > 0;
+        }
+
+        boolean tryTake() {
+            if (isExpired()) {
+                return false;
+            }
+            long current;
+            do {
+                current = tokens.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(current, current - 1));
+            return true;
+        }
+    }
+}
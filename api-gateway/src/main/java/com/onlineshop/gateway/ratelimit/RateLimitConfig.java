@@ -1,8 +1,13 @@
 package com.onlineshop.gateway.ratelimit;
 
+import com.onlineshop.gateway.metrics.GatewayMetrics;
+import io.github.bucket4j.distributed.proxy.AsyncProxyManager;
 import io.github.bucket4j.distributed.proxy.ProxyManager;
 import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
 import io.lettuce.core.RedisClient;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.lettuce.core.api.StatefulRedisConnection;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -10,6 +15,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 
+import java.time.Duration;
+
 @Configuration
 @ConditionalOnProperty(name = "gateway.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
 public class RateLimitConfig {
@@ -34,4 +41,46 @@ public class RateLimitConfig {
         return LettuceBasedProxyManager.builderFor(connection)
                 .build();
     }
+
+    /**
+     * Async view of the proxy manager. Lettuce pipelines the CAS commands of concurrent requests over the
+     * shared connection instead of each request blocking on its own round-trip.
+     */
+    @Bean
+    public AsyncProxyManager<String> bucket4jAsyncProxyManager(ProxyManager<String> bucket4jProxyManager) {
+        return bucket4jProxyManager.asAsync();
+    }
+
+    /**
+     * Circuit breaker for rate limit calls to Redis. Timeouts count as failures, so a slow Redis is
+     * skipped entirely while the circuit is open instead of costing every request the full timeout.
+     */
+    @Bean
+    public CircuitBreaker rateLimitCircuitBreaker() {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowSize(20)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofSeconds(10))
+                .permittedNumberOfCallsInHalfOpenState(5)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        return registry.circuitBreaker("rateLimitRedis");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.ratelimit.local.enabled", havingValue = "true", matchIfMissing = true)
+    public HybridRateLimiter hybridRateLimiter(
+            AsyncProxyManager<String> bucket4jAsyncProxyManager,
+            GatewayMetrics metrics,
+            RateLimitConfigProperties rateLimitConfigProperties) {
+        RateLimitConfigProperties.LocalSettings local = rateLimitConfigProperties.local();
+        return new HybridRateLimiter(
+                bucket4jAsyncProxyManager,
+                metrics,
+                local.batchSize(),
+                local.instances(),
+                local.maxHold(),
+                local.maxClients());
+    }
 }
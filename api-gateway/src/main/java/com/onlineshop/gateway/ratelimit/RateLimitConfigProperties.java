@@ -1,12 +1,73 @@
 package com.onlineshop.gateway.ratelimit;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Rate limit tiers and limiter settings.
+ *
+ * <p>Every request gets exactly one tier: a matching route tier first, then the user's plan tier,
+ * then {@code authenticated} or {@code anonymous}.</p>
+ *
+ * @param anonymous     limit for requests without a user
+ * @param authenticated limit for users without a plan tier
+ * @param plans         limits per user plan (ValidateResponse.plan), e.g. {@code premium}
+ * @param routes        limits per route, matched by longest path prefix, e.g. {@code product-info}
+ * @param local         local token allotments (see {@link HybridRateLimiter})
+ * @param remote        how long to wait for Redis and what to do when it is slow or down
+ * @param maxBuckets    resolved Redis bucket handles kept per instance
+ */
 @ConfigurationProperties(prefix = "gateway.ratelimit")
 public record RateLimitConfigProperties(
         LimitSettings anonymous,
-        LimitSettings authenticated
+        LimitSettings authenticated,
+        @DefaultValue Map<String, LimitSettings> plans,
+        @DefaultValue Map<String, RouteLimitSettings> routes,
+        @DefaultValue LocalSettings local,
+        @DefaultValue RemoteSettings remote,
+        @DefaultValue("100000") long maxBuckets
 ) {
+    /**
+     * @param requestsPerMinute steady rate, refilled continuously
+     * @param burst             bucket size, i.e. requests a client can send at once; at least the per-minute rate
+     */
     public record LimitSettings(int requestsPerMinute, int burst) {
     }
+
+    /**
+     * @param path path prefix the limit applies to
+     */
+    public record RouteLimitSettings(String path, int requestsPerMinute, int burst) {
+    }
+
+    /**
+     * Local token allotments in front of the Redis bucket (see {@link HybridRateLimiter}).
+     *
+     * @param enabled    borrow tokens in batches instead of one Redis call per request
+     * @param batchSize  most tokens borrowed from Redis per round-trip
+     * @param instances  gateway instances sharing the Redis buckets; smaller limits get smaller batches
+     * @param maxHold    how long borrowed tokens stay usable before the unused ones go back to Redis
+     * @param maxClients client keys with an allotment held at once
+     */
+    public record LocalSettings(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("10") int batchSize,
+            @DefaultValue("1") int instances,
+            @DefaultValue("5s") Duration maxHold,
+            @DefaultValue("100000") long maxClients) {
+    }
+
+    /**
+     * Bounds on the Redis side of a rate limit decision.
+     *
+     * @param timeout  longest a request waits for the bucket in Redis
+     * @param failOpen admit (true) or reject (false) requests when Redis times out, fails, or its circuit is open
+     */
+    public record RemoteSettings(
+            @DefaultValue("50ms") Duration timeout,
+            @DefaultValue("true") boolean failOpen) {
+    }
 }
@@ -1,49 +1,82 @@
 package com.onlineshop.gateway.ratelimit;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import tools.jackson.databind.ObjectMapper;
 import com.onlineshop.gateway.dto.ErrorResponse;
 import com.onlineshop.gateway.metrics.GatewayMetrics;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.BucketConfiguration;
-import io.github.bucket4j.Refill;
-import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.proxy.AsyncProxyManager;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import com.onlineshop.gateway.filter.ErrorResponseTemplate;
 import com.onlineshop.gateway.filter.RequestAttributeKeys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Duration;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Per-client rate limiting backed by Bucket4j buckets in Redis.
+ *
+ * <p>The Redis CAS runs on the async proxy manager and the request waits for it at most
+ * {@code gateway.ratelimit.remote.timeout}. Timeouts and errors feed a circuit breaker; while it is open,
+ * Redis is not asked at all. In both cases the request is admitted or rejected according to
+ * {@code gateway.ratelimit.remote.fail-open}, so a slow Redis costs at most the timeout and, once the
+ * circuit opens, nothing.</p>
+ */
 @Component
 @Slf4j
 @Order(Ordered.HIGHEST_PRECEDENCE + 1)
 @ConditionalOnProperty(name = "gateway.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private final ObjectMapper objectMapper;
+    static final String SOURCE_FALLBACK = "fallback";
+
+    private final ErrorResponseTemplate rateLimited;
     private final GatewayMetrics metrics;
-    private final ProxyManager<String> proxyManager;
-    private final RateLimitConfigProperties rateLimitConfigProperties;
+    private final AsyncProxyManager<String> proxyManager;
+    private final RateLimitTiers rateLimitTiers;
+    private final HybridRateLimiter hybridRateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final long remoteTimeoutNanos;
+    private final boolean failOpen;
+    // Bucket proxies per bucket key, so the builder and config supplier are not recreated per request
+    private final Cache<String, BucketHandle> buckets;
 
     public RateLimitFilter(
             ObjectMapper objectMapper,
             GatewayMetrics metrics,
-            ProxyManager<String> proxyManager,
-            RateLimitConfigProperties rateLimitConfigProperties) {
-        this.objectMapper = objectMapper;
+            AsyncProxyManager<String> proxyManager,
+            RateLimitConfigProperties rateLimitConfigProperties,
+            RateLimitTiers rateLimitTiers,
+            ObjectProvider<HybridRateLimiter> hybridRateLimiter,
+            CircuitBreaker rateLimitCircuitBreaker) {
+        this.rateLimited = ErrorResponseTemplate.of(objectMapper,
+                ErrorResponse.tooManyRequests("Rate limit exceeded. Please try again later.", null));
         this.metrics = metrics;
         this.proxyManager = proxyManager;
-        this.rateLimitConfigProperties = rateLimitConfigProperties;
+        this.rateLimitTiers = rateLimitTiers;
+        this.hybridRateLimiter = hybridRateLimiter.getIfAvailable();
+        this.circuitBreaker = rateLimitCircuitBreaker;
+        this.remoteTimeoutNanos = rateLimitConfigProperties.remote().timeout().toNanos();
+        this.failOpen = rateLimitConfigProperties.remote().failOpen();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(rateLimitConfigProperties.maxBuckets())
+                .build();
     }
 
     @Override
@@ -63,36 +96,78 @@ public class RateLimitFilter extends OncePerRequestFilter {
         String clientKey = userId != null ? "user:" + userId : "ip:" + getClientIP(request);
 
         boolean isAuthenticated = userId != null;
+        Object planAttr = request.getAttribute(RequestAttributeKeys.USER_PLAN);
+        String plan = planAttr != null ? planAttr.toString() : null;
 
-        BucketConfiguration config = isAuthenticated
-                ? createAuthenticatedConfig()
-                : createAnonymousConfig();
-
-        Bucket bucket = proxyManager.builder().build(clientKey, () -> config);
+        RateLimitTier tier = rateLimitTiers.resolve(path, isAuthenticated, plan);
 
-        if (bucket.tryConsume(1)) {
+        if (tryConsume(tier.bucketKey(clientKey), tier)) {
             filterChain.doFilter(request, response);
         } else {
             metrics.incrementRateLimitRejections();
-            log.warn("Rate limit exceeded for client: {}", clientKey);
-            sendTooManyRequestsResponse(response, "Rate limit exceeded. Please try again later.", path);
+            log.warn("Rate limit exceeded for client: {} (tier: {})", clientKey, tier.name());
+            rateLimited.write(response, path);
         }
     }
 
-    private BucketConfiguration createAnonymousConfig() {
-        Bandwidth limit = Bandwidth.classic(
-                rateLimitConfigProperties.anonymous().requestsPerMinute(),
-                Refill.intervally(rateLimitConfigProperties.anonymous().requestsPerMinute(), Duration.ofMinutes(1))
-        );
-        return BucketConfiguration.builder().addLimit(limit).build();
+    private boolean tryConsume(String bucketKey, RateLimitTier tier) {
+        if (hybridRateLimiter != null) {
+            // Local allotment first; Redis only when the batch borrowed from it runs out
+            Boolean local = hybridRateLimiter.tryConsumeLocally(bucketKey);
+            if (local != null) {
+                return local;
+            }
+        }
+
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return fallback(bucketKey, "circuit open");
+        }
+        long start = System.nanoTime();
+        try {
+            CompletableFuture<Boolean> decision = hybridRateLimiter != null
+                    ? hybridRateLimiter.tryConsumeRemotely(bucketKey, tier)
+                    : bucket(bucketKey, tier).tryConsume(1);
+            boolean allowed = decision.get(remoteTimeoutNanos, TimeUnit.NANOSECONDS);
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            metrics.recordRateLimitDecision(HybridRateLimiter.SOURCE_REMOTE, allowed);
+            return allowed;
+        } catch (TimeoutException e) {
+            // The CAS keeps running and still lands in Redis; only this request stops waiting for it
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            return fallback(bucketKey, "timeout");
+        } catch (ExecutionException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e.getCause());
+            log.warn("Rate limit check failed for client: {}: {}", bucketKey, e.getCause().getMessage());
+            return fallback(bucketKey, "error");
+        } catch (RuntimeException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            log.warn("Rate limit check failed for client: {}: {}", bucketKey, e.getMessage());
+            return fallback(bucketKey, "error");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.releasePermission();
+            return fallback(bucketKey, "interrupted");
+        }
     }
 
-    private BucketConfiguration createAuthenticatedConfig() {
-        Bandwidth limit = Bandwidth.classic(
-                rateLimitConfigProperties.authenticated().requestsPerMinute(),
-                Refill.intervally(rateLimitConfigProperties.authenticated().requestsPerMinute(), Duration.ofMinutes(1))
-        );
-        return BucketConfiguration.builder().addLimit(limit).build();
+    private boolean fallback(String bucketKey, String reason) {
+        log.debug("Rate limit fallback ({}) for client: {} - {}",
+                reason, bucketKey, failOpen ? "admitting" : "rejecting");
+        metrics.recordRateLimitDecision(SOURCE_FALLBACK, failOpen);
+        return failOpen;
+    }
+
+    private AsyncBucketProxy bucket(String bucketKey, RateLimitTier tier) {
+        BucketHandle handle = buckets.getIfPresent(bucketKey);
+        if (handle == null || handle.version() != tier.version()) {
+            // New client, or the tiers were rebuilt - the new version replaces the config stored in Redis
+            AsyncBucketProxy bucket = proxyManager.builder()
+                    .withImplicitConfigurationReplacement(tier.version(), TokensInheritanceStrategy.PROPORTIONALLY)
+                    .build(bucketKey, () -> CompletableFuture.completedFuture(tier.configuration()));
+            handle = new BucketHandle(tier.version(), bucket);
+            buckets.put(bucketKey, handle);
+        }
+        return handle.bucket();
     }
 
     private String getClientIP(HttpServletRequest request) {
@@ -103,12 +178,6 @@ public class RateLimitFilter extends OncePerRequestFilter {
         return request.getRemoteAddr();
     }
 
-    private void sendTooManyRequestsResponse(HttpServletResponse response, String detail, String path)
-            throws IOException {
-        ErrorResponse errorResponse = ErrorResponse.tooManyRequests(detail, path);
-
-        response.setStatus(429);
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    private record BucketHandle(long version, AsyncBucketProxy bucket) {
     }
 }
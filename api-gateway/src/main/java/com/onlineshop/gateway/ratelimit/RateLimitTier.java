@@ -0,0 +1,20 @@
+package com.onlineshop.gateway.ratelimit;
+
+import io.github.bucket4j.BucketConfiguration;
+
+/**
+ * A named rate limit with its prebuilt, immutable bucket configuration.
+ *
+ * @param name          tier name, also the prefix of the Redis bucket key ("authenticated", "plan:premium", ...)
+ * @param configuration bucket configuration shared by all requests of the tier
+ * @param version       configuration version; newer versions replace the config of existing Redis buckets
+ */
+public record RateLimitTier(String name, BucketConfiguration configuration, long version) {
+
+    /**
+     * Redis bucket key of a client within this tier.
+     */
+    public String bucketKey(String clientKey) {
+        return name + ":" + clientKey;
+    }
+}
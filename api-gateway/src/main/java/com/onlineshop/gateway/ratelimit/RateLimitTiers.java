@@ -0,0 +1,128 @@
+package com.onlineshop.gateway.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate limit tiers built once from {@link RateLimitConfigProperties}, so the request path only picks a
+ * prebuilt {@link RateLimitTier} instead of building a {@link BucketConfiguration} per request.
+ *
+ * <p>A tier's bucket holds {@code burst} tokens (at least {@code requests-per-minute}) and refills
+ * greedily at {@code requests-per-minute}, so a client can spend a burst at once and then gets a steady
+ * request rate.</p>
+ *
+ * <p>Tiers are rebuilt when a {@code gateway.ratelimit.*} property changes at runtime (config refresh).
+ * A rebuild bumps the tier version; Redis buckets created with an older version get the new
+ * configuration on their next use, keeping their tokens proportionally.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "gateway.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitTiers {
+
+    static final String PREFIX = "gateway.ratelimit";
+
+    private static final String ANONYMOUS = "anonymous";
+    private static final String AUTHENTICATED = "authenticated";
+    private static final String PLAN_PREFIX = "plan:";
+    private static final String ROUTE_PREFIX = "route:";
+
+    private final Environment environment;
+    private volatile Snapshot snapshot;
+
+    public RateLimitTiers(RateLimitConfigProperties properties, Environment environment) {
+        this.environment = environment;
+        this.snapshot = Snapshot.of(properties, System.currentTimeMillis());
+    }
+
+    /**
+     * Resolves the tier of a request: the longest matching route prefix first, then the user's plan,
+     * then the authenticated or anonymous default.
+     *
+     * @param path          request path
+     * @param authenticated whether the request carries a validated user
+     * @param plan          user plan from the token validation, or null
+     */
+    public RateLimitTier resolve(String path, boolean authenticated, String plan) {
+        Snapshot current = snapshot;
+        for (RouteTier route : current.routes()) {
+            if (path.startsWith(route.pathPrefix())) {
+                return route.tier();
+            }
+        }
+        if (plan != null) {
+            RateLimitTier planTier = current.plans().get(plan);
+            if (planTier != null) {
+                return planTier;
+            }
+        }
+        return authenticated ? current.authenticated() : current.anonymous();
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        boolean affected = event.getKeys().stream().anyMatch(key -> key.startsWith(PREFIX));
+        if (!affected) {
+            return;
+        }
+        Binder.get(environment).bind(PREFIX, RateLimitConfigProperties.class).ifBound(properties -> {
+            // Versions must grow for Redis to replace the stored config, even within the same millisecond
+            long version = Math.max(System.currentTimeMillis(), snapshot.anonymous().version() + 1);
+            snapshot = Snapshot.of(properties, version);
+            log.info("Rebuilt rate limit tiers after configuration change");
+        });
+    }
+
+    private static RateLimitTier tier(String name, int requestsPerMinute, int burst, long version) {
+        Bandwidth limit = Bandwidth.builder()
+                .capacity(Math.max(burst, requestsPerMinute))
+                .refillGreedy(requestsPerMinute, Duration.ofMinutes(1))
+                .build();
+        return new RateLimitTier(name, BucketConfiguration.builder().addLimit(limit).build(), version);
+    }
+
+    private record RouteTier(String pathPrefix, RateLimitTier tier) {
+    }
+
+    private record Snapshot(
+            RateLimitTier anonymous,
+            RateLimitTier authenticated,
+            Map<String, RateLimitTier> plans,
+            List<RouteTier> routes) {
+
+        static Snapshot of(RateLimitConfigProperties properties, long version) {
+            Map<String, RateLimitTier> plans = new HashMap<>();
+            properties.plans().forEach((name, limit) ->
+                    plans.put(name, tier(PLAN_PREFIX + name, limit.requestsPerMinute(), limit.burst(), version)));
+
+            List<RouteTier> routes = properties.routes().entrySet().stream()
+                    .map(route -> new RouteTier(route.getValue().path(),
+                            tier(ROUTE_PREFIX + route.getKey(), route.getValue().requestsPerMinute(),
+                                    route.getValue().burst(), version)))
+                    // Longest prefix wins
+                    .sorted(Comparator.comparingInt((RouteTier route) -> route.pathPrefix().length()).reversed())
+                    .toList();
+
+            return new Snapshot(
+                    tier(ANONYMOUS, properties.anonymous().requestsPerMinute(), properties.anonymous().burst(),
+                            version),
+                    tier(AUTHENTICATED, properties.authenticated().requestsPerMinute(),
+                            properties.authenticated().burst(), version),
+                    Map.copyOf(plans),
+                    routes);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.onlineshop.gateway.service;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Concurrency limit for calls to a downstream service that adapts to the latency it observes.
+ *
+ * <p>Gradient algorithm: a long-window average of the round-trip time stands for the service's unloaded
+ * latency. Each completed call compares it with its own RTT; while they agree (within {@code rttTolerance}),
+ * the limit grows by about its square root per call, and as the sample RTT climbs above the baseline - i.e.
+ * requests queue in the service - the limit shrinks in proportion. A dropped call (timeout, connection
+ * error, 5xx) cuts the limit multiplicatively. Changes are smoothed, and the limit only grows while at least
+ * half of it is in use, so a quiet period does not inflate it.</p>
+ *
+ * <p>A call over the limit is rejected at once rather than queued: waiting for a permit only adds latency to
+ * a service that is already behind.</p>
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final int longWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(
+            String name, int initialLimit, int minLimit, int maxLimit,
+            double rttTolerance, double smoothing, int longWindow) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Takes a permit if fewer than {@link #getLimit()} calls are in flight.
+     *
+     * @return the permit to complete when the call ends, or null if the call must be shed
+     */
+    public Permit tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(current + 1, System.nanoTime());
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * BACKOFF_RATIO;
+        } else {
+            longRttNanos = longRttNanos == 0
+                    ? rttNanos
+                    : longRttNanos + (rttNanos - longRttNanos) / longWindow;
+            if (longRttNanos > 2.0 * rttNanos) {
+                // Latency dropped for good (e.g. Auth scaled out) - let the baseline follow faster
+                longRttNanos *= 0.95;
+            }
+            if (inFlightAtStart * 2 < estimatedLimit) {
+                // Not using the limit, so the sample says nothing about whether it could be higher
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+            double queueSize = Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * gradient + queueSize;
+            newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+
+        int rounded = (int) estimatedLimit;
+        if (rounded != limit) {
+            log.debug("Concurrency limit for {} changed from {} to {}", name, limit, rounded);
+            limit = rounded;
+        }
+    }
+
+    /**
+     * One admitted call. Exactly one of the completion methods must be called.
+     */
+    public final class Permit {
+
+        private final int inFlightAtStart;
+        private final long startNanos;
+
+        private Permit(int inFlightAtStart, long startNanos) {
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Completes the permit according to how the call ended: an answer from the service (including a 4xx)
+         * is a latency sample, an I/O error, timeout or 5xx is a drop, anything else is ignored. A call the
+         * gateway cancelled itself - e.g. the losing attempt of a hedged call - is ignored too, even though
+         * the interrupted exchange surfaces as an I/O error.
+         *
+         * @param failure the call's exception, or null if it succeeded
+         */
+        public void onComplete(Throwable failure) {
+            if (failure instanceof CompletionException && failure.getCause() != null) {
+                failure = failure.getCause();
+            }
+            if (failure == null || failure instanceof HttpClientErrorException) {
+                onSuccess();
+            } else if (isCancellation(failure)) {
+                onIgnore();
+            } else if (failure instanceof ResourceAccessException || failure instanceof HttpServerErrorException) {
+                onDropped();
+            } else {
+                onIgnore();
+            }
+        }
+
+        private boolean isCancellation(Throwable failure) {
+            if (Thread.currentThread().isInterrupted()) {
+                return true;
+            }
+            for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+                if (cause instanceof InterruptedException
+                        || cause instanceof InterruptedIOException && !(cause instanceof SocketTimeoutException)
+                        || cause instanceof ClosedByInterruptException
+                        || cause instanceof CancellationException) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * The service answered; its latency is a sample for the limit.
+         */
+        public void onSuccess() {
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - startNanos, inFlightAtStart, false);
+        }
+
+        /**
+         * The call timed out or failed in a way that points at overload.
+         */
+        public void onDropped() {
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - startNanos, inFlightAtStart, true);
+        }
+
+        /**
+         * The call failed for a reason unrelated to load; releases the permit without a sample.
+         */
+        public void onIgnore() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.onlineshop.gateway.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.onlineshop.gateway.metrics.GatewayMetrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hedged calls to the Auth service: if the first attempt has not answered within the {@code percentile} of
+ * recent Auth latencies, a second attempt goes out, and the first successful answer wins. The other attempt
+ * is cancelled, which interrupts its virtual thread and aborts its HTTP exchange; the concurrency limiter
+ * releases its permit without counting the aborted exchange as a drop.
+ *
+ * <p>A slow Auth replica then costs roughly the hedge delay instead of the full timeout. Hedges are budgeted:
+ * every call earns {@code budget-percent}/100 of a hedge, up to a small burst, and a hedge spends one, so
+ * hedging adds at most that share of extra load - it cannot double the traffic to an Auth that is slow
+ * because it is overloaded. Until enough latencies are recorded, and when the budget is spent, calls are
+ * not hedged.</p>
+ *
+ * <p>Both attempts run on virtual threads, so a hedged call does not stay on the caller's thread even with
+ * {@code gateway.auth.client.mode=sync}. An attempt that fails while the other is still running does not
+ * fail the call.</p>
+ *
+ * <p>Metrics: gateway.auth.client.hedges.total by result - sent, won (the hedge answered first) and
+ * budget_exhausted.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "gateway.auth.client.hedging.enabled", havingValue = "true")
+public class AuthRequestHedger implements DisposableBean {
+
+    static final String RESULT_SENT = "sent";
+    static final String RESULT_WON = "won";
+    static final String RESULT_BUDGET_EXHAUSTED = "budget_exhausted";
+
+    private static final int WINDOW = 1024;
+    private static final int RECOMPUTE_EVERY = 128;
+    // Budget is kept in thousandths of a hedge, so fractional shares need no floating point
+    private static final long MILLI = 1000;
+
+    private final ExecutorService executor;
+    private final GatewayMetrics metrics;
+    private final ScheduledExecutorService hedgeScheduler;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long budgetEarnedPerCall;
+    private final long maxBudget;
+
+    private final AtomicLong budget = new AtomicLong();
+    private final long[] latencies = new long[WINDOW];
+    private final AtomicLong samples = new AtomicLong();
+    private volatile long hedgeDelayNanos = -1;
+
+    public AuthRequestHedger(
+            ExecutorService virtualThreadExecutor,
+            GatewayMetrics metrics,
+            @Value("${gateway.auth.client.hedging.percentile:0.95}") double percentile,
+            @Value("${gateway.auth.client.hedging.min-delay:5ms}") Duration minDelay,
+            @Value("${gateway.auth.client.hedging.budget-percent:5}") double budgetPercent,
+            @Value("${gateway.auth.client.hedging.max-burst:10}") int maxBurst) {
+        this.executor = virtualThreadExecutor;
+        this.metrics = metrics;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.budgetEarnedPerCall = Math.round(budgetPercent * MILLI / 100);
+        this.maxBudget = maxBurst * MILLI;
+        this.hedgeScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("auth-hedge-timer").daemon().factory());
+    }
+
+    /**
+     * Runs {@code call} on a virtual thread, hedged once if it is slow.
+     *
+     * @param call blocking Auth call; must be safe to run twice
+     * @return completes with the first successful answer, or with the last failure if no attempt succeeded
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        earnBudget();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Attempts<T> attempts = new Attempts<>(result);
+        attempts.first = start(call, attempts, false);
+
+        long delay = hedgeDelayNanos;
+        if (delay >= 0) {
+            ScheduledFuture<?> timer = hedgeScheduler.schedule(
+                    () -> hedge(call, attempts), delay, TimeUnit.NANOSECONDS);
+            result.whenComplete((value, throwable) -> timer.cancel(false));
+        }
+        // Also covers cancellation by the caller (e.g. a TimeLimiter timeout)
+        result.whenComplete((value, throwable) -> attempts.cancelAll());
+        return result;
+    }
+
+    /**
+     * {@link #submit(Supplier)} for callers that block anyway; rethrows the failure unwrapped.
+     */
+    public <T> T call(Supplier<T> call) {
+        try {
+            return submit(call).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private <T> void hedge(Supplier<T> call, Attempts<T> attempts) {
+        if (attempts.result.isDone()) {
+            return;
+        }
+        if (!spendBudget()) {
+            metrics.recordAuthHedge(RESULT_BUDGET_EXHAUSTED);
+            return;
+        }
+        metrics.recordAuthHedge(RESULT_SENT);
+        log.debug("Auth call slower than {} us, sending hedge", hedgeDelayNanos / 1000);
+        attempts.second = start(call, attempts, true);
+        if (attempts.result.isDone()) {
+            // Lost the race with the first attempt while starting
+            attempts.second.cancel(true);
+        }
+    }
+
+    private <T> Future<?> start(Supplier<T> call, Attempts<T> attempts, boolean isHedge) {
+        attempts.pending.incrementAndGet();
+        long start = System.nanoTime();
+        return executor.submit(() -> {
+            try {
+                T value = call.get();
+                recordLatency(System.nanoTime() - start);
+                if (attempts.answered.compareAndSet(false, true)) {
+                    // Counted before completing, so the count is in place when the caller resumes
+                    if (isHedge) {
+                        metrics.recordAuthHedge(RESULT_WON);
+                    }
+                    attempts.result.complete(value);
+                }
+            } catch (RuntimeException e) {
+                // The other attempt may still answer; fail the call only once neither can
+                if (attempts.pending.decrementAndGet() == 0) {
+                    attempts.result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    private void earnBudget() {
+        budget.getAndUpdate(current -> Math.min(maxBudget, current + budgetEarnedPerCall));
+    }
+
+    private boolean spendBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < MILLI) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - MILLI));
+        return true;
+    }
+
+    private void recordLatency(long nanos) {
+        long sample = samples.getAndIncrement();
+        latencies[(int) (sample % WINDOW)] = nanos;
+        if (sample >= WINDOW - 1 && sample % RECOMPUTE_EVERY == 0) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            long delay = sorted[(int) Math.min(WINDOW - 1, Math.ceil(percentile * WINDOW) - 1)];
+            hedgeDelayNanos = Math.max(minDelayNanos, delay);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        hedgeScheduler.shutdownNow();
+    }
+
+    /**
+     * The attempts of one call and the result they race to complete.
+     */
+    private static final class Attempts<T> {
+
+        final CompletableFuture<T> result;
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicBoolean answered = new AtomicBoolean();
+        volatile Future<?> first;
+        volatile Future<?> second;
+
+        Attempts(CompletableFuture<T> result) {
+            this.result = result;
+        }
+
+        void cancelAll() {
+            Future<?> first = this.first;
+            Future<?> second = this.second;
+            if (first != null) {
+                first.cancel(true);
+            }
+            if (second != null) {
+                second.cancel(true);
+            }
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.onlineshop.gateway.service;
 
+import com.onlineshop.common.util.TokenHasher;
 import com.onlineshop.gateway.dto.ValidateResponse;
 import com.onlineshop.gateway.metrics.GatewayMetrics;
 import com.onlineshop.gateway.validation.TokenSanitizer;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
@@ -21,22 +24,36 @@ import org.springframework.stereotype.Service;
  * </ul>
  *
  * <p>The cache key is the SHA-256 hash of the token to avoid storing raw tokens.</p>
+ *
+ * <p>{@code sync = true} routes misses through {@code TieredCache.get(key, Callable)}, which
+ * coalesces concurrent misses for the same token into a single L2 lookup and Auth service call.
+ * Only valid responses are cached (see {@code CacheConfig#cacheManager}).</p>
+ *
+ * <p>Enabled with {@code gateway.auth.validator=annotation} (the default). {@link CachingTokenValidator}
+ * does the same against the cache API directly, skipping the interceptor and SpEL key evaluation.</p>
  */
 @Service
 @Slf4j
+@ConditionalOnProperty(name = "gateway.auth.validator", havingValue = "annotation", matchIfMissing = true)
 public class AuthValidationService implements TokenValidator {
 
     private final AuthServiceClient authServiceClient;
     private final TokenSanitizer tokenSanitizer;
     private final GatewayMetrics metrics;
+    private final LastKnownGoodTokens lastKnownGood;
+    private final TokenRefreshLoader refreshLoader;
 
     public AuthValidationService(
             AuthServiceClient authServiceClient,
             TokenSanitizer tokenSanitizer,
-            GatewayMetrics metrics) {
+            GatewayMetrics metrics,
+            ObjectProvider<LastKnownGoodTokens> lastKnownGood,
+            ObjectProvider<TokenRefreshLoader> refreshLoader) {
         this.authServiceClient = authServiceClient;
         this.tokenSanitizer = tokenSanitizer;
         this.metrics = metrics;
+        this.lastKnownGood = lastKnownGood.getIfAvailable();
+        this.refreshLoader = refreshLoader.getIfAvailable();
     }
 
     /**
@@ -49,6 +66,8 @@ public class AuthValidationService implements TokenValidator {
      *   <li>Call Auth Service on cache miss, store result in both caches</li>
      * </ol>
      *
+     * <p>Concurrent misses for the same token wait for the first caller's result.</p>
+     *
      * @param token the authentication token to validate
      * @return ValidateResponse containing user information if valid
      * @throws com.onlineshop.gateway.exception.InvalidTokenFormatException if token format is invalid
@@ -57,8 +76,8 @@ public class AuthValidationService implements TokenValidator {
     @Override
     @Cacheable(
             cacheNames = "auth-tokens",
-            key = "T(com.onlineshop.gateway.util.TokenHasher).hash(#token)",
-            unless = "#result == null || !#result.valid"
+            key = "T(com.onlineshop.common.util.TokenHasher).hash(#token)",
+            sync = true
     )
     public ValidateResponse validateToken(String token) {
         // Validate token format first - throws InvalidTokenFormatException if invalid
@@ -66,10 +85,17 @@ public class AuthValidationService implements TokenValidator {
 
         // This code only runs on cache miss
         log.debug("Token validation cache miss, calling Auth service");
+        String tokenHash = TokenHasher.hash(token);
+        if (refreshLoader != null) {
+            refreshLoader.remember(tokenHash, token);
+        }
         Timer.Sample sample = metrics.startAuthServiceTimer();
         try {
             ValidateResponse authResponse = authServiceClient.validateToken(token).join();
             log.debug("Auth service response received, valid={}", authResponse.isValid());
+            if (lastKnownGood != null) {
+                lastKnownGood.record(tokenHash, authResponse);
+            }
             return authResponse;
         } finally {
             metrics.stopAuthServiceTimer(sample);
@@ -0,0 +1,20 @@
+package com.onlineshop.gateway.service;
+
+import com.onlineshop.gateway.dto.ValidateResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AuthServiceClient} that can also validate several tokens with one call to the Auth Service.
+ * Implemented by the transport clients that {@code BatchingAuthServiceClient} delegates to.
+ */
+public interface BatchAuthServiceClient extends AuthServiceClient {
+
+    /**
+     * Validates several tokens with one call to the Auth Service.
+     *
+     * @param tokens the tokens to validate
+     * @return CompletableFuture containing one ValidateResponse per token, in the order of {@code tokens}
+     */
+    CompletableFuture<List<ValidateResponse>> validateTokens(List<String> tokens);
+}
@@ -0,0 +1,109 @@
+package com.onlineshop.gateway.service;
+
+import com.onlineshop.common.util.TokenHasher;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import com.onlineshop.gateway.metrics.GatewayMetrics;
+import com.onlineshop.gateway.validation.TokenSanitizer;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Token validation service that talks to the tiered cache directly instead of through {@code @Cacheable}.
+ *
+ * <p>Same caching behaviour as {@link AuthValidationService} - L1/L2 lookup, single-flight misses,
+ * negative tier and refresh-ahead all live in {@code TieredCache.get(key, Callable)} - without the
+ * per-request cost of the cache interceptor: no SpEL key evaluation, no cache operation metadata
+ * lookup and no AOP proxy. The cache is resolved once at startup and the key is hashed once per call.</p>
+ *
+ * <p>Enabled with {@code gateway.auth.validator=programmatic}.</p>
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "gateway.auth.validator", havingValue = "programmatic")
+public class CachingTokenValidator implements TokenValidator {
+
+    static final String CACHE_NAME = "auth-tokens";
+
+    private final Cache cache;
+    private final AuthServiceClient authServiceClient;
+    private final TokenSanitizer tokenSanitizer;
+    private final GatewayMetrics metrics;
+    private final LastKnownGoodTokens lastKnownGood;
+    private final TokenRefreshLoader refreshLoader;
+
+    public CachingTokenValidator(
+            CacheManager cacheManager,
+            AuthServiceClient authServiceClient,
+            TokenSanitizer tokenSanitizer,
+            GatewayMetrics metrics,
+            ObjectProvider<LastKnownGoodTokens> lastKnownGood,
+            ObjectProvider<TokenRefreshLoader> refreshLoader) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.authServiceClient = authServiceClient;
+        this.tokenSanitizer = tokenSanitizer;
+        this.metrics = metrics;
+        this.lastKnownGood = lastKnownGood.getIfAvailable();
+        this.refreshLoader = refreshLoader.getIfAvailable();
+    }
+
+    /**
+     * Validates a token: L1 (Caffeine) → L2 (Redis) → Auth service, with concurrent misses for the
+     * same token waiting for the first caller's result.
+     *
+     * @param token the authentication token to validate
+     * @return ValidateResponse containing user information if valid
+     * @throws com.onlineshop.gateway.exception.InvalidTokenFormatException if token format is invalid
+     * @throws com.onlineshop.gateway.exception.ServiceUnavailableException if Auth service is unavailable
+     */
+    @Override
+    public ValidateResponse validateToken(String token) {
+        String key = TokenHasher.hash(token);
+        try {
+            return cache.get(key, () -> loadFromAuthService(key, token));
+        } catch (Cache.ValueRetrievalException e) {
+            // Same unwrapping as the @Cacheable interceptor, so callers see the loader's exception
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private ValidateResponse loadFromAuthService(String key, String token) {
+        // Validate token format first - throws InvalidTokenFormatException if invalid
+        tokenSanitizer.validate(token);
+
+        log.debug("Token validation cache miss, calling Auth service");
+        if (refreshLoader != null) {
+            refreshLoader.remember(key, token);
+        }
+        Timer.Sample sample = metrics.startAuthServiceTimer();
+        try {
+            ValidateResponse authResponse = authServiceClient.validateToken(token).join();
+            log.debug("Auth service response received, valid={}", authResponse.isValid());
+            if (lastKnownGood != null) {
+                lastKnownGood.record(key, authResponse);
+            }
+            return authResponse;
+        } finally {
+            metrics.stopAuthServiceTimer(sample);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+}
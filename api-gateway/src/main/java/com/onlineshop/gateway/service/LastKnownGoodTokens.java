@@ -0,0 +1,93 @@
+package com.onlineshop.gateway.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.onlineshop.common.util.TokenHasher;
+import com.onlineshop.gateway.cache.CacheInvalidation;
+import com.onlineshop.gateway.cache.CacheInvalidationBus;
+import com.onlineshop.gateway.cache.TokenExpiryPolicy;
+import com.onlineshop.gateway.dto.ValidateResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Last successful Auth validation per token, kept past the token cache TTL so that requests can still be
+ * authenticated while Auth is unavailable (circuit open, overloaded, timing out).
+ *
+ * <p>Entries are recorded when a validator loads a valid response from Auth and live until the token's
+ * {@code expiresAt} (minus the cache skew margin), capped at {@code max-age}, so an expired token is never
+ * answered from here. An entry is removed as soon as Auth answers {@code valid=false} for the token. It is
+ * also removed when the token's key is evicted on the cache invalidation bus, for example by a logout through
+ * the gateway ({@link LogoutCacheEviction}).
+ * The store is bounded by {@code max-size} and is per instance: a token validated by another replica only is
+ * not here. Reading it costs Auth nothing, since it is consulted only after a call has already failed.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "gateway.auth.stale-fallback.enabled", havingValue = "true")
+public class LastKnownGoodTokens {
+
+    private static final String CACHE_NAME = "auth-tokens";
+
+    private final Cache<String, ValidateResponse> entries;
+
+    public LastKnownGoodTokens(
+            TokenExpiryPolicy tokenExpiryPolicy,
+            ObjectProvider<CacheInvalidationBus> cacheInvalidationBus,
+            @Value("${gateway.auth.stale-fallback.max-age:15m}") Duration maxAge,
+            @Value("${gateway.auth.stale-fallback.max-size:100000}") long maxSize) {
+        this.entries = Caffeine.newBuilder()
+                .expireAfter(tokenExpiryPolicy.<String, ValidateResponse>caffeineExpiry(maxAge))
+                .maximumSize(maxSize)
+                .build();
+        cacheInvalidationBus.ifAvailable(bus -> bus.subscribe(this::onInvalidation));
+    }
+
+    /**
+     * Records a response just received from Auth. An invalid response drops the token's entry, so a token
+     * Auth has rejected is never answered from here later.
+     *
+     * @param tokenHash {@link TokenHasher#hash(String)} of the token
+     */
+    public void record(String tokenHash, ValidateResponse response) {
+        if (response != null && response.isValid()) {
+            entries.put(tokenHash, response);
+        } else {
+            entries.invalidate(tokenHash);
+        }
+    }
+
+    /**
+     * Drops the token's entry.
+     *
+     * @param tokenHash {@link TokenHasher#hash(String)} of the token
+     */
+    public void invalidate(String tokenHash) {
+        entries.invalidate(tokenHash);
+    }
+
+    /**
+     * Returns the last valid response for the token, or null if there is none that is still in date.
+     */
+    public ValidateResponse get(String token) {
+        return entries.getIfPresent(TokenHasher.hash(token));
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (!CACHE_NAME.equals(invalidation.cacheName())) {
+            return;
+        }
+        if (invalidation.isClear()) {
+            entries.invalidateAll();
+        } else {
+            entries.invalidate(invalidation.key());
+        }
+    }
+}
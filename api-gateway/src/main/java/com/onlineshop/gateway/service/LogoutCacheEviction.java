@@ -0,0 +1,82 @@
+package com.onlineshop.gateway.service;
+
+import com.onlineshop.common.util.TokenHasher;
+import com.onlineshop.gateway.cache.CacheInvalidationBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * Drops a token from the gateway's token caches once Auth has ended its session.
+ *
+ * <p>Runs after the auth route. After a successful {@code POST /auth/logout}, the token's hash is
+ * evicted from the {@code auth-tokens} cache. That removes it from this instance's L1 and from the shared L2.
+ * Once L2 is gone, the hash is published on the {@link CacheInvalidationBus}, so the other instances drop it
+ * from their L1, their {@link LastKnownGoodTokens} and their {@link TokenRefreshLoader}. Without this, a
+ * logged-out opaque token kept validating from cache until its entry expired.</p>
+ *
+ * <p>Logouts that reach Auth another way are evicted by {@link TokenRevocationSet} when it polls them.</p>
+ */
+@Component
+@Slf4j
+public class LogoutCacheEviction {
+
+    static final String CACHE_NAME = "auth-tokens";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final Cache cache;
+    private final ObjectProvider<LastKnownGoodTokens> lastKnownGood;
+    private final ObjectProvider<TokenRefreshLoader> refreshLoader;
+
+    public LogoutCacheEviction(
+            CacheManager cacheManager,
+            ObjectProvider<LastKnownGoodTokens> lastKnownGood,
+            ObjectProvider<TokenRefreshLoader> refreshLoader) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.lastKnownGood = lastKnownGood;
+        this.refreshLoader = refreshLoader;
+    }
+
+    /**
+     * After-filter for the auth route: evicts the logged-out token, leaves every other response alone.
+     */
+    public ServerResponse afterLogout(ServerRequest request, ServerResponse response) {
+        if (!isLogout(request) || !response.statusCode().is2xxSuccessful()) {
+            return response;
+        }
+        String authHeader = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            evict(authHeader.substring(BEARER_PREFIX.length()));
+        }
+        return response;
+    }
+
+    /**
+     * Evicts the token from the token cache on every instance, and from this instance's last known good store
+     * and refresh-ahead loader.
+     */
+    public void evict(String token) {
+        evictTokenHash(TokenHasher.hash(token));
+    }
+
+    /**
+     * Same as {@link #evict(String)}, for a token known only by its hash, such as a revocation polled from Auth.
+     */
+    public void evictTokenHash(String tokenHash) {
+        cache.evict(tokenHash);
+        lastKnownGood.ifAvailable(store -> store.invalidate(tokenHash));
+        refreshLoader.ifAvailable(loader -> loader.forget(tokenHash));
+        log.debug("Evicted logged-out token from the token caches");
+    }
+
+    private static boolean isLogout(ServerRequest request) {
+        return HttpMethod.POST.equals(request.method()) && request.path().endsWith("/logout");
+    }
+}
@@ -0,0 +1,69 @@
+package com.onlineshop.gateway.service;
+
+import com.onlineshop.common.util.SignedSessionTokenCodec;
+import com.onlineshop.common.util.TokenHasher;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Verifies signed session tokens in-process: signature, expiry and the {@link TokenRevocationSet}, with
+ * no call to Auth and no cache lookup.
+ *
+ * <p>Opaque tokens, and signed tokens while the revocation set is stale, are left to the
+ * {@link TokenValidator}, so both formats work side by side during a migration.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "gateway.auth.signed-tokens.enabled", havingValue = "true")
+public class SignedTokenVerifier {
+
+    private final SignedSessionTokenCodec codec;
+    private final TokenRevocationSet revocations;
+    private final Clock clock;
+
+    public SignedTokenVerifier(
+            @Value("${gateway.auth.signed-tokens.secret}") String secret,
+            TokenRevocationSet revocations) {
+        this(new SignedSessionTokenCodec(secret.getBytes(StandardCharsets.UTF_8)), revocations, Clock.systemUTC());
+    }
+
+    SignedTokenVerifier(SignedSessionTokenCodec codec, TokenRevocationSet revocations, Clock clock) {
+        this.codec = codec;
+        this.revocations = revocations;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the validation result, or null if the token has to be validated by Auth
+     */
+    public ValidateResponse verify(String token) {
+        if (!SignedSessionTokenCodec.isSigned(token) || !revocations.isFresh()) {
+            return null;
+        }
+
+        SignedSessionTokenCodec.Claims claims = codec.verify(token);
+        Instant now = clock.instant();
+        if (claims == null || claims.isExpired(now)) {
+            return ValidateResponse.builder().valid(false).build();
+        }
+        if (revocations.isRevoked(TokenHasher.hash(token))) {
+            log.debug("Rejected revoked token for user ID: {}", claims.userId());
+            return ValidateResponse.builder().valid(false).build();
+        }
+
+        return ValidateResponse.builder()
+                .valid(true)
+                .userId(claims.userId())
+                .username(claims.username())
+                .createdAt(claims.createdAt())
+                .expiresAt(claims.expiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.onlineshop.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.onlineshop.gateway.cache.CacheInvalidation;
+import com.onlineshop.gateway.cache.CacheInvalidationBus;
+import com.onlineshop.gateway.cache.TieredCache;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Refresh-ahead loader of the {@code auth-tokens} cache: revalidates a token with Auth by its hash.
+ *
+ * <p>Cache keys are token hashes, so the validators hand over the token whenever they call Auth. It is kept
+ * in memory only, bounded like L1 and for no longer than an L1 entry lives. A token this instance only
+ * ever saw through an L2 hit cannot be reloaded here; its entry expires and the next miss loads it.</p>
+ *
+ * <p>The raw token is dropped as soon as its cache entry is: on logout or a polled revocation
+ * ({@link LogoutCacheEviction}), on the token's key or a clear arriving on the cache invalidation bus, and
+ * when Auth answers {@code valid=false} for it.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.cache.refresh-ahead.enabled", havingValue = "true", matchIfMissing = true)
+public class TokenRefreshLoader implements TieredCache.RefreshLoader {
+
+    private final AuthServiceClient authServiceClient;
+    private final LastKnownGoodTokens lastKnownGood;
+    private final Cache<String, String> tokens;
+
+    public TokenRefreshLoader(
+            AuthServiceClient authServiceClient,
+            ObjectProvider<LastKnownGoodTokens> lastKnownGood,
+            ObjectProvider<CacheInvalidationBus> cacheInvalidationBus,
+            @Value("${gateway.cache.caffeine.ttl-seconds:60}") long caffeineTtlSeconds,
+            @Value("${gateway.cache.caffeine.max-size:10000}") long caffeineMaxSize) {
+        this.authServiceClient = authServiceClient;
+        this.lastKnownGood = lastKnownGood.getIfAvailable();
+        this.tokens = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(caffeineTtlSeconds))
+                .maximumSize(caffeineMaxSize)
+                .build();
+        cacheInvalidationBus.ifAvailable(bus -> bus.subscribe(this::onInvalidation));
+    }
+
+    /**
+     * Makes the token reloadable; called next to each Auth call that may populate the cache.
+     */
+    public void remember(String tokenHash, String token) {
+        tokens.put(tokenHash, token);
+    }
+
+    /**
+     * Drops the token, so its cache entry can no longer be reloaded.
+     */
+    public void forget(String tokenHash) {
+        tokens.invalidate(tokenHash);
+    }
+
+    @Override
+    public Object reload(Object key) {
+        String tokenHash = key.toString();
+        String token = tokens.getIfPresent(tokenHash);
+        if (token == null) {
+            return null;
+        }
+        ValidateResponse response = authServiceClient.validateToken(token).join();
+        if (lastKnownGood != null) {
+            lastKnownGood.record(tokenHash, response);
+        }
+        if (response.isValid()) {
+            // The refreshed L1 entry lives on, and so must the token behind it
+            tokens.put(tokenHash, token);
+        } else {
+            tokens.invalidate(tokenHash);
+        }
+        return response;
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (!LogoutCacheEviction.CACHE_NAME.equals(invalidation.cacheName())) {
+            return;
+        }
+        if (invalidation.isClear()) {
+            tokens.invalidateAll();
+        } else {
+            tokens.invalidate(invalidation.key());
+        }
+    }
+}
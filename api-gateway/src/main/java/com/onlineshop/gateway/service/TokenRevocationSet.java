@@ -0,0 +1,137 @@
+package com.onlineshop.gateway.service;
+
+import com.onlineshop.gateway.dto.RevocationsResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashes of tokens revoked in Auth (logout), polled from {@code GET /api/v1/auth/revocations}.
+ *
+ * <p>Each poll asks for revocations since the previous poll's {@code asOf}, minus a small overlap so a
+ * revocation committed while the previous poll ran is not missed. Entries are dropped once the token
+ * has expired, which keeps the set as small as the number of sessions ended early.</p>
+ *
+ * <p>A revocation takes up to one poll interval to reach the gateway. If polling keeps failing for longer
+ * than {@code max-staleness}, {@link #isFresh()} turns false and callers go back to asking Auth.</p>
+ *
+ * <p>Each newly polled revocation is also evicted through {@link LogoutCacheEviction}. Opaque tokens are
+ * validated from cache, so this ends cached validations of logouts that did not pass through the gateway.
+ * Polling runs with signed tokens, and otherwise unless {@code gateway.auth.revocation-sync.enabled} is
+ * false.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnExpression(
+        "${gateway.auth.signed-tokens.enabled:false} or ${gateway.auth.revocation-sync.enabled:true}")
+public class TokenRevocationSet implements SmartLifecycle {
+
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(5);
+
+    private final RestClient restClient;
+    private final ObjectProvider<LogoutCacheEviction> cacheEviction;
+    private final String revocationsUrl;
+    private final Duration pollInterval;
+    private final long maxStalenessNanos;
+    private final ConcurrentMap<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    private volatile Instant lastAsOf;
+    private volatile long lastSyncNanos;
+    private volatile boolean synced;
+    private ScheduledExecutorService poller;
+
+    public TokenRevocationSet(
+            RestClient restClient,
+            ObjectProvider<LogoutCacheEviction> cacheEviction,
+            @Value("${gateway.auth.service-url}") String authServiceUrl,
+            @Value("${gateway.auth.revocations-endpoint:/api/v1/auth/revocations}") String revocationsEndpoint,
+            @Value("${gateway.auth.signed-tokens.revocation-poll-interval:5s}") Duration pollInterval,
+            @Value("${gateway.auth.signed-tokens.max-staleness:30s}") Duration maxStaleness) {
+        this.restClient = restClient;
+        this.cacheEviction = cacheEviction;
+        this.revocationsUrl = authServiceUrl + revocationsEndpoint;
+        this.pollInterval = pollInterval;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+    }
+
+    public boolean isRevoked(String tokenHash) {
+        return revoked.containsKey(tokenHash);
+    }
+
+    /**
+     * Whether the set was synced with Auth recently enough to be trusted.
+     */
+    public boolean isFresh() {
+        return synced && System.nanoTime() - lastSyncNanos <= maxStalenessNanos;
+    }
+
+    void sync() {
+        Instant since = lastAsOf != null ? lastAsOf.minus(POLL_OVERLAP) : null;
+        RestClient.RequestHeadersSpec<?> request = since != null
+                ? restClient.get().uri(revocationsUrl + "?since={since}", since)
+                : restClient.get().uri(revocationsUrl);
+        RevocationsResponse response = request
+                .retrieve()
+                .body(RevocationsResponse.class);
+        if (response == null) {
+            throw new IllegalStateException("Empty revocations response");
+        }
+
+        LogoutCacheEviction eviction = cacheEviction.getIfAvailable();
+        for (RevocationsResponse.RevokedToken token : response.revoked()) {
+            // Polls overlap, so only the first sighting evicts
+            if (revoked.put(token.tokenHash(), token.expiresAt()) == null && eviction != null) {
+                eviction.evictTokenHash(token.tokenHash());
+            }
+        }
+        Instant now = response.asOf();
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+
+        lastAsOf = response.asOf();
+        lastSyncNanos = System.nanoTime();
+        synced = true;
+        if (!response.revoked().isEmpty()) {
+            log.debug("Synced {} token revocations, {} tracked", response.revoked().size(), revoked.size());
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.warn("Token revocation sync failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        poller = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("token-revocation-sync").daemon().factory());
+        poller.scheduleWithFixedDelay(this::syncQuietly, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return poller != null;
+    }
+}
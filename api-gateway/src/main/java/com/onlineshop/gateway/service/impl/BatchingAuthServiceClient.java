@@ -0,0 +1,146 @@
+package com.onlineshop.gateway.service.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import com.onlineshop.gateway.dto.ValidateResponse;
+import com.onlineshop.gateway.service.AuthServiceClient;
+import com.onlineshop.gateway.service.BatchAuthServiceClient;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link AuthServiceClient} that coalesces concurrent validations into batch calls.
+ *
+ * <p>Tokens are collected for up to {@code max-delay} or until {@code max-size} are pending, then sent as one
+ * {@code POST /validate/batch}, which Auth resolves with one database query. This matters on cold start or
+ * after an L1 flush, when every distinct token misses the cache at once. A token already pending shares the
+ * pending result. A batch of one goes to the single-token endpoint.</p>
+ *
+ * <p>Resilience policies are those of the delegate ({@link DefaultAuthServiceClient} or
+ * {@link SyncAuthServiceClient}); a failed batch fails every token in it. A batch that fills up is sent from the
+ * thread that filled it; one sent by the timer goes out on a virtual thread, since a synchronous delegate blocks
+ * for the whole call.</p>
+ */
+@Service
+@Primary
+@Slf4j
+@ConditionalOnProperty(name = "gateway.auth.batch.enabled", havingValue = "true")
+public class BatchingAuthServiceClient implements AuthServiceClient, DisposableBean {
+
+    private final BatchAuthServiceClient delegate;
+    private final ExecutorService virtualThreadExecutor;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final ScheduledExecutorService flushScheduler;
+
+    private final Object lock = new Object();
+    // Guarded by lock; insertion order is the order tokens are sent in
+    private Map<String, CompletableFuture<ValidateResponse>> pending = new LinkedHashMap<>();
+
+    public BatchingAuthServiceClient(
+            BatchAuthServiceClient delegate,
+            ExecutorService virtualThreadExecutor,
+            @Value("${gateway.auth.batch.max-size:50}") int maxBatchSize,
+            @Value("${gateway.auth.batch.max-delay:300us}") Duration maxDelay) {
+        this.delegate = delegate;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("auth-batch-flush").daemon().factory());
+    }
+
+    @Override
+    public CompletableFuture<ValidateResponse> validateToken(String token) {
+        CompletableFuture<ValidateResponse> result;
+        Map<String, CompletableFuture<ValidateResponse>> full = null;
+        boolean firstInBatch;
+        synchronized (lock) {
+            result = pending.get(token);
+            if (result != null) {
+                return result;
+            }
+            result = new CompletableFuture<>();
+            pending.put(token, result);
+            firstInBatch = pending.size() == 1;
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = new LinkedHashMap<>();
+            }
+        }
+
+        if (full != null) {
+            send(full);
+        } else if (firstInBatch) {
+            flushScheduler.schedule(() -> virtualThreadExecutor.execute(this::flush),
+                    maxDelayNanos, TimeUnit.NANOSECONDS);
+        }
+        return result;
+    }
+
+    /**
+     * Sends whatever is pending. A timer left over from a batch that already went out by size only makes the
+     * next batch go out early.
+     */
+    private void flush() {
+        Map<String, CompletableFuture<ValidateResponse>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        send(batch);
+    }
+
+    private void send(Map<String, CompletableFuture<ValidateResponse>> batch) {
+        List<String> tokens = new ArrayList<>(batch.keySet());
+        try {
+            if (tokens.size() == 1) {
+                delegate.validateToken(tokens.getFirst()).whenComplete((response, throwable) -> {
+                    CompletableFuture<ValidateResponse> result = batch.get(tokens.getFirst());
+                    if (throwable != null) {
+                        result.completeExceptionally(throwable);
+                    } else {
+                        result.complete(response);
+                    }
+                });
+                return;
+            }
+
+            log.debug("Validating batch of {} tokens", tokens.size());
+            delegate.validateTokens(tokens).whenComplete((responses, throwable) -> {
+                if (throwable != null) {
+                    batch.values().forEach(result -> result.completeExceptionally(throwable));
+                    return;
+                }
+                for (int i = 0; i < tokens.size(); i++) {
+                    batch.get(tokens.get(i)).complete(responses.get(i));
+                }
+            });
+        } catch (RuntimeException e) {
+            batch.values().forEach(result -> result.completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flushScheduler.shutdownNow();
+    }
+}
@@ -1,61 +1,144 @@
 package com.onlineshop.gateway.service.impl;
 
+import java.net.URI;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeoutException;
 
-import io.github.resilience4j.bulkhead.BulkheadFullException;
-import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
 import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
+import com.onlineshop.gateway.dto.ValidateBatchRequest;
+import com.onlineshop.gateway.dto.ValidateBatchResponse;
 import com.onlineshop.gateway.dto.ValidateResponse;
+import com.onlineshop.gateway.exception.ConcurrencyLimitExceededException;
 import com.onlineshop.gateway.exception.GatewayTimeoutException;
 import com.onlineshop.gateway.exception.ServiceUnavailableException;
-import com.onlineshop.gateway.service.AuthServiceClient;
+import com.onlineshop.gateway.service.AdaptiveConcurrencyLimiter;
+import com.onlineshop.gateway.service.AuthRequestHedger;
+import com.onlineshop.gateway.service.BatchAuthServiceClient;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Auth Service client that runs each call on a virtual thread of its own, with the resilience policies applied
+ * by annotations around the returned future. Used with {@code gateway.auth.client.mode=async};
+ * {@link SyncAuthServiceClient} is the variant that stays on the caller's thread. With
+ * {@code gateway.auth.client.hedging.enabled}, single-token validations are hedged by {@link AuthRequestHedger}.
+ */
 @Service
 @Slf4j
-public class DefaultAuthServiceClient implements AuthServiceClient {
+@ConditionalOnProperty(name = "gateway.auth.client.mode", havingValue = "async", matchIfMissing = true)
+public class DefaultAuthServiceClient implements BatchAuthServiceClient {
 
     private final RestClient restClient;
-    private final String authServiceUrl;
-    private final String validateEndpoint;
+    private final URI validateUri;
+    private final URI validateBatchUri;
     private final ExecutorService virtualThreadExecutor;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final AuthRequestHedger hedger;
 
     public DefaultAuthServiceClient(
             RestClient restClient,
             @Value("${gateway.auth.service-url}") String authServiceUrl,
             @Value("${gateway.auth.validate-endpoint}") String validateEndpoint,
-            ExecutorService virtualThreadExecutor) {
+            @Value("${gateway.auth.validate-batch-endpoint:/api/v1/auth/validate/batch}") String validateBatchEndpoint,
+            ExecutorService virtualThreadExecutor,
+            AdaptiveConcurrencyLimiter authConcurrencyLimiter,
+            ObjectProvider<AuthRequestHedger> hedger) {
         this.restClient = restClient;
-        this.authServiceUrl = authServiceUrl;
-        this.validateEndpoint = validateEndpoint;
+        // Resolved once instead of concatenated and parsed on every call
+        this.validateUri = URI.create(authServiceUrl + validateEndpoint);
+        this.validateBatchUri = URI.create(authServiceUrl + validateBatchEndpoint);
         this.virtualThreadExecutor = virtualThreadExecutor;
+        this.concurrencyLimiter = authConcurrencyLimiter;
+        this.hedger = hedger.getIfAvailable();
     }
 
     @Override
     @TimeLimiter(name = "authService", fallbackMethod = "timeoutFallback")
     @CircuitBreaker(name = "authService", fallbackMethod = "circuitBreakerFallback")
-    @Bulkhead(name = "authService", fallbackMethod = "bulkheadFallback")
     public CompletableFuture<ValidateResponse> validateToken(String token) {
+        if (hedger != null) {
+            // Each attempt takes its own permit; a shed hedge just leaves the first attempt to answer
+            return hedger.submit(() -> callAuthServiceWithPermit(token));
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire();
+        if (permit == null) {
+            return overloaded();
+        }
         return CompletableFuture.supplyAsync(
             () -> callAuthService(token),
             virtualThreadExecutor
-        );
+        ).whenComplete((response, throwable) -> permit.onComplete(throwable));
+    }
+
+    /**
+     * Validates several tokens with one call to the Auth Service, under the same resilience policies as
+     * {@link #validateToken(String)}.
+     */
+    @Override
+    @TimeLimiter(name = "authService", fallbackMethod = "timeoutFallback")
+    @CircuitBreaker(name = "authService", fallbackMethod = "circuitBreakerFallback")
+    public CompletableFuture<List<ValidateResponse>> validateTokens(List<String> tokens) {
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire();
+        if (permit == null) {
+            return overloaded();
+        }
+        return CompletableFuture.supplyAsync(
+            () -> callAuthServiceBatch(tokens),
+            virtualThreadExecutor
+        ).whenComplete((responses, throwable) -> permit.onComplete(throwable));
+    }
+
+    /**
+     * Sheds the call: the concurrency limit is reached, and waiting for a permit would only add latency.
+     */
+    private <T> CompletableFuture<T> overloaded() {
+        log.warn("Concurrency limit ({}) reached for auth service", concurrencyLimiter.getLimit());
+        return CompletableFuture.failedFuture(new ConcurrencyLimitExceededException("Auth service is overloaded"));
+    }
+
+    private List<ValidateResponse> callAuthServiceBatch(List<String> tokens) {
+        ValidateBatchResponse response = restClient.post()
+                .uri(validateBatchUri)
+                .body(new ValidateBatchRequest(tokens))
+                .retrieve()
+                .body(ValidateBatchResponse.class);
+
+        if (response == null || response.results() == null || response.results().size() != tokens.size()) {
+            throw new ServiceUnavailableException("Auth service returned a malformed batch validation response");
+        }
+        return response.results();
+    }
+
+    private ValidateResponse callAuthServiceWithPermit(String token) {
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire();
+        if (permit == null) {
+            throw new ConcurrencyLimitExceededException("Auth service is overloaded");
+        }
+        try {
+            ValidateResponse response = callAuthService(token);
+            permit.onSuccess();
+            return response;
+        } catch (RuntimeException e) {
+            permit.onComplete(e);
+            throw e;
+        }
     }
 
     private ValidateResponse callAuthService(String token) {
         // Use RestClient fluent API
         ValidateResponse response = restClient.get()
-                .uri(authServiceUrl + validateEndpoint)
+                .uri(validateUri)
                 .header("Authorization", "Bearer " + token)
                 .retrieve()
                 .body(ValidateResponse.class);
@@ -70,11 +153,11 @@ public class DefaultAuthServiceClient implements AuthServiceClient {
             new ServiceUnavailableException("Auth service circuit breaker is open", ex));
     }
 
-    private CompletableFuture<ValidateResponse> bulkheadFallback(
-            String token, BulkheadFullException ex) {
-        log.warn("Bulkhead full for auth service: {}", ex.getMessage());
+    private CompletableFuture<List<ValidateResponse>> circuitBreakerFallback(
+            List<String> tokens, CallNotPermittedException ex) {
+        log.warn("Circuit breaker open for auth service: {}", ex.getMessage());
         return CompletableFuture.failedFuture(
-            new ServiceUnavailableException("Auth service is overloaded", ex));
+            new ServiceUnavailableException("Auth service circuit breaker is open", ex));
     }
 
     private CompletableFuture<ValidateResponse> timeoutFallback(
@@ -83,4 +166,11 @@ public class DefaultAuthServiceClient implements AuthServiceClient {
         return CompletableFuture.failedFuture(
             new GatewayTimeoutException("Auth service request timed out", ex));
     }
+
+    private CompletableFuture<List<ValidateResponse>> timeoutFallback(
+            List<String> tokens, TimeoutException ex) {
+        log.error("Auth service timed out: {}", ex.getMessage());
+        return CompletableFuture.failedFuture(
+            new GatewayTimeoutException("Auth service request timed out", ex));
+    }
 }
@@ -0,0 +1,171 @@
+package com.onlineshop.gateway.service.impl;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import com.onlineshop.gateway.dto.ValidateBatchRequest;
+import com.onlineshop.gateway.dto.ValidateBatchResponse;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import com.onlineshop.gateway.exception.ConcurrencyLimitExceededException;
+import com.onlineshop.gateway.exception.GatewayTimeoutException;
+import com.onlineshop.gateway.exception.ServiceUnavailableException;
+import com.onlineshop.gateway.service.AdaptiveConcurrencyLimiter;
+import com.onlineshop.gateway.service.AuthRequestHedger;
+import com.onlineshop.gateway.service.BatchAuthServiceClient;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Auth Service client that calls Auth on the caller's thread.
+ *
+ * <p>Requests already run on virtual threads, so blocking here costs a parked virtual thread and nothing
+ * more. {@link DefaultAuthServiceClient} hands each call to another virtual thread and has the TimeLimiter
+ * wait on it, i.e. two thread hops and a timer per validation. Here the deadline is the HTTP request
+ * timeout ({@code gateway.auth.client.request-timeout}, same 3s as the TimeLimiter) and the returned future
+ * is already complete, so the validators' {@code join()} returns at once.</p>
+ *
+ * <p>The circuit breaker is the "authService" instance the annotations use, and the concurrency limiter the
+ * one {@link DefaultAuthServiceClient} uses, applied in the same order (circuit breaker outside the limiter)
+ * and mapped to the same exceptions. A timed-out request counts as a circuit breaker failure, as a
+ * TimeLimiter timeout does.</p>
+ *
+ * <p>With {@code gateway.auth.client.hedging.enabled}, single-token validations are hedged by
+ * {@link AuthRequestHedger}; each attempt takes its own concurrency permit.</p>
+ *
+ * <p>Enabled with {@code gateway.auth.client.mode=sync}. See {@code AuthServiceClientBenchmark} for the
+ * comparison with the async path.</p>
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "gateway.auth.client.mode", havingValue = "sync")
+public class SyncAuthServiceClient implements BatchAuthServiceClient {
+
+    private final RestClient restClient;
+    private final URI validateUri;
+    private final URI validateBatchUri;
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final AuthRequestHedger hedger;
+
+    public SyncAuthServiceClient(
+            RestClient restClient,
+            HttpClient authHttpClient,
+            ExecutorService authHttpExecutor,
+            @Value("${gateway.auth.service-url}") String authServiceUrl,
+            @Value("${gateway.auth.validate-endpoint}") String validateEndpoint,
+            @Value("${gateway.auth.validate-batch-endpoint:/api/v1/auth/validate/batch}") String validateBatchEndpoint,
+            @Value("${gateway.auth.client.request-timeout:3s}") Duration requestTimeout,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            AdaptiveConcurrencyLimiter authConcurrencyLimiter,
+            ObjectProvider<AuthRequestHedger> hedger) {
+        // Same connections, interceptors and observations as the shared client; only the deadline differs
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(authHttpClient, authHttpExecutor);
+        requestFactory.setReadTimeout(requestTimeout);
+        this.restClient = restClient.mutate().requestFactory(requestFactory).build();
+        this.validateUri = URI.create(authServiceUrl + validateEndpoint);
+        this.validateBatchUri = URI.create(authServiceUrl + validateBatchEndpoint);
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("authService");
+        this.concurrencyLimiter = authConcurrencyLimiter;
+        this.hedger = hedger.getIfAvailable();
+    }
+
+    @Override
+    public CompletableFuture<ValidateResponse> validateToken(String token) {
+        try {
+            return CompletableFuture.completedFuture(execute(() -> hedged(() -> callAuthService(token))));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<ValidateResponse>> validateTokens(List<String> tokens) {
+        try {
+            return CompletableFuture.completedFuture(execute(() -> limited(() -> callAuthServiceBatch(tokens))));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T execute(Supplier<T> call) {
+        try {
+            return circuitBreaker.executeSupplier(call);
+        } catch (CallNotPermittedException e) {
+            log.warn("Circuit breaker open for auth service: {}", e.getMessage());
+            throw new ServiceUnavailableException("Auth service circuit breaker is open", e);
+        } catch (ResourceAccessException e) {
+            if (isTimeout(e)) {
+                log.error("Auth service timed out: {}", e.getMessage());
+                throw new GatewayTimeoutException("Auth service request timed out", e);
+            }
+            throw e;
+        }
+    }
+
+    private <T> T hedged(Supplier<T> call) {
+        return hedger != null ? hedger.call(() -> limited(call)) : limited(call);
+    }
+
+    private <T> T limited(Supplier<T> call) {
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire();
+        if (permit == null) {
+            log.warn("Concurrency limit ({}) reached for auth service", concurrencyLimiter.getLimit());
+            throw new ConcurrencyLimitExceededException("Auth service is overloaded");
+        }
+        try {
+            T result = call.get();
+            permit.onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            permit.onComplete(e);
+            throw e;
+        }
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<ValidateResponse> callAuthServiceBatch(List<String> tokens) {
+        ValidateBatchResponse response = restClient.post()
+                .uri(validateBatchUri)
+                .body(new ValidateBatchRequest(tokens))
+                .retrieve()
+                .body(ValidateBatchResponse.class);
+
+        if (response == null || response.results() == null || response.results().size() != tokens.size()) {
+            throw new ServiceUnavailableException("Auth service returned a malformed batch validation response");
+        }
+        return response.results();
+    }
+
+    private ValidateResponse callAuthService(String token) {
+        return restClient.get()
+                .uri(validateUri)
+                .header("Authorization", "Bearer " + token)
+                .retrieve()
+                .body(ValidateResponse.class);
+    }
+}
@@ -47,8 +47,29 @@ public class TokenSanitizer {
             return "";
         }
 
-        // Remove CRLF characters to prevent header injection
-        return username.replaceAll("[\\r\\n]", "");
+        // Remove CRLF characters to prevent header injection. Usernames almost never contain them, so scan
+        // first and return the same instance when there is nothing to strip.
+        int length = username.length();
+        int first = 0;
+        while (first < length && !isLineBreak(username.charAt(first))) {
+            first++;
+        }
+        if (first == length) {
+            return username;
+        }
+
+        StringBuilder sanitized = new StringBuilder(length - 1).append(username, 0, first);
+        for (int i = first + 1; i < length; i++) {
+            char c = username.charAt(i);
+            if (!isLineBreak(c)) {
+                sanitized.append(c);
+            }
+        }
+        return sanitized.toString();
+    }
+
+    private static boolean isLineBreak(char c) {
+        return c == '\r' || c == '\n';
     }
 
     private boolean containsNullByte(String token) {
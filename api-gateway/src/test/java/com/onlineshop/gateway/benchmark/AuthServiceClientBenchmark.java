@@ -0,0 +1,137 @@
+package com.onlineshop.gateway.benchmark;
+
+import com.onlineshop.gateway.dto.ValidateResponse;
+import com.onlineshop.gateway.service.AdaptiveConcurrencyLimiter;
+import com.onlineshop.gateway.service.AuthRequestHedger;
+import com.onlineshop.gateway.service.impl.DefaultAuthServiceClient;
+import com.onlineshop.gateway.service.impl.SyncAuthServiceClient;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one Auth validation through {@link DefaultAuthServiceClient} (supplyAsync onto a virtual thread,
+ * TimeLimiter and circuit breaker around the future) vs. {@link SyncAuthServiceClient} (same circuit
+ * breaker, called on the caller's thread with an HTTP deadline). Both share one concurrency limiter.
+ *
+ * <p>The async stack is decorated by hand in the order the Resilience4j aspects apply it, since the
+ * benchmark runs without a Spring context. Both clients call a local HTTP server returning a canned
+ * response, so the difference is the dispatch and not Auth. Run from {@code api-gateway/} after
+ * {@code mvn test-compile}:</p>
+ * <pre>
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.onlineshop.gateway.benchmark.AuthServiceClientBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class AuthServiceClientBenchmark {
+
+    private static final String TOKEN = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+    private static final byte[] BODY = "{\"valid\":true,\"userId\":1,\"username\":\"john\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private ScheduledExecutorService timeLimiterScheduler;
+    private DefaultAuthServiceClient asyncClient;
+    private SyncAuthServiceClient syncClient;
+    private TimeLimiter timeLimiter;
+    private CircuitBreaker circuitBreaker;
+
+    @Setup
+    public void setUp() throws IOException {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/auth/validate", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, BODY.length);
+            exchange.getResponseBody().write(BODY);
+            exchange.close();
+        });
+        server.setExecutor(executor);
+        server.start();
+
+        String url = "http://localhost:" + server.getAddress().getPort();
+        HttpClient httpClient = HttpClient.newBuilder().executor(executor).build();
+        RestClient restClient = RestClient.builder().build();
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        // Ceiling high enough that shedding never shows up in the numbers
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("authService", 64, 64, 64, 2.0, 0.2, 600);
+        ObjectProvider<AuthRequestHedger> noHedging =
+                new StaticListableBeanFactory().getBeanProvider(AuthRequestHedger.class);
+
+        asyncClient = new DefaultAuthServiceClient(restClient, url, "/api/v1/auth/validate",
+                "/api/v1/auth/validate/batch", executor, limiter, noHedging);
+        syncClient = new SyncAuthServiceClient(restClient, httpClient, executor, url, "/api/v1/auth/validate",
+                "/api/v1/auth/validate/batch", Duration.ofSeconds(3), circuitBreakerRegistry, limiter, noHedging);
+
+        timeLimiterScheduler = Executors.newSingleThreadScheduledExecutor();
+        timeLimiter = TimeLimiterRegistry.ofDefaults().timeLimiter("authService");
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker("authService");
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+        timeLimiterScheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public ValidateResponse async() {
+        return timeLimiter.executeCompletionStage(timeLimiterScheduler,
+                        () -> circuitBreaker.executeCompletionStage(() -> asyncClient.validateToken(TOKEN)))
+                .toCompletableFuture()
+                .join();
+    }
+
+    @Benchmark
+    public ValidateResponse sync() {
+        return syncClient.validateToken(TOKEN).join();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthServiceClientBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
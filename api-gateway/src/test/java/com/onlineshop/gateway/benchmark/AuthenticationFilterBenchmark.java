@@ -0,0 +1,125 @@
+package com.onlineshop.gateway.benchmark;
+
+import com.onlineshop.gateway.dto.ValidateResponse;
+import com.onlineshop.gateway.filter.AuthenticationFilter;
+import com.onlineshop.gateway.metrics.GatewayMetrics;
+import com.onlineshop.gateway.service.LastKnownGoodTokens;
+import com.onlineshop.gateway.service.SignedTokenVerifier;
+import com.onlineshop.gateway.service.TokenValidator;
+import com.onlineshop.gateway.validation.TokenSanitizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of {@link AuthenticationFilter} on a validation cache hit: username sanitizing, the
+ * header overlay, and a downstream that copies every header the way the MVC gateway proxy does.
+ *
+ * <p>The request carries the 14 headers of a typical browser call through a load balancer. Token validation
+ * is a constant, so only the filter's own work is measured. Run from {@code api-gateway/} after
+ * {@code mvn test-compile}:</p>
+ * <pre>
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.onlineshop.gateway.benchmark.AuthenticationFilterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationFilterBenchmark {
+
+    private static final String TOKEN = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    private AuthenticationFilter filter;
+    private TokenSanitizer tokenSanitizer;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        ValidateResponse validated = ValidateResponse.builder().valid(true).userId(42L).username("john.doe").build();
+        TokenValidator tokenValidator = token -> validated;
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        tokenSanitizer = new TokenSanitizer();
+        filter = new AuthenticationFilter(tokenValidator, JsonMapper.builder().build(), tokenSanitizer,
+                beanFactory.getBeanProvider(SignedTokenVerifier.class),
+                beanFactory.getBeanProvider(LastKnownGoodTokens.class),
+                new GatewayMetrics(new SimpleMeterRegistry()));
+
+        request = new MockHttpServletRequest("GET", "/items/123");
+        request.addHeader("Host", "shop.example.com");
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        request.addHeader("Accept", "application/json, text/plain, */*");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        request.addHeader("Accept-Language", "en-US,en;q=0.9");
+        request.addHeader("User-Agent",
+                "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0 Safari/537.36");
+        request.addHeader("Referer", "https://shop.example.com/items");
+        request.addHeader("Origin", "https://shop.example.com");
+        request.addHeader("Connection", "keep-alive");
+        request.addHeader("Cache-Control", "no-cache");
+        request.addHeader("X-Forwarded-For", "203.0.113.7, 10.0.0.2");
+        request.addHeader("X-Forwarded-Proto", "https");
+        request.addHeader("X-Request-Id", "7f3c2a9e-5d41-4b8e-9a61-0c2f5e8d1b37");
+        request.addHeader("Sec-Fetch-Mode", "cors");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void authenticate(Blackhole blackhole) throws ServletException, IOException {
+        filter.doFilter(request, response, downstream(blackhole));
+    }
+
+    @Benchmark
+    public String sanitizeUsername() {
+        return tokenSanitizer.sanitizeUsername("john.doe");
+    }
+
+    private static FilterChain downstream(Blackhole blackhole) {
+        return (servletRequest, servletResponse) -> {
+            HttpServletRequest forwarded = (HttpServletRequest) servletRequest;
+            Enumeration<String> names = forwarded.getHeaderNames();
+            while (names.hasMoreElements()) {
+                Enumeration<String> values = forwarded.getHeaders(names.nextElement());
+                while (values.hasMoreElements()) {
+                    blackhole.consume(values.nextElement());
+                }
+            }
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthenticationFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,82 @@
+package com.onlineshop.gateway.benchmark;
+
+import com.onlineshop.gateway.dto.ErrorResponse;
+import com.onlineshop.gateway.filter.ErrorResponseTemplate;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rejecting a request with a 429 body: serializing an {@link ErrorResponse} through the response writer
+ * per request (the previous filter code) vs. splicing the path into an {@link ErrorResponseTemplate}.
+ *
+ * <p>Each invocation writes into a fresh {@link MockHttpServletResponse}, whose allocation is the same for both.
+ * Run from {@code api-gateway/} after {@code mvn test-compile}:</p>
+ * <pre>
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.onlineshop.gateway.benchmark.ErrorResponseBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    private static final String DETAIL = "Rate limit exceeded. Please try again later.";
+    private static final String PATH = "/items/550e8400-e29b-41d4-a716-446655440000";
+
+    private ObjectMapper objectMapper;
+    private ErrorResponseTemplate template;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+        template = ErrorResponseTemplate.of(objectMapper, ErrorResponse.tooManyRequests(DETAIL, null));
+    }
+
+    @Benchmark
+    public HttpServletResponse jacksonWriter() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(429);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(objectMapper.writeValueAsString(ErrorResponse.tooManyRequests(DETAIL, PATH)));
+        return response;
+    }
+
+    @Benchmark
+    public HttpServletResponse template() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        template.write(response, PATH);
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ErrorResponseBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,137 @@
+package com.onlineshop.gateway.benchmark;
+
+import com.onlineshop.gateway.dto.ValidateResponse;
+import com.onlineshop.gateway.metrics.GatewayMetrics;
+import com.onlineshop.gateway.service.AuthServiceClient;
+import com.onlineshop.gateway.service.AuthValidationService;
+import com.onlineshop.gateway.service.CachingTokenValidator;
+import com.onlineshop.gateway.service.LastKnownGoodTokens;
+import com.onlineshop.gateway.service.TokenRefreshLoader;
+import com.onlineshop.gateway.service.TokenValidator;
+import com.onlineshop.gateway.validation.TokenSanitizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of the cache front on an L1 hit: the {@code @Cacheable} proxy of
+ * {@link AuthValidationService} (SpEL key, cache interceptor, AOP) vs. {@link CachingTokenValidator}.
+ *
+ * <p>Both run against the same in-memory cache so the difference is the front alone. Run from
+ * {@code api-gateway/} after {@code mvn test-compile}:</p>
+ * <pre>
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.onlineshop.gateway.benchmark.TokenValidatorBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenValidatorBenchmark {
+
+    private static final String TOKEN = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    private AnnotationConfigApplicationContext context;
+    private TokenValidator annotationDriven;
+    private TokenValidator programmatic;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(BenchmarkConfig.class);
+        annotationDriven = context.getBean(AuthValidationService.class);
+        programmatic = context.getBean(CachingTokenValidator.class);
+
+        // Warm the cache so every benchmark call is an L1 hit
+        annotationDriven.validateToken(TOKEN);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ValidateResponse annotationDriven() {
+        return annotationDriven.validateToken(TOKEN);
+    }
+
+    @Benchmark
+    public ValidateResponse programmatic() {
+        return programmatic.validateToken(TOKEN);
+    }
+
+    @Configuration
+    @EnableCaching(proxyTargetClass = true)
+    static class BenchmarkConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("auth-tokens");
+        }
+
+        @Bean
+        AuthServiceClient authServiceClient() {
+            ValidateResponse response = ValidateResponse.builder().valid(true).userId(1L).username("john").build();
+            return token -> CompletableFuture.completedFuture(response);
+        }
+
+        @Bean
+        GatewayMetrics gatewayMetrics() {
+            return new GatewayMetrics(new SimpleMeterRegistry());
+        }
+
+        @Bean
+        TokenSanitizer tokenSanitizer() {
+            return new TokenSanitizer();
+        }
+
+        @Bean
+        AuthValidationService authValidationService(
+                AuthServiceClient authServiceClient, TokenSanitizer tokenSanitizer, GatewayMetrics metrics,
+                ObjectProvider<LastKnownGoodTokens> lastKnownGood, ObjectProvider<TokenRefreshLoader> refreshLoader) {
+            return new AuthValidationService(authServiceClient, tokenSanitizer, metrics, lastKnownGood, refreshLoader);
+        }
+
+        @Bean
+        CachingTokenValidator cachingTokenValidator(CacheManager cacheManager,
+                AuthServiceClient authServiceClient, TokenSanitizer tokenSanitizer, GatewayMetrics metrics,
+                ObjectProvider<LastKnownGoodTokens> lastKnownGood, ObjectProvider<TokenRefreshLoader> refreshLoader) {
+            return new CachingTokenValidator(cacheManager, authServiceClient, tokenSanitizer, metrics, lastKnownGood,
+                    refreshLoader);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenValidatorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
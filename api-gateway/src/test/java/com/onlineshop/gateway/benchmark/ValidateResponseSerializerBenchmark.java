@@ -0,0 +1,119 @@
+package com.onlineshop.gateway.benchmark;
+
+import com.onlineshop.common.util.TokenHasher;
+import com.onlineshop.gateway.cache.TokenHashKeyRedisSerializer;
+import com.onlineshop.gateway.cache.ValidateResponseRedisSerializer;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.JacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of the L2 token cache formats: Jackson JSON vs. the fixed-layout binary one.
+ *
+ * <p>Run from {@code api-gateway/} after {@code mvn test-compile}:</p>
+ * <pre>
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.onlineshop.gateway.benchmark.ValidateResponseSerializerBenchmark
+ * </pre>
+ * <p>Entry and key sizes are printed before the benchmarks start. Add {@code -prof gc} via the JMH
+ * command line to compare allocation per operation as well.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidateResponseSerializerBenchmark {
+
+    private static final String CACHE_KEY = "l2-auth-tokens::" + TokenHasher.hash("550e8400-e29b-41d4-a716-446655440000");
+
+    private final RedisSerializer<ValidateResponse> json = new JacksonJsonRedisSerializer<>(ValidateResponse.class);
+    private final RedisSerializer<ValidateResponse> binary = new ValidateResponseRedisSerializer();
+    private final RedisSerializer<String> stringKey = new StringRedisSerializer();
+    private final RedisSerializer<String> binaryKey = new TokenHashKeyRedisSerializer();
+
+    private ValidateResponse response;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setUp() {
+        response = sampleResponse();
+        jsonBytes = json.serialize(response);
+        binaryBytes = binary.serialize(response);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return json.serialize(response);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return binary.serialize(response);
+    }
+
+    @Benchmark
+    public ValidateResponse decodeJson() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public ValidateResponse decodeBinary() {
+        return binary.deserialize(binaryBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeStringKey() {
+        return stringKey.serialize(CACHE_KEY);
+    }
+
+    @Benchmark
+    public byte[] encodeBinaryKey() {
+        return binaryKey.serialize(CACHE_KEY);
+    }
+
+    private static ValidateResponse sampleResponse() {
+        Instant createdAt = Instant.parse("2026-01-01T12:00:00Z");
+        return ValidateResponse.builder()
+                .valid(true)
+                .userId(123456L)
+                .username("john.doe@example.com")
+                .createdAt(createdAt)
+                .expiresAt(createdAt.plusSeconds(3600))
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ValidateResponse response = sampleResponse();
+        System.out.printf("Value size: json=%d bytes, binary=%d bytes%n",
+                new JacksonJsonRedisSerializer<>(ValidateResponse.class).serialize(response).length,
+                new ValidateResponseRedisSerializer().serialize(response).length);
+        System.out.printf("Key size:   string=%d bytes, binary=%d bytes%n",
+                new StringRedisSerializer().serialize(CACHE_KEY).length,
+                new TokenHashKeyRedisSerializer().serialize(CACHE_KEY).length);
+
+        new Runner(new OptionsBuilder()
+                .include(ValidateResponseSerializerBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
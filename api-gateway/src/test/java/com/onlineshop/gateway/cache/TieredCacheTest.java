@@ -0,0 +1,366 @@
+package com.onlineshop.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TieredCacheTest {
+
+    private static final String KEY = "token-hash";
+
+    private MeterRegistry meterRegistry;
+    private Cache l1Cache;
+    private Cache l2Cache;
+    private Cache negativeL1Cache;
+    private Cache negativeL2Cache;
+    private TieredCache tieredCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        l1Cache = new ConcurrentMapCache("l1-test");
+        l2Cache = new ConcurrentMapCache("l2-test");
+        negativeL1Cache = new ConcurrentMapCache("l1-test-negative");
+        negativeL2Cache = new ConcurrentMapCache("l2-test-negative");
+        tieredCache = new TieredCache(
+                "test",
+                l1Cache,
+                l2Cache,
+                CircuitBreaker.ofDefaults("test"),
+                Runnable::run,
+                value -> value instanceof String s && !s.startsWith("invalid"),
+                TieredCache.Options.NONE.withNegativeTier(new TieredCache.NegativeTier(
+                        negativeL1Cache,
+                        negativeL2Cache,
+                        value -> value instanceof String s && s.startsWith("invalid"))),
+                meterRegistry);
+    }
+
+    @Test
+    void shouldCoalesceConcurrentMissesIntoSingleLoad() throws Exception {
+        // Given
+        int callers = 20;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        // When
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> tieredCache.get(KEY, () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                releaseLoader.await();
+                return "user-1";
+            })));
+        }
+        assertThat(loaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitCoalescedLoads(callers - 1);
+        releaseLoader.countDown();
+
+        // Then
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+        }
+        executor.shutdown();
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(coalescedCounter().count()).isEqualTo(callers - 1);
+        assertThat(l1Cache.get(KEY).get()).isEqualTo("user-1");
+        assertThat(l2Cache.get(KEY).get()).isEqualTo("user-1");
+    }
+
+    @Test
+    void shouldPropagateLeaderFailureToWaiters() throws Exception {
+        // Given
+        IllegalStateException failure = new IllegalStateException("auth down");
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        // When
+        Future<String> leader = executor.submit(() -> tieredCache.get(KEY, () -> {
+            loaderStarted.countDown();
+            releaseLoader.await();
+            throw failure;
+        }));
+        assertThat(loaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<String> waiter = executor.submit(() -> tieredCache.get(KEY, () -> "unexpected"));
+        awaitCoalescedLoads(1);
+        releaseLoader.countDown();
+
+        // Then
+        for (Future<String> result : List.of(leader, waiter)) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(Cache.ValueRetrievalException.class)
+                    .hasRootCause(failure);
+        }
+        executor.shutdown();
+        assertThat(l1Cache.get(KEY)).isNull();
+    }
+
+    @Test
+    void shouldPromoteL2HitWithoutCallingLoader() {
+        // Given
+        l2Cache.put(KEY, "user-1");
+
+        // When
+        String value = tieredCache.get(KEY, () -> {
+            throw new AssertionError("loader must not be called on L2 hit");
+        });
+
+        // Then
+        assertThat(value).isEqualTo("user-1");
+        assertThat(l1Cache.get(KEY).get()).isEqualTo("user-1");
+    }
+
+    @Test
+    void shouldNotStoreValuesRejectedByCacheablePredicate() {
+        // When
+        Integer value = tieredCache.get(KEY, () -> 42);
+
+        // Then
+        assertThat(value).isEqualTo(42);
+        assertThat(l1Cache.get(KEY)).isNull();
+        assertThat(l2Cache.get(KEY)).isNull();
+        assertThat(negativeL1Cache.get(KEY)).isNull();
+    }
+
+    @Test
+    void shouldServeRepeatedNegativeResultFromNegativeTier() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        String first = tieredCache.get(KEY, () -> {
+            loads.incrementAndGet();
+            return "invalid-token";
+        });
+        String second = tieredCache.get(KEY, () -> {
+            loads.incrementAndGet();
+            return "invalid-token";
+        });
+
+        // Then
+        assertThat(first).isEqualTo("invalid-token");
+        assertThat(second).isEqualTo("invalid-token");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(l1Cache.get(KEY)).isNull();
+        assertThat(l2Cache.get(KEY)).isNull();
+        assertThat(negativeL1Cache.get(KEY).get()).isEqualTo("invalid-token");
+        assertThat(negativeL2Cache.get(KEY).get()).isEqualTo("invalid-token");
+    }
+
+    @Test
+    void shouldPromoteNegativeL2HitToNegativeL1() {
+        // Given
+        negativeL2Cache.put(KEY, "invalid-token");
+
+        // When
+        String value = tieredCache.get(KEY, () -> {
+            throw new AssertionError("loader must not be called on negative L2 hit");
+        });
+
+        // Then
+        assertThat(value).isEqualTo("invalid-token");
+        assertThat(negativeL1Cache.get(KEY).get()).isEqualTo("invalid-token");
+    }
+
+    @Test
+    void shouldEvictFromBothPositiveAndNegativeTiers() {
+        // Given
+        l1Cache.put(KEY, "user-1");
+        negativeL1Cache.put(KEY, "invalid-token");
+        negativeL2Cache.put(KEY, "invalid-token");
+
+        // When
+        tieredCache.evict(KEY);
+
+        // Then
+        assertThat(l1Cache.get(KEY)).isNull();
+        assertThat(negativeL1Cache.get(KEY)).isNull();
+        assertThat(negativeL2Cache.get(KEY)).isNull();
+    }
+
+    @Test
+    void shouldRefreshAheadEntriesCloseToExpiryWhileServingCurrentValue() throws Exception {
+        // Given
+        Cache caffeineL1 = new CaffeineCache("l1-test", Caffeine.newBuilder()
+                .expireAfter(Expiry.writing((Object key, Object value) -> Duration.ofSeconds(5)))
+                .build());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CountDownLatch refreshed = new CountDownLatch(1);
+        TieredCache.RefreshLoader loader = key -> {
+            refreshed.countDown();
+            return "user-1-refreshed";
+        };
+        TieredCache refreshingCache = new TieredCache(
+                "refreshing",
+                caffeineL1,
+                l2Cache,
+                CircuitBreaker.ofDefaults("refreshing"),
+                Runnable::run,
+                value -> value instanceof String s && !s.startsWith("invalid"),
+                TieredCache.Options.NONE.withRefreshAhead(
+                        new TieredCache.RefreshAhead(Duration.ofSeconds(10), value -> true, loader, executor)),
+                meterRegistry);
+        caffeineL1.put(KEY, "user-1");
+
+        // When - the caller's loader is only valid for its own call and must not be reused
+        String value = refreshingCache.get(KEY, () -> {
+            throw new AssertionError("refresh must go through the registered loader");
+        });
+
+        // Then
+        assertThat(value).isEqualTo("user-1");
+        assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitRefreshes("refreshing", 1);
+        executor.shutdown();
+        assertThat(caffeineL1.get(KEY).get()).isEqualTo("user-1-refreshed");
+        assertThat(l2Cache.get(KEY).get()).isEqualTo("user-1-refreshed");
+    }
+
+    @Test
+    void shouldNotRefreshEntriesOutsideRefreshWindow() {
+        // Given
+        Cache caffeineL1 = new CaffeineCache("l1-test", Caffeine.newBuilder()
+                .expireAfter(Expiry.writing((Object key, Object value) -> Duration.ofMinutes(5)))
+                .build());
+        TieredCache refreshingCache = new TieredCache(
+                "refreshing",
+                caffeineL1,
+                l2Cache,
+                CircuitBreaker.ofDefaults("refreshing"),
+                Runnable::run,
+                value -> true,
+                TieredCache.Options.NONE.withRefreshAhead(new TieredCache.RefreshAhead(Duration.ofSeconds(10),
+                        value -> true, key -> {
+                            throw new AssertionError("loader must not be called outside the refresh window");
+                        }, Runnable::run)),
+                meterRegistry);
+        caffeineL1.put(KEY, "user-1");
+
+        // When
+        String value = refreshingCache.get(KEY, () -> "user-1-loaded");
+
+        // Then
+        assertThat(value).isEqualTo("user-1");
+    }
+
+    @Test
+    void shouldDiscardRefreshOfKeyEvictedWhileReloading() {
+        // Given - the loader stands in for a logout evicting the key while Auth is being asked
+        Cache caffeineL1 = new CaffeineCache("l1-test", Caffeine.newBuilder()
+                .expireAfter(Expiry.writing((Object key, Object value) -> Duration.ofSeconds(5)))
+                .build());
+        AtomicReference<TieredCache> cache = new AtomicReference<>();
+        TieredCache.RefreshLoader loader = key -> {
+            cache.get().evict(key);
+            return "user-1-refreshed";
+        };
+        cache.set(new TieredCache(
+                "refreshing",
+                caffeineL1,
+                l2Cache,
+                CircuitBreaker.ofDefaults("refreshing"),
+                Runnable::run,
+                value -> true,
+                TieredCache.Options.NONE.withRefreshAhead(
+                        new TieredCache.RefreshAhead(Duration.ofSeconds(10), value -> true, loader, Runnable::run)),
+                meterRegistry));
+        caffeineL1.put(KEY, "user-1");
+        l2Cache.put(KEY, "user-1");
+
+        // When
+        String value = cache.get().get(KEY, () -> "user-1-loaded");
+
+        // Then
+        assertThat(value).isEqualTo("user-1");
+        assertThat(caffeineL1.get(KEY)).isNull();
+        assertThat(l2Cache.get(KEY)).isNull();
+    }
+
+    @Test
+    void shouldBroadcastEvictionToOtherInstancesL1() {
+        // Given - two gateway instances sharing L2 and an invalidation bus
+        InProcessCacheInvalidationBus bus = new InProcessCacheInvalidationBus();
+        Cache otherL1 = new ConcurrentMapCache("l1-other");
+        TieredCache local = new TieredCache("test", l1Cache, l2Cache, CircuitBreaker.ofDefaults("local"),
+                Runnable::run, value -> true,
+                TieredCache.Options.NONE.withInvalidationBroadcast(
+                        new TieredCache.InvalidationBroadcast(bus, "instance-a")),
+                meterRegistry);
+        TieredCache other = new TieredCache("test", otherL1, l2Cache, CircuitBreaker.ofDefaults("other"),
+                Runnable::run, value -> true,
+                TieredCache.Options.NONE.withInvalidationBroadcast(
+                        new TieredCache.InvalidationBroadcast(bus, "instance-b")),
+                meterRegistry);
+        List<CacheInvalidation> received = new ArrayList<>();
+        bus.subscribe(invalidation -> {
+            received.add(invalidation);
+            if (!"instance-b".equals(invalidation.origin())) {
+                other.evictLocal(invalidation.key());
+            }
+        });
+        local.put(KEY, "user-1");
+        otherL1.put(KEY, "user-1");
+
+        // When
+        local.evict(KEY);
+
+        // Then
+        assertThat(l1Cache.get(KEY)).isNull();
+        assertThat(l2Cache.get(KEY)).isNull();
+        assertThat(otherL1.get(KEY)).isNull();
+        assertThat(received).containsExactly(new CacheInvalidation("instance-a", "test", KEY));
+    }
+
+    private void awaitRefreshes(String cacheName, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            Counter counter = meterRegistry.find("gateway.cache.refresh.total")
+                    .tag("cache", cacheName)
+                    .tag("result", "success")
+                    .counter();
+            if (counter != null && counter.count() >= expected) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitCoalescedLoads(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescedCounter().count() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private Counter coalescedCounter() {
+        return meterRegistry.find("gateway.cache.coalesced.total")
+                .tag("cache", "test")
+                .counter();
+    }
+}
@@ -0,0 +1,91 @@
+package com.onlineshop.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenExpiryPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+    private static final Duration MAX_TTL = Duration.ofMinutes(5);
+
+    private final TokenExpiryPolicy policy =
+            new TokenExpiryPolicy(Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofSeconds(30));
+
+    @Test
+    void shouldExpireWithTokenMinusSkewMargin() {
+        // Given
+        ValidateResponse response = validUntil(NOW.plusSeconds(90));
+
+        // When
+        Duration ttl = policy.timeToLive(response, MAX_TTL);
+
+        // Then
+        assertThat(ttl).isEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Test
+    void shouldCapLongLivedTokensAtMaximum() {
+        // Given
+        ValidateResponse response = validUntil(NOW.plus(Duration.ofHours(1)));
+
+        // When
+        Duration ttl = policy.timeToLive(response, MAX_TTL);
+
+        // Then
+        assertThat(ttl).isEqualTo(MAX_TTL);
+    }
+
+    @Test
+    void shouldNeverReturnZeroOrNegativeTtlForExpiredTokens() {
+        // Given
+        ValidateResponse response = validUntil(NOW.minusSeconds(10));
+
+        // When
+        Duration ttl = policy.timeToLive(response, MAX_TTL);
+
+        // Then
+        assertThat(ttl).isEqualTo(Duration.ofMillis(1));
+    }
+
+    @Test
+    void shouldFallBackToMaximumWithoutExpiry() {
+        // Given
+        ValidateResponse response = ValidateResponse.builder().valid(false).build();
+
+        // When / Then
+        assertThat(policy.timeToLive(response, MAX_TTL)).isEqualTo(MAX_TTL);
+        assertThat(policy.timeToLive("not-a-response", MAX_TTL)).isEqualTo(MAX_TTL);
+    }
+
+    @Test
+    void shouldUseSameLifetimeForCaffeineAndRedis() {
+        // Given
+        ValidateResponse response = validUntil(NOW.plusSeconds(90));
+        Expiry<String, ValidateResponse> expiry = policy.caffeineExpiry(MAX_TTL);
+
+        // When
+        long caffeineNanos = expiry.expireAfterCreate("key", response, 0L);
+        Duration redisTtl = policy.redisTtl(MAX_TTL).getTimeToLive("key", response);
+
+        // Then
+        assertThat(Duration.ofNanos(caffeineNanos)).isEqualTo(redisTtl);
+        assertThat(expiry.expireAfterRead("key", response, 0L, 42L)).isEqualTo(42L);
+    }
+
+    private static ValidateResponse validUntil(Instant expiresAt) {
+        return ValidateResponse.builder()
+                .valid(true)
+                .userId(1L)
+                .username("john")
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
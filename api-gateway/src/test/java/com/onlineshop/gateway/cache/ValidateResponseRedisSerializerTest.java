@@ -0,0 +1,149 @@
+package com.onlineshop.gateway.cache;
+
+import com.onlineshop.common.util.TokenHasher;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ValidateResponseRedisSerializerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    private final ValidateResponseRedisSerializer serializer = new ValidateResponseRedisSerializer();
+    private final TokenHashKeyRedisSerializer keySerializer = new TokenHashKeyRedisSerializer();
+
+    @Test
+    void shouldRoundTripValidResponse() {
+        // Given
+        ValidateResponse response = ValidateResponse.builder()
+                .valid(true)
+                .userId(123456L)
+                .username("jöhn.doe")
+                .createdAt(NOW)
+                .expiresAt(NOW.plusSeconds(3600))
+                .build();
+
+        // When
+        byte[] bytes = serializer.serialize(response);
+
+        // Then
+        assertThat(serializer.deserialize(bytes)).isEqualTo(response);
+        assertThat(bytes.length).isLessThan(new JacksonJsonRedisSerializer<>(ValidateResponse.class)
+                .serialize(response).length);
+    }
+
+    @Test
+    void shouldRoundTripResponseWithMissingFields() {
+        // Given
+        ValidateResponse response = ValidateResponse.builder().valid(false).userId(-1L).build();
+
+        // When
+        ValidateResponse result = serializer.deserialize(serializer.serialize(response));
+
+        // Then
+        assertThat(result).isEqualTo(response);
+    }
+
+    @Test
+    void shouldRoundTripPlan() {
+        // Given
+        ValidateResponse response = ValidateResponse.builder()
+                .valid(true)
+                .userId(7L)
+                .username("jane")
+                .expiresAt(NOW)
+                .plan("premium")
+                .build();
+
+        // When
+        ValidateResponse result = serializer.deserialize(serializer.serialize(response));
+
+        // Then
+        assertThat(result).isEqualTo(response);
+    }
+
+    @Test
+    void shouldSkipFieldsAppendedByNewerVersions() {
+        // Given - a version 4 entry: the version 2 layout followed by a field this reader does not know
+        ValidateResponse response = ValidateResponse.builder().valid(true).userId(7L).expiresAt(NOW).plan("premium")
+                .build();
+        byte[] bytes = serializer.serialize(response);
+        byte[] newer = Arrays.copyOf(bytes, bytes.length + 3);
+        newer[0] = (byte) ((newer[0] & 0b0001_1111) | 4 << 5);
+        newer[bytes.length] = 2;
+
+        // When
+        ValidateResponse result = serializer.deserialize(newer);
+
+        // Then
+        assertThat(result).isEqualTo(response);
+    }
+
+    @Test
+    void shouldLeavePlanOutWhenWritingVersion1() {
+        // Given
+        ValidateResponse response = ValidateResponse.builder().valid(true).userId(7L).plan("premium").build();
+
+        // When
+        byte[] bytes = new ValidateResponseRedisSerializer(1).serialize(response);
+
+        // Then
+        assertThat(bytes[0] & 0b1110_0000).isEqualTo(1 << 5);
+        assertThat(serializer.deserialize(bytes).getPlan()).isNull();
+    }
+
+    @Test
+    void shouldRejectJsonEntries() {
+        // Given - an entry written by the previous Jackson serializer
+        byte[] json = "{\"valid\":true}".getBytes(StandardCharsets.UTF_8);
+
+        // When / Then
+        assertThatThrownBy(() -> serializer.deserialize(json))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void shouldRejectTruncatedEntries() {
+        // Given
+        byte[] bytes = serializer.serialize(ValidateResponse.builder().valid(true).expiresAt(NOW).build());
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+
+        // When / Then
+        assertThatThrownBy(() -> serializer.deserialize(truncated))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void shouldPackTokenHashKeysIntoRawDigest() {
+        // Given
+        String key = "l2-auth-tokens::" + TokenHasher.hash("token");
+
+        // When
+        byte[] bytes = keySerializer.serialize(key);
+
+        // Then
+        assertThat(bytes).hasSize("l2-auth-tokens::".length() + 32);
+        assertThat(keySerializer.deserialize(bytes)).isEqualTo(key);
+    }
+
+    @Test
+    void shouldKeepNonHashKeysAsText() {
+        // Given - the pattern RedisCache uses for clear()
+        String pattern = "l2-auth-tokens::*";
+
+        // When
+        byte[] bytes = keySerializer.serialize(pattern);
+
+        // Then
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(pattern);
+        assertThat(keySerializer.deserialize(bytes)).isEqualTo(pattern);
+    }
+}
@@ -0,0 +1,61 @@
+package com.onlineshop.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthenticatedUserRequestTest {
+
+    @Test
+    void shouldOverlayUserHeadersCaseInsensitively() {
+        // Given
+        MockHttpServletRequest original = new MockHttpServletRequest("GET", "/items");
+        original.addHeader("Accept", "application/json");
+
+        // When
+        AuthenticatedUserRequest request = new AuthenticatedUserRequest(original, "42", "john", false);
+
+        // Then
+        assertThat(request.getHeader("X-User-Id")).isEqualTo("42");
+        assertThat(request.getHeader("x-username")).isEqualTo("john");
+        assertThat(request.getHeader("Accept")).isEqualTo("application/json");
+        assertThat(request.getHeader("X-Auth-Stale")).isNull();
+    }
+
+    @Test
+    void shouldHideClientSuppliedUserHeaders() {
+        // Given
+        MockHttpServletRequest original = new MockHttpServletRequest("GET", "/items");
+        original.addHeader("X-User-Id", "1");
+        original.addHeader("X-User-Id", "2");
+        original.addHeader("X-Auth-Stale", "true");
+
+        // When
+        AuthenticatedUserRequest request = new AuthenticatedUserRequest(original, "42", "john", false);
+
+        // Then
+        assertThat(Collections.list(request.getHeaders("X-User-Id"))).containsExactly("42");
+        assertThat(request.getHeader("X-Auth-Stale")).isNull();
+        assertThat(request.getHeaders("X-Auth-Stale").hasMoreElements()).isFalse();
+    }
+
+    @Test
+    void shouldListEveryHeaderNameOnce() {
+        // Given
+        MockHttpServletRequest original = new MockHttpServletRequest("GET", "/items");
+        original.addHeader("Accept", "application/json");
+        original.addHeader("X-User-Id", "1");
+        original.addHeader("User-Agent", "k6");
+
+        // When
+        List<String> names = Collections.list(
+                new AuthenticatedUserRequest(original, "42", "john", true).getHeaderNames());
+
+        // Then
+        assertThat(names).containsExactly("X-User-Id", "X-Username", "X-Auth-Stale", "Accept", "User-Agent");
+    }
+}
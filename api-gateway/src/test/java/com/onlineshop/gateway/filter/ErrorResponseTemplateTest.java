@@ -0,0 +1,68 @@
+package com.onlineshop.gateway.filter;
+
+import com.onlineshop.gateway.dto.ErrorResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorResponseTemplateTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @Test
+    void shouldWriteSameBodyAsJackson() throws IOException {
+        // Given
+        ErrorResponseTemplate template = ErrorResponseTemplate.of(objectMapper,
+                ErrorResponse.unauthorized("Invalid or expired token", null));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        template.write(response, "/items/123");
+
+        // Then
+        byte[] expected = objectMapper.writeValueAsBytes(ErrorResponse.unauthorized("Invalid or expired token",
+                "/items/123"));
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(response.getContentLength()).isEqualTo(expected.length);
+        assertThat(response.getContentAsByteArray()).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldEscapeInstanceIntoValidJson() {
+        // Given
+        ErrorResponseTemplate template = ErrorResponseTemplate.of(objectMapper,
+                ErrorResponse.tooManyRequests("Rate limit exceeded. Please try again later.", null));
+        String path = "/items/\"quoted\"\\back\u0001/caf\u00e9";
+
+        // When
+        byte[] body = template.render(path);
+
+        // Then
+        ErrorResponse parsed = objectMapper.readValue(body, ErrorResponse.class);
+        assertThat(parsed.getInstance()).isEqualTo(path);
+        assertThat(parsed.getStatus()).isEqualTo(429);
+        assertThat(new String(body, StandardCharsets.UTF_8)).contains("caf\u00e9");
+    }
+
+    @Test
+    void shouldOmitNullInstanceAsJacksonDoes() {
+        // Given
+        ErrorResponse error = ErrorResponse.serviceUnavailable("Authentication service is temporarily unavailable",
+                null);
+        ErrorResponseTemplate template = ErrorResponseTemplate.of(objectMapper, error);
+
+        // When
+        byte[] body = template.render(null);
+
+        // Then
+        assertThat(body).isEqualTo(objectMapper.writeValueAsBytes(error));
+    }
+}
@@ -0,0 +1,157 @@
+package com.onlineshop.gateway.ratelimit;
+
+import com.onlineshop.gateway.metrics.GatewayMetrics;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.proxy.AsyncProxyManager;
+import io.github.bucket4j.distributed.proxy.RemoteAsyncBucketBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HybridRateLimiterTest {
+
+    private static final String CLIENT = "user:1";
+    private static final RateLimitTier TIER = new RateLimitTier("authenticated", BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(100).refillIntervally(100, Duration.ofMinutes(1)))
+            .build(), 1L);
+    private static final RateLimitTier SMALL_TIER = new RateLimitTier("anonymous", BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofMinutes(1)))
+            .build(), 1L);
+
+    private MeterRegistry meterRegistry;
+    private AtomicLong redisTokens;
+    private AtomicInteger redisCalls;
+    private AsyncProxyManager<String> proxyManager;
+    private HybridRateLimiter limiter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        redisTokens = new AtomicLong(25);
+        redisCalls = new AtomicInteger();
+
+        AsyncBucketProxy bucket = mock(AsyncBucketProxy.class);
+        when(bucket.tryConsumeAsMuchAsPossible(anyLong())).thenAnswer(invocation -> {
+            redisCalls.incrementAndGet();
+            long requested = invocation.getArgument(0);
+            long granted = Math.min(requested, redisTokens.get());
+            redisTokens.addAndGet(-granted);
+            return CompletableFuture.completedFuture(granted);
+        });
+        when(bucket.addTokens(anyLong())).thenAnswer(invocation -> {
+            redisTokens.addAndGet(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(null);
+        });
+        RemoteAsyncBucketBuilder<String> builder = mock(RemoteAsyncBucketBuilder.class);
+        when(builder.withImplicitConfigurationReplacement(anyLong(), any(TokensInheritanceStrategy.class)))
+                .thenReturn(builder);
+        when(builder.build(anyString(), any(Supplier.class))).thenReturn(bucket);
+        proxyManager = mock(AsyncProxyManager.class);
+        when(proxyManager.builder()).thenReturn(builder);
+
+        limiter = new HybridRateLimiter(proxyManager, new GatewayMetrics(meterRegistry), 10, 1,
+                Duration.ofSeconds(5), 1000);
+    }
+
+    @Test
+    void shouldCallRedisOncePerBatch() {
+        // When
+        for (int i = 0; i < 20; i++) {
+            assertThat(consume()).isTrue();
+        }
+
+        // Then
+        assertThat(redisCalls).hasValue(2);
+        assertThat(decisions(HybridRateLimiter.SOURCE_LOCAL, "allowed")).isEqualTo(18);
+    }
+
+    @Test
+    void shouldRejectOnceRedisBucketIsDrained() {
+        // When
+        int allowed = 0;
+        for (int i = 0; i < 30; i++) {
+            if (consume()) {
+                allowed++;
+            }
+        }
+
+        // Then - never more than Redis granted, and no Redis call per rejection once it is known to be drained
+        assertThat(allowed).isEqualTo(25);
+        assertThat(redisCalls).hasValue(3);
+        assertThat(decisions(HybridRateLimiter.SOURCE_LOCAL, "rejected")).isEqualTo(5);
+    }
+
+    @Test
+    void shouldAdmitClientWithinItsLimitAcrossInstances() {
+        // Given - two instances sharing one bucket of 10, and a client sending 10 requests to them in turn
+        redisTokens.set(10);
+        HybridRateLimiter local = new HybridRateLimiter(proxyManager, new GatewayMetrics(meterRegistry), 10, 2,
+                Duration.ofSeconds(5), 1000);
+        HybridRateLimiter other = new HybridRateLimiter(proxyManager, new GatewayMetrics(meterRegistry), 10, 2,
+                Duration.ofSeconds(5), 1000);
+
+        // When
+        int allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (consume(i % 2 == 0 ? local : other, SMALL_TIER)) {
+                allowed++;
+            }
+        }
+
+        // Then - neither instance borrowed tokens the other one needed
+        assertThat(local.batchFor(SMALL_TIER)).isEqualTo(1);
+        assertThat(allowed).isEqualTo(10);
+    }
+
+    @Test
+    void shouldReturnUnusedTokensWhenAllotmentExpires() throws InterruptedException {
+        // Given
+        HybridRateLimiter shortHold = new HybridRateLimiter(proxyManager, new GatewayMetrics(meterRegistry), 10, 1,
+                Duration.ofMillis(50), 1000);
+
+        // When - one request borrows a batch of 10 and uses one token
+        assertThat(consume(shortHold, TIER)).isTrue();
+
+        // Then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (redisTokens.get() != 24 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(redisTokens).hasValue(24);
+    }
+
+    private boolean consume() {
+        return consume(limiter, TIER);
+    }
+
+    private static boolean consume(HybridRateLimiter limiter, RateLimitTier tier) {
+        Boolean local = limiter.tryConsumeLocally(CLIENT);
+        return local != null ? local : limiter.tryConsumeRemotely(CLIENT, tier).join();
+    }
+
+    private double decisions(String source, String result) {
+        var counter = meterRegistry.find("gateway.ratelimit.decisions.total")
+                .tag("source", source)
+                .tag("result", result)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,99 @@
+package com.onlineshop.gateway.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitTiersTest {
+
+    private MockEnvironment environment;
+    private RateLimitTiers tiers;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+                .withProperty("gateway.ratelimit.anonymous.requests-per-minute", "3")
+                .withProperty("gateway.ratelimit.authenticated.requests-per-minute", "5")
+                .withProperty("gateway.ratelimit.plans.premium.requests-per-minute", "50");
+        RateLimitConfigProperties properties = new RateLimitConfigProperties(
+                new RateLimitConfigProperties.LimitSettings(3, 10),
+                new RateLimitConfigProperties.LimitSettings(5, 50),
+                Map.of("premium", new RateLimitConfigProperties.LimitSettings(50, 100)),
+                Map.of("items", new RateLimitConfigProperties.RouteLimitSettings("/items", 20, 20),
+                        "item-search", new RateLimitConfigProperties.RouteLimitSettings("/items/search", 2, 2)),
+                new RateLimitConfigProperties.LocalSettings(true, 10, 1, Duration.ofSeconds(5), 1000),
+                new RateLimitConfigProperties.RemoteSettings(Duration.ofMillis(50), true),
+                1000);
+        tiers = new RateLimitTiers(properties, environment);
+    }
+
+    @Test
+    void shouldPreferLongestRoutePrefixOverPlan() {
+        // When
+        RateLimitTier tier = tiers.resolve("/items/search/shoes", true, "premium");
+
+        // Then
+        assertThat(tier.name()).isEqualTo("route:item-search");
+        assertThat(tier.bucketKey("user:1")).isEqualTo("route:item-search:user:1");
+    }
+
+    @Test
+    void shouldFallBackFromPlanToAuthenticatedAndAnonymous() {
+        assertThat(tiers.resolve("/orders", true, "premium").name()).isEqualTo("plan:premium");
+        assertThat(tiers.resolve("/orders", true, "unknown").name()).isEqualTo("authenticated");
+        assertThat(tiers.resolve("/orders", false, null).name()).isEqualTo("anonymous");
+    }
+
+    @Test
+    void shouldUseBurstAsCapacityAndRefillAtRequestRate() {
+        // When
+        Bandwidth limit = tiers.resolve("/orders", true, "premium").configuration().getBandwidths()[0];
+
+        // Then
+        assertThat(limit.getCapacity()).isEqualTo(100);
+        assertThat(limit.getRefillTokens()).isEqualTo(50);
+        assertThat(limit.getRefillPeriodNanos()).isEqualTo(Duration.ofMinutes(1).toNanos());
+        assertThat(limit.isRefillIntervally()).isFalse();
+    }
+
+    @Test
+    void shouldReturnSameTierInstanceAcrossRequests() {
+        assertThat(tiers.resolve("/orders", true, null)).isSameAs(tiers.resolve("/cart", true, null));
+    }
+
+    @Test
+    void shouldRebuildTiersWhenRateLimitPropertiesChange() {
+        // Given
+        RateLimitTier before = tiers.resolve("/orders", true, null);
+        environment.setProperty("gateway.ratelimit.authenticated.requests-per-minute", "500");
+
+        // When
+        tiers.onEnvironmentChange(new EnvironmentChangeEvent(
+                Set.of("gateway.ratelimit.authenticated.requests-per-minute")));
+
+        // Then
+        RateLimitTier after = tiers.resolve("/orders", true, null);
+        assertThat(after.version()).isGreaterThan(before.version());
+        assertThat(after.configuration().getBandwidths()[0].getCapacity()).isEqualTo(500);
+    }
+
+    @Test
+    void shouldIgnoreUnrelatedPropertyChanges() {
+        // Given
+        RateLimitTier before = tiers.resolve("/orders", true, null);
+
+        // When
+        tiers.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("logging.level.root")));
+
+        // Then
+        assertThat(tiers.resolve("/orders", true, null)).isSameAs(before);
+    }
+}
@@ -0,0 +1,101 @@
+package com.onlineshop.gateway.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void shouldShedCallsOverTheLimitWithoutWaiting() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("auth", 2, 1, 10, 2.0, 0.2, 600);
+
+        // When
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire();
+        AdaptiveConcurrencyLimiter.Permit third = limiter.tryAcquire();
+
+        // Then
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(third).isNull();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        first.onIgnore();
+        assertThat(limiter.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void shouldGrowWhileLatencyStaysAtBaselineAndTheLimitIsUsed() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("auth", 10, 1, 100, 2.0, 0.2, 600);
+
+        // When - keep the limit saturated; samples complete at once, i.e. at a steady latency
+        for (int round = 0; round < 20; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = acquireAll(limiter);
+            permits.forEach(AdaptiveConcurrencyLimiter.Permit::onSuccess);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    void shouldNotGrowWhileMostOfTheLimitIsUnused() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("auth", 10, 1, 100, 2.0, 0.2, 600);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire().onSuccess();
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldBackOffOnDropsDownToMinimum() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("auth", 20, 5, 100, 2.0, 0.2, 600);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire().onComplete(new ResourceAccessException("Request timed out"));
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldTreatClientErrorsAsAnswersNotDrops() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("auth", 20, 5, 100, 2.0, 0.2, 600);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire().onComplete(new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    private static List<AdaptiveConcurrencyLimiter.Permit> acquireAll(AdaptiveConcurrencyLimiter limiter) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        AdaptiveConcurrencyLimiter.Permit permit;
+        while ((permit = limiter.tryAcquire()) != null) {
+            permits.add(permit);
+        }
+        return permits;
+    }
+}
@@ -0,0 +1,164 @@
+package com.onlineshop.gateway.service;
+
+import com.onlineshop.gateway.metrics.GatewayMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthRequestHedgerTest {
+
+    private MeterRegistry meterRegistry;
+    private ExecutorService executor;
+    private AuthRequestHedger hedger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedger.destroy();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldSendHedgeForSlowCallAndCancelTheLoser() throws InterruptedException {
+        // Given
+        hedger = newHedger(10);
+        warmUp();
+        CountDownLatch loserInterrupted = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        Supplier<String> call = () -> {
+            if (attempts.getAndIncrement() == 0) {
+                return sleepUntilInterrupted(loserInterrupted);
+            }
+            return "hedge";
+        };
+
+        // When
+        String result = hedger.call(call);
+
+        // Then
+        assertThat(result).isEqualTo("hedge");
+        assertThat(loserInterrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(hedges(AuthRequestHedger.RESULT_SENT)).isEqualTo(1);
+        assertThat(hedges(AuthRequestHedger.RESULT_WON)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotHedgeOnceBudgetIsSpent() {
+        // Given
+        hedger = newHedger(0);
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = hedger.call(() -> {
+            attempts.incrementAndGet();
+            sleep(Duration.ofMillis(100));
+            return "first";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("first");
+        assertThat(attempts).hasValue(1);
+        assertThat(hedges(AuthRequestHedger.RESULT_BUDGET_EXHAUSTED)).isEqualTo(1);
+        assertThat(hedges(AuthRequestHedger.RESULT_SENT)).isZero();
+    }
+
+    @Test
+    void shouldNotCountCancelledLoserAsDropByConcurrencyLimiter() throws InterruptedException {
+        // Given
+        hedger = newHedger(10);
+        warmUp();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("auth", 10, 1, 100, 2.0, 0.2, 600);
+        CountDownLatch loserReleased = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        Supplier<String> call = () -> {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+            try {
+                String value = attempts.getAndIncrement() == 0 ? exchangeUntilInterrupted() : "hedge";
+                permit.onSuccess();
+                return value;
+            } catch (RuntimeException e) {
+                permit.onComplete(e);
+                loserReleased.countDown();
+                throw e;
+            }
+        };
+
+        // When
+        String result = hedger.call(call);
+
+        // Then
+        assertThat(result).isEqualTo("hedge");
+        assertThat(loserReleased.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    private AuthRequestHedger newHedger(int maxBurst) {
+        return new AuthRequestHedger(executor, new GatewayMetrics(meterRegistry), 0.95, Duration.ofMillis(20),
+                5, maxBurst);
+    }
+
+    private void warmUp() {
+        // Just enough fast samples for a hedge delay (the 20ms floor) to be computed
+        for (int i = 0; i < 1025; i++) {
+            hedger.call(() -> "fast");
+        }
+    }
+
+    private static String sleepUntilInterrupted(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(Duration.ofSeconds(10));
+            return "first";
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            throw new IllegalStateException("Cancelled", e);
+        }
+    }
+
+    /**
+     * A blocking HTTP exchange as the JDK request factory reports an interrupt: the flag restored, and an
+     * IOException wrapped in a ResourceAccessException.
+     */
+    private static String exchangeUntilInterrupted() {
+        try {
+            Thread.sleep(Duration.ofSeconds(10));
+            return "first";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("I/O error", new IOException("Request was interrupted", e));
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double hedges(String result) {
+        var counter = meterRegistry.find("gateway.auth.client.hedges.total").tag("result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
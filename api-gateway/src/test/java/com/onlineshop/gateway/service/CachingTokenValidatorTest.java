@@ -0,0 +1,78 @@
+package com.onlineshop.gateway.service;
+
+import com.onlineshop.common.util.TokenHasher;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import com.onlineshop.gateway.exception.InvalidTokenFormatException;
+import com.onlineshop.gateway.exception.ServiceUnavailableException;
+import com.onlineshop.gateway.metrics.GatewayMetrics;
+import com.onlineshop.gateway.validation.TokenSanitizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingTokenValidatorTest {
+
+    private static final String TOKEN = "550e8400-e29b-41d4-a716-446655440000";
+
+    private CacheManager cacheManager;
+    private AtomicInteger authCalls;
+    private AtomicReference<CompletableFuture<ValidateResponse>> authResult;
+    private CachingTokenValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CachingTokenValidator.CACHE_NAME);
+        authCalls = new AtomicInteger();
+        authResult = new AtomicReference<>(CompletableFuture.completedFuture(
+                ValidateResponse.builder().valid(true).userId(1L).username("john").build()));
+        AuthServiceClient authServiceClient = token -> {
+            authCalls.incrementAndGet();
+            return authResult.get();
+        };
+        validator = new CachingTokenValidator(cacheManager, authServiceClient, new TokenSanitizer(),
+                new GatewayMetrics(new SimpleMeterRegistry()),
+                new StaticListableBeanFactory().getBeanProvider(LastKnownGoodTokens.class),
+                new StaticListableBeanFactory().getBeanProvider(TokenRefreshLoader.class));
+    }
+
+    @Test
+    void shouldCacheUnderTokenHashAndSkipAuthServiceOnHit() {
+        // When
+        ValidateResponse first = validator.validateToken(TOKEN);
+        ValidateResponse second = validator.validateToken(TOKEN);
+
+        // Then
+        assertThat(second).isEqualTo(first);
+        assertThat(authCalls).hasValue(1);
+        assertThat(cacheManager.getCache(CachingTokenValidator.CACHE_NAME).get(TokenHasher.hash(TOKEN)))
+                .isNotNull();
+    }
+
+    @Test
+    void shouldRethrowInvalidTokenFormat() {
+        // When / Then
+        assertThatThrownBy(() -> validator.validateToken(" "))
+                .isInstanceOf(InvalidTokenFormatException.class);
+        assertThat(authCalls).hasValue(0);
+    }
+
+    @Test
+    void shouldUnwrapAuthServiceFailures() {
+        // Given
+        authResult.set(CompletableFuture.failedFuture(new ServiceUnavailableException("Auth service is overloaded")));
+
+        // When / Then
+        assertThatThrownBy(() -> validator.validateToken(TOKEN))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+}
@@ -0,0 +1,97 @@
+package com.onlineshop.gateway.service;
+
+import com.onlineshop.common.util.TokenHasher;
+import com.onlineshop.gateway.cache.CacheInvalidation;
+import com.onlineshop.gateway.cache.CacheInvalidationBus;
+import com.onlineshop.gateway.cache.InProcessCacheInvalidationBus;
+import com.onlineshop.gateway.cache.TokenExpiryPolicy;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LastKnownGoodTokensTest {
+
+    private static final String TOKEN = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    private CacheInvalidationBus bus;
+    private LastKnownGoodTokens lastKnownGood;
+
+    @BeforeEach
+    void setUp() {
+        bus = new InProcessCacheInvalidationBus();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("cacheInvalidationBus", bus);
+        lastKnownGood = new LastKnownGoodTokens(
+                new TokenExpiryPolicy(Clock.systemUTC(), Duration.ofSeconds(30)),
+                beanFactory.getBeanProvider(CacheInvalidationBus.class),
+                Duration.ofMinutes(15), 1000);
+    }
+
+    @Test
+    void shouldReturnRecordedValidResponse() {
+        // Given
+        ValidateResponse response = validUntil(Instant.now().plus(Duration.ofHours(1)));
+
+        // When
+        lastKnownGood.record(TokenHasher.hash(TOKEN), response);
+
+        // Then
+        assertThat(lastKnownGood.get(TOKEN)).isSameAs(response);
+    }
+
+    @Test
+    void shouldIgnoreInvalidResponses() {
+        // When
+        lastKnownGood.record(TokenHasher.hash(TOKEN), ValidateResponse.builder().valid(false).build());
+
+        // Then
+        assertThat(lastKnownGood.get(TOKEN)).isNull();
+    }
+
+    @Test
+    void shouldDropEntryWhenAuthLaterRejectsToken() {
+        // Given
+        lastKnownGood.record(TokenHasher.hash(TOKEN), validUntil(Instant.now().plus(Duration.ofHours(1))));
+
+        // When - e.g. the session was ended by logout
+        lastKnownGood.record(TokenHasher.hash(TOKEN), ValidateResponse.builder().valid(false).build());
+
+        // Then
+        assertThat(lastKnownGood.get(TOKEN)).isNull();
+    }
+
+    @Test
+    void shouldNeverAnswerPastTokenExpiry() throws InterruptedException {
+        // Given - expires within the skew margin, so it may not be answered at all
+        lastKnownGood.record(TokenHasher.hash(TOKEN), validUntil(Instant.now().plusSeconds(10)));
+
+        // When
+        Thread.sleep(10);
+
+        // Then
+        assertThat(lastKnownGood.get(TOKEN)).isNull();
+    }
+
+    @Test
+    void shouldDropEntryEvictedOnInvalidationBus() {
+        // Given
+        lastKnownGood.record(TokenHasher.hash(TOKEN), validUntil(Instant.now().plus(Duration.ofHours(1))));
+
+        // When
+        bus.publish(new CacheInvalidation("other-instance", "auth-tokens", TokenHasher.hash(TOKEN)));
+
+        // Then
+        assertThat(lastKnownGood.get(TOKEN)).isNull();
+    }
+
+    private static ValidateResponse validUntil(Instant expiresAt) {
+        return ValidateResponse.builder().valid(true).userId(1L).username("john").expiresAt(expiresAt).build();
+    }
+}
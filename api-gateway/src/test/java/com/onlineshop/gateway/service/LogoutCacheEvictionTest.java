@@ -0,0 +1,92 @@
+package com.onlineshop.gateway.service;
+
+import com.onlineshop.common.util.TokenHasher;
+import com.onlineshop.gateway.cache.CacheInvalidationBus;
+import com.onlineshop.gateway.cache.InProcessCacheInvalidationBus;
+import com.onlineshop.gateway.cache.TokenExpiryPolicy;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogoutCacheEvictionTest {
+
+    private static final String TOKEN = "550e8400-e29b-41d4-a716-446655440000";
+
+    private Cache cache;
+    private LastKnownGoodTokens lastKnownGood;
+    private LogoutCacheEviction logoutCacheEviction;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(LogoutCacheEviction.CACHE_NAME);
+        cache = cacheManager.getCache(LogoutCacheEviction.CACHE_NAME);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("cacheInvalidationBus", new InProcessCacheInvalidationBus());
+        lastKnownGood = new LastKnownGoodTokens(
+                new TokenExpiryPolicy(Clock.systemUTC(), Duration.ofSeconds(30)),
+                beanFactory.getBeanProvider(CacheInvalidationBus.class),
+                Duration.ofMinutes(15), 1000);
+        beanFactory.addBean("lastKnownGoodTokens", lastKnownGood);
+        logoutCacheEviction = new LogoutCacheEviction(cacheManager,
+                beanFactory.getBeanProvider(LastKnownGoodTokens.class),
+                beanFactory.getBeanProvider(TokenRefreshLoader.class));
+
+        ValidateResponse valid = ValidateResponse.builder().valid(true).userId(1L).username("john")
+                .expiresAt(Instant.now().plus(Duration.ofHours(1))).build();
+        cache.put(TokenHasher.hash(TOKEN), valid);
+        lastKnownGood.record(TokenHasher.hash(TOKEN), valid);
+    }
+
+    @Test
+    void shouldEvictTokenAfterSuccessfulLogout() {
+        // When
+        logoutCacheEviction.afterLogout(logoutRequest(), ServerResponse.noContent().build());
+
+        // Then
+        assertThat(cache.get(TokenHasher.hash(TOKEN))).isNull();
+        assertThat(lastKnownGood.get(TOKEN)).isNull();
+    }
+
+    @Test
+    void shouldKeepTokenWhenLogoutFailed() {
+        // When
+        logoutCacheEviction.afterLogout(logoutRequest(), ServerResponse.status(HttpStatus.BAD_GATEWAY).build());
+
+        // Then
+        assertThat(cache.get(TokenHasher.hash(TOKEN))).isNotNull();
+        assertThat(lastKnownGood.get(TOKEN)).isNotNull();
+    }
+
+    @Test
+    void shouldIgnoreOtherAuthRoutes() {
+        // Given
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/auth/login");
+        login.addHeader("Authorization", "Bearer " + TOKEN);
+
+        // When
+        logoutCacheEviction.afterLogout(ServerRequest.create(login, List.of()), ServerResponse.ok().build());
+
+        // Then
+        assertThat(cache.get(TokenHasher.hash(TOKEN))).isNotNull();
+    }
+
+    private static ServerRequest logoutRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/logout");
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        return ServerRequest.create(request, List.of());
+    }
+}
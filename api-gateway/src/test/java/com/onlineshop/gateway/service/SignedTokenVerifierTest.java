@@ -0,0 +1,75 @@
+package com.onlineshop.gateway.service;
+
+import com.onlineshop.common.util.SignedSessionTokenCodec;
+import com.onlineshop.common.util.TokenHasher;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SignedTokenVerifierTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-15T10:30:00Z");
+    private static final SignedSessionTokenCodec CODEC = new SignedSessionTokenCodec(
+            "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+
+    private TokenRevocationSet revocations;
+    private SignedTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        revocations = mock(TokenRevocationSet.class);
+        when(revocations.isFresh()).thenReturn(true);
+        verifier = new SignedTokenVerifier(CODEC, revocations, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void shouldAcceptValidSignedTokenWithoutAuthService() {
+        // Given
+        String token = issue(NOW.plusSeconds(1800));
+
+        // When
+        ValidateResponse response = verifier.verify(token);
+
+        // Then
+        assertThat(response.isValid()).isTrue();
+        assertThat(response.getUserId()).isEqualTo(42L);
+        assertThat(response.getUsername()).isEqualTo("john");
+    }
+
+    @Test
+    void shouldRejectExpiredOrRevokedToken() {
+        // Given
+        String expired = issue(NOW.minusSeconds(1));
+        String revoked = issue(NOW.plusSeconds(1800));
+        when(revocations.isRevoked(TokenHasher.hash(revoked))).thenReturn(true);
+
+        // When / Then
+        assertThat(verifier.verify(expired).isValid()).isFalse();
+        assertThat(verifier.verify(revoked).isValid()).isFalse();
+    }
+
+    @Test
+    void shouldLeaveOpaqueTokensAndStaleRevocationsToAuthService() {
+        // Given
+        String signed = issue(NOW.plusSeconds(1800));
+
+        // When / Then
+        assertThat(verifier.verify("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")).isNull();
+        when(revocations.isFresh()).thenReturn(false);
+        assertThat(verifier.verify(signed)).isNull();
+    }
+
+    private String issue(Instant expiresAt) {
+        return CODEC.issue(new SignedSessionTokenCodec.Claims(42L, "john", NOW.minusSeconds(60), expiresAt),
+                new byte[SignedSessionTokenCodec.NONCE_LENGTH]);
+    }
+}
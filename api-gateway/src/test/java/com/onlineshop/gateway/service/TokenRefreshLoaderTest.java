@@ -0,0 +1,79 @@
+package com.onlineshop.gateway.service;
+
+import com.onlineshop.common.util.TokenHasher;
+import com.onlineshop.gateway.cache.CacheInvalidation;
+import com.onlineshop.gateway.cache.CacheInvalidationBus;
+import com.onlineshop.gateway.cache.InProcessCacheInvalidationBus;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRefreshLoaderTest {
+
+    private static final String TOKEN = "550e8400-e29b-41d4-a716-446655440000";
+    private static final String TOKEN_HASH = TokenHasher.hash(TOKEN);
+
+    private CacheInvalidationBus bus;
+    private AtomicInteger authCalls;
+    private TokenRefreshLoader refreshLoader;
+    private LogoutCacheEviction logoutCacheEviction;
+
+    @BeforeEach
+    void setUp() {
+        bus = new InProcessCacheInvalidationBus();
+        authCalls = new AtomicInteger();
+        AuthServiceClient authServiceClient = token -> {
+            authCalls.incrementAndGet();
+            return CompletableFuture.completedFuture(
+                    ValidateResponse.builder().valid(true).userId(1L).username("john").build());
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("cacheInvalidationBus", bus);
+        refreshLoader = new TokenRefreshLoader(authServiceClient,
+                beanFactory.getBeanProvider(LastKnownGoodTokens.class),
+                beanFactory.getBeanProvider(CacheInvalidationBus.class), 300, 1000);
+        beanFactory.addBean("tokenRefreshLoader", refreshLoader);
+        logoutCacheEviction = new LogoutCacheEviction(
+                new ConcurrentMapCacheManager(LogoutCacheEviction.CACHE_NAME),
+                beanFactory.getBeanProvider(LastKnownGoodTokens.class),
+                beanFactory.getBeanProvider(TokenRefreshLoader.class));
+        refreshLoader.remember(TOKEN_HASH, TOKEN);
+    }
+
+    @Test
+    void shouldReloadRememberedToken() {
+        // When
+        Object reloaded = refreshLoader.reload(TOKEN_HASH);
+
+        // Then
+        assertThat(reloaded).isInstanceOf(ValidateResponse.class);
+        assertThat(authCalls).hasValue(1);
+    }
+
+    @Test
+    void shouldForgetTokenOnLogoutOrRevocation() {
+        // When
+        logoutCacheEviction.evictTokenHash(TOKEN_HASH);
+
+        // Then
+        assertThat(refreshLoader.reload(TOKEN_HASH)).isNull();
+        assertThat(authCalls).hasValue(0);
+    }
+
+    @Test
+    void shouldForgetTokenEvictedByAnotherInstance() {
+        // When
+        bus.publish(new CacheInvalidation("other-instance", LogoutCacheEviction.CACHE_NAME, TOKEN_HASH));
+
+        // Then
+        assertThat(refreshLoader.reload(TOKEN_HASH)).isNull();
+        assertThat(authCalls).hasValue(0);
+    }
+}
@@ -0,0 +1,63 @@
+package com.onlineshop.gateway.service;
+
+import com.onlineshop.gateway.dto.ValidateResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class TokenRevocationSetTest {
+
+    private static final String AUTH_URL = "http://auth";
+    private static final String TOKEN_HASH = "a".repeat(64);
+
+    private MockRestServiceServer authServer;
+    private Cache cache;
+    private TokenRevocationSet revocations;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder();
+        authServer = MockRestServiceServer.bindTo(builder).build();
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(LogoutCacheEviction.CACHE_NAME);
+        cache = cacheManager.getCache(LogoutCacheEviction.CACHE_NAME);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("logoutCacheEviction",
+                new LogoutCacheEviction(cacheManager, beanFactory.getBeanProvider(LastKnownGoodTokens.class),
+                        beanFactory.getBeanProvider(TokenRefreshLoader.class)));
+        revocations = new TokenRevocationSet(builder.build(),
+                beanFactory.getBeanProvider(LogoutCacheEviction.class),
+                AUTH_URL, "/revocations", Duration.ofSeconds(5), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void shouldEvictCachedValidationOfPolledRevocation() {
+        // Given
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        cache.put(TOKEN_HASH, ValidateResponse.builder().valid(true).userId(1L).username("john")
+                .expiresAt(expiresAt).build());
+        authServer.expect(requestTo(AUTH_URL + "/revocations"))
+                .andRespond(withSuccess("""
+                        {"revoked":[{"tokenHash":"%s","expiresAt":"%s"}],"asOf":"%s"}
+                        """.formatted(TOKEN_HASH, expiresAt, Instant.now()), MediaType.APPLICATION_JSON));
+
+        // When
+        revocations.sync();
+
+        // Then
+        assertThat(revocations.isRevoked(TOKEN_HASH)).isTrue();
+        assertThat(cache.get(TOKEN_HASH)).isNull();
+        authServer.verify();
+    }
+}
@@ -0,0 +1,113 @@
+package com.onlineshop.gateway.service.impl;
+
+import com.onlineshop.gateway.dto.ValidateResponse;
+import com.onlineshop.gateway.exception.ServiceUnavailableException;
+import com.onlineshop.gateway.service.BatchAuthServiceClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchingAuthServiceClientTest {
+
+    private BatchAuthServiceClient delegate;
+    private ExecutorService executor;
+    private BatchingAuthServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(BatchAuthServiceClient.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        when(delegate.validateTokens(anyList())).thenAnswer(invocation -> {
+            List<String> tokens = invocation.getArgument(0);
+            return CompletableFuture.completedFuture(tokens.stream().map(this::responseFor).toList());
+        });
+        when(delegate.validateToken(anyString())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(responseFor(invocation.getArgument(0))));
+        // Long delay, so only a full batch is sent within a test unless the timer is what is tested
+        client = new BatchingAuthServiceClient(delegate, executor, 3, Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.destroy();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldSendFullBatchAsOneCallAndMapResultsBackByToken() {
+        // When
+        CompletableFuture<ValidateResponse> first = client.validateToken("token-1");
+        CompletableFuture<ValidateResponse> second = client.validateToken("token-2");
+        CompletableFuture<ValidateResponse> third = client.validateToken("token-3");
+
+        // Then
+        verify(delegate).validateTokens(List.of("token-1", "token-2", "token-3"));
+        assertThat(first.join().getUsername()).isEqualTo("token-1");
+        assertThat(second.join().getUsername()).isEqualTo("token-2");
+        assertThat(third.join().getUsername()).isEqualTo("token-3");
+    }
+
+    @Test
+    void shouldShareResultForTokenAlreadyPending() {
+        // When
+        CompletableFuture<ValidateResponse> first = client.validateToken("token-1");
+        CompletableFuture<ValidateResponse> duplicate = client.validateToken("token-1");
+
+        // Then
+        assertThat(duplicate).isSameAs(first);
+        verify(delegate, never()).validateTokens(anyList());
+    }
+
+    @Test
+    void shouldFlushPartialBatchAfterMaxDelay() {
+        // Given
+        client.destroy();
+        client = new BatchingAuthServiceClient(delegate, executor, 50, Duration.ofMillis(1));
+
+        // When
+        CompletableFuture<ValidateResponse> first = client.validateToken("token-1");
+        CompletableFuture<ValidateResponse> second = client.validateToken("token-2");
+
+        // Then
+        verify(delegate, timeout(1000)).validateTokens(List.of("token-1", "token-2"));
+        assertThat(first.join().getUsername()).isEqualTo("token-1");
+        assertThat(second.join().getUsername()).isEqualTo("token-2");
+    }
+
+    @Test
+    void shouldFailEveryTokenOfFailedBatch() {
+        // Given
+        when(delegate.validateTokens(anyList())).thenReturn(
+                CompletableFuture.failedFuture(new ServiceUnavailableException("Auth service is overloaded")));
+
+        // When
+        CompletableFuture<ValidateResponse> first = client.validateToken("token-1");
+        CompletableFuture<ValidateResponse> second = client.validateToken("token-2");
+        CompletableFuture<ValidateResponse> third = client.validateToken("token-3");
+
+        // Then
+        for (CompletableFuture<ValidateResponse> result : List.of(first, second, third)) {
+            assertThatThrownBy(result::join).hasCauseInstanceOf(ServiceUnavailableException.class);
+        }
+    }
+
+    private ValidateResponse responseFor(String token) {
+        return ValidateResponse.builder().valid(true).userId(1L).username(token).build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.onlineshop.gateway.service.impl;
+
+import com.onlineshop.gateway.config.ResilienceConfig;
+import com.onlineshop.gateway.dto.ValidateResponse;
+import com.onlineshop.gateway.exception.ConcurrencyLimitExceededException;
+import com.onlineshop.gateway.exception.GatewayTimeoutException;
+import com.onlineshop.gateway.exception.ServiceUnavailableException;
+import com.onlineshop.gateway.service.AdaptiveConcurrencyLimiter;
+import com.onlineshop.gateway.service.AuthRequestHedger;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SyncAuthServiceClientTest {
+
+    private static final String VALID_BODY = "{\"valid\":true,\"userId\":1,\"username\":\"john\"}";
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private SyncAuthServiceClient client;
+    private final AtomicLong responseDelayMillis = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/auth/validate", exchange -> {
+            try {
+                Thread.sleep(responseDelayMillis.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = VALID_BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.start();
+
+        String url = "http://localhost:" + server.getAddress().getPort();
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        client = new SyncAuthServiceClient(RestClient.builder().build(),
+                HttpClient.newBuilder().executor(executor).build(), executor,
+                url, "/api/v1/auth/validate", "/api/v1/auth/validate/batch", Duration.ofMillis(200),
+                circuitBreakerRegistry, new AdaptiveConcurrencyLimiter("authService", 20, 4, 200, 2.0, 0.2, 600),
+                new StaticListableBeanFactory().getBeanProvider(AuthRequestHedger.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldReturnCompletedFutureFromCallersThread() {
+        // When
+        CompletableFuture<ValidateResponse> result = client.validateToken("token");
+
+        // Then
+        assertThat(result).isDone();
+        assertThat(result.join().getUsername()).isEqualTo("john");
+    }
+
+    @Test
+    void shouldMapRequestDeadlineToGatewayTimeout() {
+        // Given
+        responseDelayMillis.set(1000);
+
+        // When
+        CompletableFuture<ValidateResponse> result = client.validateToken("token");
+
+        // Then
+        assertThatThrownBy(result::join).hasCauseInstanceOf(GatewayTimeoutException.class);
+        assertThat(circuitBreakerRegistry.circuitBreaker("authService").getMetrics().getNumberOfFailedCalls())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailFastWhileCircuitIsOpen() {
+        // Given
+        circuitBreakerRegistry.circuitBreaker("authService").transitionToOpenState();
+
+        // When
+        CompletableFuture<ValidateResponse> result = client.validateToken("token");
+
+        // Then
+        assertThatThrownBy(result::join).hasCauseInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void shouldLeaveCircuitClosedWhenLimiterShedsCalls() {
+        // Given
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(
+                new ResilienceConfig().authServiceCircuitBreaker().getCircuitBreakerConfig());
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("authService", 1, 1, 1, 2.0, 0.2, 600);
+        AdaptiveConcurrencyLimiter.Permit held = limiter.tryAcquire();
+        SyncAuthServiceClient sheddingClient = new SyncAuthServiceClient(RestClient.builder().build(),
+                HttpClient.newBuilder().executor(executor).build(), executor,
+                "http://localhost:" + server.getAddress().getPort(), "/api/v1/auth/validate",
+                "/api/v1/auth/validate/batch", Duration.ofMillis(200), registry, limiter,
+                new StaticListableBeanFactory().getBeanProvider(AuthRequestHedger.class));
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            CompletableFuture<ValidateResponse> result = sheddingClient.validateToken("token");
+            assertThatThrownBy(result::join).hasCauseInstanceOf(ConcurrencyLimitExceededException.class);
+        }
+
+        // Then
+        CircuitBreaker circuitBreaker = registry.circuitBreaker("authService");
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isZero();
+        held.onIgnore();
+    }
+}
@@ -0,0 +1,149 @@
+package com.onlineshop.common.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Self-contained session tokens signed with HMAC-SHA256, shared by the Auth service (issuing) and the
+ * API gateway (verifying without a call to Auth).
+ *
+ * <p>Format: {@code s1.<payload>.<signature>}, both parts base64url without padding. The payload is</p>
+ * <pre>
+ * nonce      16 bytes  random, keeps tokens of the same user and second distinct
+ * userId      8 bytes
+ * createdAt   8 bytes  epoch seconds
+ * expiresAt   8 bytes  epoch seconds
+ * username   rest      UTF-8
+ * </pre>
+ *
+ * <p>Opaque tokens are hex and never contain a dot, so {@link #isSigned(String)} tells the formats apart.
+ * Verification checks the signature only; expiry and revocation are up to the caller.</p>
+ */
+public final class SignedSessionTokenCodec {
+
+    public static final String PREFIX = "s1.";
+    public static final int NONCE_LENGTH = 16;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_LENGTH = 32;
+    private static final int FIXED_PAYLOAD_LENGTH = NONCE_LENGTH + 3 * Long.BYTES;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Mac prototype;
+
+    /**
+     * @param secret shared HMAC key, at least 32 bytes
+     */
+    public SignedSessionTokenCodec(byte[] secret) {
+        if (secret == null || secret.length < MIN_SECRET_LENGTH) {
+            throw new IllegalArgumentException("Session token secret must be at least " + MIN_SECRET_LENGTH + " bytes");
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.prototype = newMac();
+    }
+
+    public static boolean isSigned(String token) {
+        return token != null && token.startsWith(PREFIX);
+    }
+
+    /**
+     * Issues a signed token.
+     *
+     * @param claims session claims
+     * @param nonce  {@value #NONCE_LENGTH} random bytes
+     */
+    public String issue(Claims claims, byte[] nonce) {
+        if (nonce.length != NONCE_LENGTH) {
+            throw new IllegalArgumentException("Nonce must be " + NONCE_LENGTH + " bytes");
+        }
+        byte[] username = claims.username().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(FIXED_PAYLOAD_LENGTH + username.length)
+                .put(nonce)
+                .putLong(claims.userId())
+                .putLong(claims.createdAt().getEpochSecond())
+                .putLong(claims.expiresAt().getEpochSecond())
+                .put(username);
+
+        String body = PREFIX + ENCODER.encodeToString(payload.array());
+        return body + "." + ENCODER.encodeToString(sign(body));
+    }
+
+    /**
+     * Verifies the signature and decodes the claims.
+     *
+     * @return the claims, or null if the token is malformed or its signature does not match
+     */
+    public Claims verify(String token) {
+        if (!isSigned(token)) {
+            return null;
+        }
+        int separator = token.lastIndexOf('.');
+        if (separator <= PREFIX.length()) {
+            return null;
+        }
+
+        try {
+            String body = token.substring(0, separator);
+            byte[] signature = DECODER.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, sign(body))) {
+                return null;
+            }
+
+            byte[] payload = DECODER.decode(body.substring(PREFIX.length()));
+            if (payload.length < FIXED_PAYLOAD_LENGTH) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(payload, NONCE_LENGTH, payload.length - NONCE_LENGTH);
+            long userId = buffer.getLong();
+            Instant createdAt = Instant.ofEpochSecond(buffer.getLong());
+            Instant expiresAt = Instant.ofEpochSecond(buffer.getLong());
+            String username = new String(payload, FIXED_PAYLOAD_LENGTH, payload.length - FIXED_PAYLOAD_LENGTH,
+                    StandardCharsets.UTF_8);
+            return new Claims(userId, username, createdAt, expiresAt);
+        } catch (IllegalArgumentException e) {
+            // Not base64url
+            return null;
+        }
+    }
+
+    private byte[] sign(String body) {
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            mac = newMac();
+        }
+        // The body is base64url and the prefix, so ASCII
+        byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        return mac.doFinal(bytes);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+
+    /**
+     * Session data carried in a signed token.
+     */
+    public record Claims(long userId, String username, Instant createdAt, Instant expiresAt) {
+
+        public boolean isExpired(Instant now) {
+            return now.isAfter(expiresAt);
+        }
+    }
+}
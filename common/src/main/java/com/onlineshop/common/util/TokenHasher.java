@@ -0,0 +1,117 @@
+package com.onlineshop.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * SHA-256 hashing of session tokens into lowercase hex, shared by the Auth service (stored token
+ * hashes) and the API gateway (cache keys).
+ *
+ * <p>Runs on every authenticated request, so it avoids the usual per-call overhead:</p>
+ * <ul>
+ *   <li>No {@code MessageDigest.getInstance} provider lookup - digests are reused. Platform threads
+ *       keep one in a {@link ThreadLocal}. Virtual threads are short-lived, one per request, so a
+ *       thread-local would never be hit twice; they borrow from a small striped pool instead.</li>
+ *   <li>ASCII tokens are copied into a reused buffer instead of {@code String.getBytes}.</li>
+ *   <li>Hex is encoded through a lookup table; the only allocation is the resulting String.</li>
+ * </ul>
+ */
+public final class TokenHasher {
+
+    private static final String ALGORITHM = "SHA-256";
+    private static final int DIGEST_LENGTH = 32;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<HashState> PLATFORM_STATE = ThreadLocal.withInitial(HashState::new);
+    private static final int POOL_SIZE = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+    private static final AtomicReferenceArray<HashState> VIRTUAL_POOL = new AtomicReferenceArray<>(POOL_SIZE);
+
+    private TokenHasher() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Hashes a token using SHA-256.
+     *
+     * @param token the raw token to hash
+     * @return the lowercase hex-encoded SHA-256 hash of the token, or {@code null} for a null token
+     * @throws IllegalStateException if SHA-256 algorithm is not available
+     */
+    public static String hash(String token) {
+        if (token == null) {
+            return null;
+        }
+
+        Thread thread = Thread.currentThread();
+        if (!thread.isVirtual()) {
+            return PLATFORM_STATE.get().hash(token);
+        }
+
+        int slot = (int) thread.threadId() & (POOL_SIZE - 1);
+        HashState state = VIRTUAL_POOL.getAndSet(slot, null);
+        if (state == null) {
+            // Slot taken by a concurrent caller - a fresh digest is still cheaper than failing over
+            state = new HashState();
+        }
+        try {
+            return state.hash(token);
+        } finally {
+            VIRTUAL_POOL.set(slot, state);
+        }
+    }
+
+    private static final class HashState {
+
+        private final MessageDigest digest;
+        private final byte[] hash = new byte[DIGEST_LENGTH];
+        private final byte[] hex = new byte[DIGEST_LENGTH * 2];
+        private byte[] input = new byte[128];
+
+        private HashState() {
+            try {
+                digest = MessageDigest.getInstance(ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 algorithm not available", e);
+            }
+        }
+
+        private String hash(String token) {
+            int length = token.length();
+            if (isAscii(token, length)) {
+                if (input.length < length) {
+                    input = new byte[length];
+                }
+                for (int i = 0; i < length; i++) {
+                    input[i] = (byte) token.charAt(i);
+                }
+                digest.update(input, 0, length);
+            } else {
+                digest.update(token.getBytes(StandardCharsets.UTF_8));
+            }
+
+            try {
+                digest.digest(hash, 0, DIGEST_LENGTH);
+            } catch (DigestException e) {
+                throw new IllegalStateException("SHA-256 digest failed", e);
+            }
+
+            for (int i = 0; i < DIGEST_LENGTH; i++) {
+                hex[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0x0F];
+                hex[i * 2 + 1] = HEX_DIGITS[hash[i] & 0x0F];
+            }
+            return new String(hex, StandardCharsets.ISO_8859_1);
+        }
+
+        private static boolean isAscii(String token, int length) {
+            for (int i = 0; i < length; i++) {
+                if (token.charAt(i) >= 0x80) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.onlineshop.common.util;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SignedSessionTokenCodecTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NONCE = new byte[SignedSessionTokenCodec.NONCE_LENGTH];
+    private static final SignedSessionTokenCodec.Claims CLAIMS = new SignedSessionTokenCodec.Claims(
+            42L, "jöhn", Instant.parse("2025-01-15T10:00:00Z"), Instant.parse("2025-01-15T11:00:00Z"));
+
+    private final SignedSessionTokenCodec codec = new SignedSessionTokenCodec(SECRET);
+
+    @Test
+    public void shouldRoundTripClaims() {
+        String token = codec.issue(CLAIMS, NONCE);
+
+        assertTrue(SignedSessionTokenCodec.isSigned(token));
+        assertEquals(CLAIMS, codec.verify(token));
+    }
+
+    @Test
+    public void shouldRejectTamperedPayload() {
+        String token = codec.issue(CLAIMS, NONCE);
+        int payloadChar = SignedSessionTokenCodec.PREFIX.length() + 30;
+        char replacement = token.charAt(payloadChar) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, payloadChar) + replacement + token.substring(payloadChar + 1);
+
+        assertNull(codec.verify(tampered));
+    }
+
+    @Test
+    public void shouldRejectTokenSignedWithOtherKey() {
+        SignedSessionTokenCodec other = new SignedSessionTokenCodec(
+                "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII));
+
+        assertNull(codec.verify(other.issue(CLAIMS, NONCE)));
+    }
+
+    @Test
+    public void shouldNotTreatOpaqueTokensAsSigned() {
+        String opaque = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+        assertFalse(SignedSessionTokenCodec.isSigned(opaque));
+        assertNull(codec.verify(opaque));
+        assertNull(codec.verify("s1.not-base64!.x"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireLongEnoughSecret() {
+        new SignedSessionTokenCodec("short".getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,50 @@
+package com.onlineshop.common.util;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TokenHasherTest {
+
+    @Test
+    public void shouldMatchJdkSha256Hex() throws Exception {
+        for (String token : List.of("", "550e8400-e29b-41d4-a716-446655440000", "jöhn-€-token", "x".repeat(300))) {
+            assertEquals(token, expectedHash(token), TokenHasher.hash(token));
+        }
+    }
+
+    @Test
+    public void shouldReturnNullForNullToken() {
+        assertNull(TokenHasher.hash(null));
+    }
+
+    @Test
+    public void shouldHashCorrectlyFromManyVirtualThreads() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                String token = "token-" + i;
+                results.add(executor.submit(() -> TokenHasher.hash(token)));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(expectedHash("token-" + i), results.get(i).get());
+            }
+        }
+    }
+
+    private static String expectedHash(String token) throws Exception {
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash);
+    }
+}
@@ -8,14 +8,17 @@
 export const ENVIRONMENTS = {
     local: {
         authServiceUrl: 'http://localhost:9001',
+        gatewayUrl: 'http://localhost:10000',
         name: 'Local Development',
     },
     docker: {
         authServiceUrl: 'http://auth-service:9001',
+        gatewayUrl: 'http://api-gateway:10000',
         name: 'Docker Compose',
     },
     staging: {
         authServiceUrl: 'http://staging.onlineshop.com:9001',
+        gatewayUrl: 'http://staging.onlineshop.com:10000',
         name: 'Staging',
     },
 };
@@ -45,3 +48,10 @@ export function getAuthServiceUrl() {
     return env.authServiceUrl;
 }
 
+/**
+ * Get the API gateway base URL
+ */
+export function getGatewayUrl() {
+    const env = getEnvironment();
+    return env.gatewayUrl;
+}
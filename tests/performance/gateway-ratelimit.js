@@ -0,0 +1,102 @@
+/**
+ * Rate Limit Load Test for the API Gateway
+ *
+ * Purpose: Show how many rate limit decisions reach Redis. With local token allotments
+ * (gateway.ratelimit.local.enabled=true) Redis is only asked once per borrowed batch;
+ * with them disabled, every request is a Redis round-trip.
+ *
+ * Traffic:
+ * - Anonymous GET /api/product-info, spread over CLIENTS simulated client IPs (X-Forwarded-For)
+ * - 429 responses are expected once a client's bucket is drained
+ *
+ * At the end the gateway's gateway.ratelimit.decisions.total counters are read from the actuator
+ * and the share of remote decisions is printed (the counters are cumulative - restart the
+ * gateway between runs). Compare a run with local allotments on and off:
+ *   k6 run gateway-ratelimit.js
+ *   (restart gateway with GATEWAY_RATELIMIT_LOCAL_ENABLED=false)
+ *   k6 run gateway-ratelimit.js
+ *
+ * Usage:
+ *   k6 run gateway-ratelimit.js
+ *   k6 run -e ENV=docker -e CLIENTS=50 gateway-ratelimit.js
+ */
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+import { textSummary } from 'https://jslib.k6.io/k6-summary/0.0.1/index.js';
+import { getGatewayUrl } from './config/environments.js';
+
+const BASE_URL = getGatewayUrl();
+const CLIENTS = parseInt(__ENV.CLIENTS || '20', 10);
+
+const admitted = new Counter('ratelimit_admitted');
+const throttled = new Counter('ratelimit_throttled');
+
+export const options = {
+    scenarios: {
+        ratelimit: {
+            executor: 'constant-arrival-rate',
+            rate: 500,
+            timeUnit: '1s',
+            duration: '2m',
+            preAllocatedVUs: 50,
+            maxVUs: 200,
+        },
+    },
+    thresholds: {
+        // Admitted and throttled requests alike should not pay a Redis round-trip each
+        'http_req_duration{operation:product_info}': ['p(95)<50'],
+        'checks': ['rate>0.99'],
+    },
+};
+
+export default function () {
+    const clientIp = `10.0.0.${Math.floor(Math.random() * CLIENTS) + 1}`;
+    const res = http.get(`${BASE_URL}/api/product-info`, {
+        headers: { 'X-Forwarded-For': clientIp },
+        tags: { operation: 'product_info' },
+        responseCallback: http.expectedStatuses(200, 429),
+    });
+
+    check(res, {
+        'status is 200 or 429': (r) => r.status === 200 || r.status === 429,
+    });
+    if (res.status === 200) {
+        admitted.add(1);
+    } else {
+        throttled.add(1);
+    }
+}
+
+function readDecisions(source) {
+    const res = http.get(`${BASE_URL}/actuator/metrics/gateway.ratelimit.decisions.total?tag=source:${source}`);
+    if (res.status !== 200) {
+        return 0;
+    }
+    return res.json('measurements.0.value') || 0;
+}
+
+export function teardown() {
+    const local = readDecisions('local');
+    const remote = readDecisions('remote');
+    const total = local + remote;
+
+    console.log('='.repeat(60));
+    console.log('RATE LIMIT DECISIONS');
+    console.log('='.repeat(60));
+    console.log(`Local (no Redis call):  ${local}`);
+    console.log(`Remote (Redis call):    ${remote}`);
+    if (total > 0) {
+        console.log(`Redis calls per request: ${(remote / total).toFixed(3)}`);
+    }
+}
+
+export function handleSummary(data) {
+    const now = new Date().toISOString().replace(/[:.]/g, '-');
+
+    return {
+        [`reports/gateway-ratelimit-${now}.json`]: JSON.stringify(data, null, 2),
+        stdout: textSummary(data, { indent: ' ', enableColors: true }),
+    };
+}